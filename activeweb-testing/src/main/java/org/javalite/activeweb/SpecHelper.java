@@ -56,6 +56,7 @@ public class SpecHelper extends JSpecSupport{
 
     @After
     public void afterEnd(){
+        Context.releaseUploads();
         Context.clear();
     }
 
@@ -43,6 +43,7 @@ public abstract class ViewSpec extends SpecHelper {
 
     @After
     public final void afterTest(){
+        Context.releaseUploads();
         Context.clear();
     }
 
@@ -101,9 +102,7 @@ public abstract class ViewSpec extends SpecHelper {
     protected String render(String templateName, Map values) {
         StringWriter stringWriter = new StringWriter();
 
-        ParamCopy.copyInto(values);
-
-        manager.merge(values, templateName, stringWriter);
+        manager.merge(new ViewModel(values), templateName, stringWriter);
         return stringWriter.toString();
     }
 
@@ -57,6 +57,7 @@ public abstract class AbstractControllerConfig extends AppConfig {
 
     //exclude some controllers from filters
     private List<ExcludeBuilder> excludeBuilders = new ArrayList<ExcludeBuilder>();
+    private List<CacheBuilder> cacheBuilders = new ArrayList<CacheBuilder>();
 
     public class FilterBuilder {
         private ControllerFilter[] filters;
@@ -117,6 +118,94 @@ public abstract class AbstractControllerConfig extends AppConfig {
     }
 
 
+    public class CacheBuilder {
+        private final int seconds;
+        private String[] params, vary, actionNames;
+        private Class<? extends AppController>[] controllerClasses;
+
+        protected CacheBuilder(int seconds) {
+            this.seconds = seconds;
+        }
+
+        /**
+         * Names of request parameters that are part of a key of a cached response. If not called, all parameters are.
+         *
+         * @param params names of request parameters
+         * @return self
+         */
+        public CacheBuilder params(String... params) {
+            this.params = params;
+            return this;
+        }
+
+        /**
+         * Names of request headers that are part of a key of a cached response, such as "Accept-Language".
+         *
+         * @param headers names of request headers
+         * @return self
+         */
+        public CacheBuilder vary(String... headers) {
+            this.vary = headers;
+            return this;
+        }
+
+        /**
+         * Caches responses of all actions of controllers.
+         *
+         * @param controllerClasses controller classes
+         * @return self, usually to run a method {@link #forActions(String...)}.
+         */
+        public CacheBuilder to(Class<? extends AppController>... controllerClasses) {
+            this.controllerClasses = controllerClasses;
+            return this;
+        }
+
+        /**
+         * Limits caching to a list of actions.
+         *
+         * @param actionNames list of action names whose responses are cached.
+         */
+        public void forActions(String... actionNames) {
+            if (controllerClasses == null)
+                throw new IllegalArgumentException("controller classes not provided. Please call 'to(controllers)' before 'forActions(actions)'");
+            this.actionNames = actionNames;
+        }
+
+        /**
+         * Sets policies when configuration is complete, so that order of calls does not matter.
+         */
+        private void register() {
+            if (controllerClasses == null) {
+                throw new IllegalArgumentException("controller classes not provided. Please call 'to(controllers)' after 'cacheResponses(seconds)'");
+            }
+            CachePolicy policy = new CachePolicy(seconds, params, vary);
+            for (Class<? extends AppController> controllerClass : controllerClasses) {
+                ControllerMetaData metaData = Context.getControllerRegistry().getMetaData(controllerClass);
+                if (actionNames == null) {
+                    metaData.setCachePolicy(policy);
+                } else {
+                    metaData.setCachePolicy(policy, actionNames);
+                }
+            }
+        }
+    }
+
+    /**
+     * Caches complete responses of controllers or actions, see {@link org.javalite.activeweb.annotations.CacheResponse}.
+     * Example:
+     * <pre>
+     * cacheResponses(300).params("page").to(BooksController.class).forActions("index");
+     * </pre>
+     *
+     * @param seconds number of seconds to keep a response in cache.
+     * @return object with <code>to()</code> method which accepts controller classes.
+     */
+    protected CacheBuilder cacheResponses(int seconds) {
+        CacheBuilder cacheBuilder = new CacheBuilder(seconds);
+        cacheBuilders.add(cacheBuilder);
+        return cacheBuilder;
+    }
+
     /**
      * Adds a set of filters to a set of controllers.
      * The filters are invoked in the order specified.
@@ -151,6 +240,9 @@ public abstract class AbstractControllerConfig extends AppConfig {
         for (ExcludeBuilder excludeBuilder : excludeBuilders) {
             Context.getControllerRegistry().addGlobalFilters(excludeBuilder.getFilters(), excludeBuilder.getExcludeControllerClasses());
         }
+        for (CacheBuilder cacheBuilder : cacheBuilders) {
+            cacheBuilder.register();
+        }
     }
 
 
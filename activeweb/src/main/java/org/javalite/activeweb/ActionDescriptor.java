@@ -0,0 +1,265 @@
+/*
+Copyright 2009-2014 Igor Polevoy
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package org.javalite.activeweb;
+
+import org.javalite.activeweb.annotations.CacheResponse;
+import org.javalite.activeweb.annotations.Compress;
+import org.javalite.activeweb.annotations.ETag;
+import org.javalite.common.Inflector;
+
+import java.lang.reflect.Method;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Describes a single action of a controller: action method, HTTP methods it supports and
+ * default template. Descriptors are created on first request to an action and cached, so that
+ * requests do not need to look up methods and annotations with reflection. Cache is not used
+ * in <code>active_reload</code> mode, because controller classes are reloaded on every request.
+ *
+ * @author Igor Polevoy
+ */
+final class ActionDescriptor {
+
+    private static final ConcurrentMap<Class, ConcurrentMap<String, ActionDescriptor>> descriptors
+            = new ConcurrentHashMap<Class, ConcurrentMap<String, ActionDescriptor>>();
+
+    private final Class<? extends AppController> controllerClass;
+    private final String actionName, methodName;
+    // computed on first use, because not every controller is located where a path can be generated for it
+    private String controllerPath, templatePath;
+    private final Method method;
+    private final NoSuchMethodException missingMethod;
+    private final List<HttpMethod> allowedMethods;
+    private final HttpMethod restfulMethod;
+    private final boolean restful, customHttpMethods, compress, etag;
+    private final CachePolicy cachePolicy;
+
+    private ActionDescriptor(Class<? extends AppController> controllerClass, String actionName) {
+        this.controllerClass = controllerClass;
+        this.actionName = actionName;
+        methodName = Inflector.camelize(actionName.replace('-', '_'), false);
+        restful = AppController.restful(controllerClass);
+        restfulMethod = restful ? restfulMethod(methodName) : null;
+        customHttpMethods = overridesHttpMethodChecks(controllerClass);
+
+        Method m = null;
+        NoSuchMethodException missing = null;
+        try {
+            m = controllerClass.getMethod(methodName);
+        } catch (NoSuchMethodException e) {
+            missing = e;
+        }
+        method = m;
+        missingMethod = missing;
+        allowedMethods = method == null ? null : allowedMethods(method);
+        compress = compress(controllerClass, method);
+        etag = etag(controllerClass, method);
+        cachePolicy = cachePolicy(controllerClass, method);
+    }
+
+    /**
+     * Returns descriptor of an action.
+     *
+     * @param controllerClass class of controller
+     * @param actionName name of action as it came from a route, such as "show" or "edit_form"
+     * @return descriptor of an action
+     */
+    static ActionDescriptor get(Class<? extends AppController> controllerClass, String actionName) {
+        if (Configuration.activeReload()) {
+            return new ActionDescriptor(controllerClass, actionName);
+        }
+        ConcurrentMap<String, ActionDescriptor> actions = descriptors.get(controllerClass);
+        if (actions == null) {
+            descriptors.putIfAbsent(controllerClass, new ConcurrentHashMap<String, ActionDescriptor>());
+            actions = descriptors.get(controllerClass);
+        }
+        ActionDescriptor descriptor = actions.get(actionName);
+        if (descriptor == null) {
+            descriptor = new ActionDescriptor(controllerClass, actionName);
+            //action names come from URI, do not cache actions that do not exist
+            if (descriptor.method != null) {
+                actions.put(actionName, descriptor);
+            }
+        }
+        return descriptor;
+    }
+
+    Class<? extends AppController> getControllerClass() {
+        return controllerClass;
+    }
+
+    String getActionName() {
+        return actionName;
+    }
+
+    /**
+     * @return name of Java method of an action, such as "editForm" for action "edit_form".
+     */
+    String getMethodName() {
+        return methodName;
+    }
+
+    String getControllerPath() {
+        if (controllerPath == null) {
+            controllerPath = Router.getControllerPath(controllerClass);
+        }
+        return controllerPath;
+    }
+
+    /**
+     * @return default template for this action, such as "/books/show".
+     */
+    String getTemplatePath() {
+        if (templatePath == null) {
+            templatePath = getControllerPath() + "/" + actionName;
+        }
+        return templatePath;
+    }
+
+    boolean isRestful() {
+        return restful;
+    }
+
+    /**
+     * @return action method.
+     * @throws NoSuchMethodException if controller does not have action method.
+     */
+    Method getMethod() throws NoSuchMethodException {
+        if (method == null) {
+            throw missingMethod;
+        }
+        return method;
+    }
+
+    /**
+     * Checks if the action supports an HTTP method. Same as {@link AppController#actionSupportsHttpMethod(String, HttpMethod)},
+     * which is still called if a controller overrides it.
+     *
+     * @param controller controller instance
+     * @param httpMethod HTTP method of request
+     * @return true if supports, false if does not.
+     */
+    boolean supports(AppController controller, HttpMethod httpMethod) {
+        if (customHttpMethods) {
+            return controller.actionSupportsHttpMethod(methodName, httpMethod);
+        }
+        if (restfulMethod != null && restfulMethod == httpMethod) {
+            return true;
+        }
+        return getAllowedMethods(controller).contains(httpMethod);
+    }
+
+    /**
+     * @param controller controller instance
+     * @return HTTP methods allowed by annotations of an action method.
+     */
+    List<HttpMethod> getAllowedMethods(AppController controller) {
+        if (customHttpMethods) {
+            return controller.allowedActions(methodName);
+        }
+        if (method == null) {
+            throw new ActionNotFoundException(missingMethod);
+        }
+        return allowedMethods;
+    }
+
+    /**
+     * @return true if responses of this action are to be compressed, see {@link Compress}.
+     */
+    boolean compress() {
+        return compress;
+    }
+
+    /**
+     * @return true if rendered pages of this action get an <code>ETag</code>, see {@link ETag}.
+     */
+    boolean etag() {
+        return etag;
+    }
+
+    /**
+     * @return policy of caching responses of this action, see {@link CacheResponse}, null if they are not cached.
+     */
+    CachePolicy getCachePolicy() {
+        if (cachePolicy != null) {
+            return cachePolicy;
+        }
+        ControllerRegistry registry = Context.getControllerRegistry();
+        return registry == null ? null : registry.getMetaData(controllerClass).getCachePolicy(actionName);
+    }
+
+    private static CachePolicy cachePolicy(Class<? extends AppController> controllerClass, Method method) {
+        CacheResponse cacheResponse = method == null ? null : method.getAnnotation(CacheResponse.class);
+        if (cacheResponse == null) {
+            cacheResponse = controllerClass.getAnnotation(CacheResponse.class);
+        }
+        return cacheResponse == null ? null : new CachePolicy(cacheResponse);
+    }
+
+    private static boolean compress(Class<? extends AppController> controllerClass, Method method) {
+        Compress compress = method == null ? null : method.getAnnotation(Compress.class);
+        if (compress == null) {
+            compress = controllerClass.getAnnotation(Compress.class);
+        }
+        return compress == null ? Configuration.compression() : compress.value();
+    }
+
+    private static boolean etag(Class<? extends AppController> controllerClass, Method method) {
+        ETag etag = method == null ? null : method.getAnnotation(ETag.class);
+        if (etag == null) {
+            etag = controllerClass.getAnnotation(ETag.class);
+        }
+        return etag == null ? Configuration.etag() : etag.value();
+    }
+
+    private static List<HttpMethod> allowedMethods(Method method) {
+        List<HttpMethod> res = HttpMethod.methods(method.getAnnotations());
+        //default behavior: GET method!
+        if (res.isEmpty()) {
+            return Collections.singletonList(HttpMethod.GET);
+        }
+        return Collections.unmodifiableList(res);
+    }
+
+    private static HttpMethod restfulMethod(String methodName) {
+        if (methodName.equals("index") || methodName.equals("newForm") || methodName.equals("show") || methodName.equals("editForm")) {
+            return HttpMethod.GET;
+        } else if (methodName.equals("create")) {
+            return HttpMethod.POST;
+        } else if (methodName.equals("update")) {
+            return HttpMethod.PUT;
+        } else if (methodName.equals("destroy")) {
+            return HttpMethod.DELETE;
+        }
+        return null;
+    }
+
+    // controllers can override these methods of AppController, in which case they are called as before.
+    private static boolean overridesHttpMethodChecks(Class<?> controllerClass) {
+        for (Class<?> c = controllerClass; c != null && c != AppController.class; c = c.getSuperclass()) {
+            for (Method m : c.getDeclaredMethods()) {
+                String name = m.getName();
+                if (name.equals("actionSupportsHttpMethod") || name.equals("standardActionSupportsHttpMethod")
+                        || name.equals("allowedActions") || (name.equals("restful") && m.getParameterTypes().length == 0)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+}
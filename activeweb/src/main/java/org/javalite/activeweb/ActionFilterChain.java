@@ -0,0 +1,58 @@
+/*
+Copyright 2009-2014 Igor Polevoy
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package org.javalite.activeweb;
+
+import org.javalite.activeweb.controller_filters.ControllerFilter;
+
+import java.util.List;
+
+/**
+ * Filters resolved for a controller action: global filters that are not excluded for the controller,
+ * followed by filters of the controller and action. Instances are immutable and cached in
+ * {@link ControllerMetaData}, so that requests do not need to put filter lists together.
+ *
+ * @author Igor Polevoy
+ */
+final class ActionFilterChain {
+
+    private final ControllerFilter[] globalFilters, controllerFilters;
+
+    ActionFilterChain(List<ControllerFilter> globalFilters, List<ControllerFilter> controllerFilters) {
+        this.globalFilters = globalFilters.toArray(new ControllerFilter[globalFilters.size()]);
+        this.controllerFilters = controllerFilters.toArray(new ControllerFilter[controllerFilters.size()]);
+    }
+
+    /**
+     * @return global filters in order in which they were added. Do not modify.
+     */
+    ControllerFilter[] getGlobalFilters() {
+        return globalFilters;
+    }
+
+    /**
+     * @return controller and action filters in order in which they were added. Do not modify.
+     */
+    ControllerFilter[] getControllerFilters() {
+        return controllerFilters;
+    }
+
+    /**
+     * @return true if there are no filters to execute.
+     */
+    boolean isEmpty() {
+        return globalFilters.length == 0 && controllerFilters.length == 0;
+    }
+}
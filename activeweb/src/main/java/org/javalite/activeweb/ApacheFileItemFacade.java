@@ -2,6 +2,7 @@ package org.javalite.activeweb;
 
 import org.apache.commons.fileupload.FileItemHeaders;
 import org.apache.commons.fileupload.FileItemStream;
+import org.apache.commons.fileupload.util.FileItemHeadersImpl;
 
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
@@ -13,6 +14,7 @@ class ApacheFileItemFacade implements FileItemStream {
     private boolean isFile;
     private byte[] content;
     private InputStream inputStream;
+    private FileItemHeaders headers = new FileItemHeadersImpl();
 
 
 
@@ -30,6 +32,9 @@ class ApacheFileItemFacade implements FileItemStream {
         this.contentType = apacheFileItem.getContentType();
         this.isFile = !apacheFileItem.isFormField();
         this.inputStream = apacheFileItem.getInputStream();
+        if (apacheFileItem.getHeaders() != null) {
+            this.headers = apacheFileItem.getHeaders();
+        }
     }
 
     public InputStream openStream() throws IOException {
@@ -59,10 +64,10 @@ class ApacheFileItemFacade implements FileItemStream {
     }
 
     public FileItemHeaders getHeaders() {
-        throw new UnsupportedOperationException("not implemented");
+        return headers;
     }
 
     public void setHeaders(FileItemHeaders fileItemHeaders) {
-        throw new UnsupportedOperationException("not implemented");
+        this.headers = fileItemHeaders;
     }
 }
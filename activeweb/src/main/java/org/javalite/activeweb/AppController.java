@@ -20,9 +20,7 @@ import org.javalite.common.Util;
 
 import java.io.IOException;
 import java.io.InputStream;
-import java.lang.annotation.Annotation;
 import java.lang.reflect.Method;
-import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
@@ -192,16 +190,12 @@ public abstract class AppController extends HttpSupport {
     protected List<HttpMethod> allowedActions(String actionMethodName) {
         try {
             Method method = getClass().getMethod(actionMethodName);
-            Annotation[] annotations = method.getAnnotations();
+            List<HttpMethod> res = HttpMethod.methods(method.getAnnotations());
 
             //default behavior: GET method!
-            if (annotations.length == 0) {
+            if (res.isEmpty()) {
                 return Collections.singletonList(HttpMethod.GET);
             } else {
-                List<HttpMethod> res = new ArrayList<HttpMethod>();
-                for (Annotation annotation : annotations) {
-                    res.add(HttpMethod.valueOf(annotation.annotationType().getSimpleName()));
-                }
                 return res;
             }
         } catch (NoSuchMethodException e) {
@@ -0,0 +1,98 @@
+/*
+Copyright 2009-2014 Igor Polevoy
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package org.javalite.activeweb;
+
+import org.javalite.activeweb.annotations.CacheResponse;
+
+import javax.servlet.http.HttpServletRequest;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * How responses of an action are cached: for how long, and which parameters and headers of a request
+ * make up a key of a cached response.
+ *
+ * @author Igor Polevoy
+ */
+final class CachePolicy {
+
+    private final long ttl;
+    private final String[] params, vary;
+
+    /**
+     * @param seconds time to live of cached responses
+     * @param params names of parameters that are part of a key, null for all parameters
+     * @param vary names of headers that are part of a key
+     */
+    CachePolicy(int seconds, String[] params, String[] vary) {
+        if (seconds <= 0) {
+            throw new IllegalArgumentException("time to live must be positive");
+        }
+        this.ttl = seconds * 1000L;
+        this.params = params == null ? null : sorted(params);
+        this.vary = vary == null ? new String[0] : vary.clone();
+    }
+
+    CachePolicy(CacheResponse annotation) {
+        this(annotation.value(), Arrays.asList(annotation.params()).contains("*") ? null : annotation.params(),
+                annotation.vary());
+    }
+
+    long getTtl() {
+        return ttl;
+    }
+
+    /**
+     * @param request request
+     * @param path servlet path of request
+     * @return key of a cached response to request.
+     */
+    String key(HttpServletRequest request, String path) {
+        StringBuilder key = new StringBuilder(path);
+        if (params == null) {
+            Map<String, String[]> all = new TreeMap<String, String[]>(request.getParameterMap());
+            for (Map.Entry<String, String[]> param : all.entrySet()) {
+                appendParam(key, param.getKey(), param.getValue());
+            }
+        } else {
+            for (String name : params) {
+                appendParam(key, name, request.getParameterValues(name));
+            }
+        }
+        for (String header : vary) {
+            String value = request.getHeader(header);
+            key.append('\u0000').append(header).append(':').append(value == null ? "" : value);
+        }
+        return key.toString();
+    }
+
+    private static void appendParam(StringBuilder key, String name, String[] values) {
+        if (values == null) {
+            return;
+        }
+        key.append('\u0000').append(name);
+        for (String value : values) {
+            key.append('=').append(value);
+        }
+    }
+
+    private static String[] sorted(String[] names) {
+        String[] sorted = names.clone();
+        Arrays.sort(sorted);
+        return sorted;
+    }
+}
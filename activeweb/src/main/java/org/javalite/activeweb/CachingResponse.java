@@ -0,0 +1,218 @@
+/*
+Copyright 2009-2014 Igor Polevoy
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package org.javalite.activeweb;
+
+import javax.servlet.ServletOutputStream;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpServletResponseWrapper;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.text.SimpleDateFormat;
+import java.util.*;
+
+/**
+ * Sends a response to a client and keeps a copy of its status, headers and content to be put into
+ * {@link ResponseCache}. Responses that set cookies, send errors or redirects, or are larger than a limit
+ * are not kept.
+ *
+ * @author Igor Polevoy
+ */
+class CachingResponse extends HttpServletResponseWrapper {
+
+    private final String key;
+    private final long expires;
+    private final boolean compress;
+    private final int maxSize;
+    private final List<String[]> headers = new ArrayList<String[]>();
+    private ByteArrayOutputStream content = new ByteArrayOutputStream();
+    private ServletOutputStream stream;
+    private PrintWriter writer;
+
+    CachingResponse(HttpServletResponse response, String key, long expires, boolean compress, int maxSize) {
+        super(response);
+        this.key = key;
+        this.expires = expires;
+        this.compress = compress;
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * Puts response of the current request into cache, if it was captured and can be cached.
+     */
+    static void finish() {
+        HttpServletResponse response = Context.getHttpResponse();
+        if (response instanceof CachingResponse) {
+            ((CachingResponse) response).finishResponse();
+        }
+    }
+
+    private void finishResponse() {
+        if (writer != null) {
+            writer.flush();
+        }
+        if (content != null && getStatus() == SC_OK) {
+            ResponseCache.put(key, new ResponseCache.CachedResponse(getContentType(), headers, content.toByteArray(), expires, compress));
+        }
+        content = null;
+    }
+
+    @Override
+    public ServletOutputStream getOutputStream() throws IOException {
+        if (stream == null) {
+            final ServletOutputStream out = super.getOutputStream();
+            stream = new ServletOutputStream() {
+                @Override
+                public void write(int b) throws IOException {
+                    write(new byte[]{(byte) b}, 0, 1);
+                }
+
+                @Override
+                public void write(byte[] bytes, int offset, int length) throws IOException {
+                    out.write(bytes, offset, length);
+                    if (content != null) {
+                        if (content.size() + length > maxSize) {
+                            content = null;
+                        } else {
+                            content.write(bytes, offset, length);
+                        }
+                    }
+                }
+
+                @Override
+                public void flush() throws IOException {
+                    out.flush();
+                }
+            };
+        }
+        return stream;
+    }
+
+    @Override
+    public PrintWriter getWriter() throws IOException {
+        if (writer == null) {
+            writer = new PrintWriter(new OutputStreamWriter(getOutputStream(), getCharacterEncoding()));
+        }
+        return writer;
+    }
+
+    @Override
+    public void flushBuffer() throws IOException {
+        if (writer != null) {
+            writer.flush();
+        }
+        super.flushBuffer();
+    }
+
+    @Override
+    public void resetBuffer() {
+        super.resetBuffer();
+        content = null;
+    }
+
+    @Override
+    public void reset() {
+        super.reset();
+        content = null;
+    }
+
+    @Override
+    public void addCookie(javax.servlet.http.Cookie cookie) {
+        content = null;
+        super.addCookie(cookie);
+    }
+
+    @Override
+    public void sendError(int status, String message) throws IOException {
+        content = null;
+        super.sendError(status, message);
+    }
+
+    @Override
+    public void sendError(int status) throws IOException {
+        content = null;
+        super.sendError(status);
+    }
+
+    @Override
+    public void sendRedirect(String location) throws IOException {
+        content = null;
+        super.sendRedirect(location);
+    }
+
+    @Override
+    public void setHeader(String name, String value) {
+        super.setHeader(name, value);
+        removeHeader(name);
+        addCachedHeader(name, value);
+    }
+
+    @Override
+    public void addHeader(String name, String value) {
+        super.addHeader(name, value);
+        addCachedHeader(name, value);
+    }
+
+    @Override
+    public void setDateHeader(String name, long date) {
+        super.setDateHeader(name, date);
+        removeHeader(name);
+        addCachedHeader(name, formatDate(date));
+    }
+
+    @Override
+    public void addDateHeader(String name, long date) {
+        super.addDateHeader(name, date);
+        addCachedHeader(name, formatDate(date));
+    }
+
+    @Override
+    public void setIntHeader(String name, int value) {
+        super.setIntHeader(name, value);
+        removeHeader(name);
+        addCachedHeader(name, Integer.toString(value));
+    }
+
+    @Override
+    public void addIntHeader(String name, int value) {
+        super.addIntHeader(name, value);
+        addCachedHeader(name, Integer.toString(value));
+    }
+
+    private void addCachedHeader(String name, String value) {
+        if ("Set-Cookie".equalsIgnoreCase(name)) {
+            content = null;
+        } else if (!"Content-Length".equalsIgnoreCase(name) && !"Content-Type".equalsIgnoreCase(name)) {
+            headers.add(new String[]{name, value});
+        }
+    }
+
+    private void removeHeader(String name) {
+        Iterator<String[]> it = headers.iterator();
+        while (it.hasNext()) {
+            if (it.next()[0].equalsIgnoreCase(name)) {
+                it.remove();
+            }
+        }
+    }
+
+    private static String formatDate(long date) {
+        SimpleDateFormat format = new SimpleDateFormat("EEE, dd MMM yyyy HH:mm:ss zzz", Locale.US);
+        format.setTimeZone(TimeZone.getTimeZone("GMT"));
+        return format.format(new Date(date));
+    }
+}
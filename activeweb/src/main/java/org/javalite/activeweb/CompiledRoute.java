@@ -0,0 +1,104 @@
+/*
+Copyright 2009-2014 Igor Polevoy
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package org.javalite.activeweb;
+
+import org.javalite.common.Util;
+
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Immutable representation of a custom route configured with {@link RouteBuilder}. Instances are created once
+ * when routes are loaded and shared by all requests. Values extracted from a request URI are returned
+ * in a new {@link RouteMatch}.
+ *
+ * @author Igor Polevoy
+ */
+final class CompiledRoute {
+
+    private final String routeConfig, actionName, wildcardName;
+    private final Class<? extends AppController> type;
+    private final RouteBuilder.Segment[] segments;
+    private final Set<HttpMethod> methods;
+
+    CompiledRoute(RouteBuilder builder) {
+        routeConfig = builder.getRouteConfig();
+        actionName = builder.getActionName();
+        wildcardName = builder.getWildcardName();
+        type = builder.getType();
+        segments = builder.getSegments().toArray(new RouteBuilder.Segment[builder.getSegments().size()]);
+        //default behavior: GET method!
+        methods = builder.getMethods().isEmpty() ? EnumSet.of(HttpMethod.GET) : EnumSet.copyOf(builder.getMethods());
+    }
+
+    String getRouteConfig() {
+        return routeConfig;
+    }
+
+    RouteBuilder.Segment[] getSegments() {
+        return segments;
+    }
+
+    /**
+     * Matches this route to a request. This method does not change state of this object and is safe
+     * to call from multiple threads.
+     *
+     * @param requestUri incoming URI for request.
+     * @param httpMethod HTTP method of the request.
+     * @return match with values extracted from URI, or null if this route does not match the request.
+     * @throws ClassLoadException in case could not load controller
+     */
+    RouteMatch match(String requestUri, HttpMethod httpMethod) throws ClassLoadException {
+        return match(requestUri, Util.split(requestUri, '/'), httpMethod);
+    }
+
+    /**
+     * Same as {@link #match(String, HttpMethod)}, but uses request URI already split into segments.
+     */
+    RouteMatch match(String requestUri, String[] requestUriSegments, HttpMethod httpMethod) throws ClassLoadException {
+        if (!methods.contains(httpMethod)) {
+            return null;
+        }
+        RouteMatch match = new RouteMatch(type, actionName);
+        if (wildcardName != null && requestUriSegments.length >= segments.length && wildSegmentsMatch(requestUriSegments, match)) {
+            String[] tailArr = Arrays.copyOfRange(requestUriSegments, segments.length - 1, requestUriSegments.length);
+            match.setWildCard(wildcardName, Util.join(tailArr, "/"));
+        } else if (segments.length == 0 && requestUri.equals("/")) {
+            //this is matching root path: "/"
+            match.setActionName("index");
+        } else if (requestUriSegments.length == 0 || requestUriSegments.length != segments.length) {
+            //route("/greeting/{user_id}").to(HelloController.class).action("hi");
+            return null;
+        } else {
+            for (int i = 0; i < requestUriSegments.length; i++) {
+                if (!segments[i].match(requestUriSegments[i], type, match)) {
+                    return null;
+                }
+            }
+        }
+        return match;
+    }
+
+    private boolean wildSegmentsMatch(String[] requestUriSegments, RouteMatch match) throws ClassLoadException {
+        for (int i = 0; i < segments.length - 1; i++) {
+            if (!segments[i].match(requestUriSegments[i], type, match)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
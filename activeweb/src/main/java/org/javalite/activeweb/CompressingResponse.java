@@ -0,0 +1,399 @@
+/*
+Copyright 2009-2014 Igor Polevoy
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package org.javalite.activeweb;
+
+import javax.servlet.ServletOutputStream;
+import javax.servlet.ServletResponse;
+import javax.servlet.ServletResponseWrapper;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpServletResponseWrapper;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+
+/**
+ * Compresses a response with gzip or deflate as it is written. The first <code>compressionThreshold</code> bytes
+ * are held back: if a response ends before that, or turns out to be of a content type that is already compressed,
+ * it is sent as is. {@link Deflater}s are pooled, because each holds native memory.
+ *
+ * @author Igor Polevoy
+ */
+class CompressingResponse extends HttpServletResponseWrapper {
+
+    static final String GZIP = "gzip", DEFLATE = "deflate";
+
+    private static final int MAX_POOLED = 64;
+    private static final Queue<Deflater> gzipDeflaters = new ConcurrentLinkedQueue<Deflater>();
+    private static final Queue<Deflater> zlibDeflaters = new ConcurrentLinkedQueue<Deflater>();
+    private static final byte[] GZIP_HEADER = {0x1f, (byte) 0x8b, Deflater.DEFLATED, 0, 0, 0, 0, 0, 0, (byte) 0xff};
+    private static final String[] COMPRESSED_TYPES = {"image/", "video/", "audio/", "application/zip",
+            "application/gzip", "application/x-gzip", "application/x-compress", "application/x-rar",
+            "application/x-7z", "application/pdf", "application/octet-stream", "font/woff"};
+
+    private final String encoding;
+    private final CompressingStream stream;
+    private PrintWriter writer;
+    private String contentLength;
+
+    private CompressingResponse(HttpServletResponse response, String encoding) {
+        super(response);
+        this.encoding = encoding;
+        stream = new CompressingStream(Configuration.getCompressionThreshold());
+    }
+
+    /**
+     * Wraps response of current request if client accepts compressed content.
+     */
+    static void wrap() {
+        String encoding = negotiate(Context.getHttpRequest().getHeader("Accept-Encoding"));
+        HttpServletResponse response = Context.getHttpResponse();
+        if (encoding != null && !(response instanceof CompressingResponse)) {
+            Context.setHttpResponse(new CompressingResponse(response, encoding));
+        }
+    }
+
+    /**
+     * Writes remaining content of a response of the current request if it was wrapped.
+     */
+    static void finish() throws IOException {
+        CompressingResponse response = current();
+        if (response != null) {
+            response.finishResponse();
+        }
+    }
+
+    /**
+     * Ends a compressor of a response of the current request if the response was not finished, for instance after
+     * a time out or a failure to finish it. Nothing more is written to the response.
+     */
+    static void discard() {
+        CompressingResponse response = current();
+        if (response != null) {
+            response.stream.discard();
+        }
+    }
+
+    private static CompressingResponse current() {
+        ServletResponse response = Context.getHttpResponse();
+        while (response instanceof ServletResponseWrapper && !(response instanceof CompressingResponse)) {
+            response = ((ServletResponseWrapper) response).getResponse();
+        }
+        return response instanceof CompressingResponse ? (CompressingResponse) response : null;
+    }
+
+    /**
+     * @param acceptEncoding value of <code>Accept-Encoding</code> header
+     * @return "gzip" or "deflate", null if neither is accepted.
+     */
+    static String negotiate(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return null;
+        }
+        boolean deflate = false;
+        for (String token : acceptEncoding.split(",")) {
+            String[] parts = token.split(";");
+            String name = parts[0].trim().toLowerCase();
+            if (parts.length > 1 && parts[1].trim().matches("q=0(\\.0*)?")) {
+                continue;
+            }
+            if (name.equals(GZIP) || name.equals("x-gzip") || name.equals("*")) {
+                return GZIP;
+            } else if (name.equals(DEFLATE)) {
+                deflate = true;
+            }
+        }
+        return deflate ? DEFLATE : null;
+    }
+
+    @Override
+    public ServletOutputStream getOutputStream() throws IOException {
+        return stream;
+    }
+
+    @Override
+    public PrintWriter getWriter() throws IOException {
+        if (writer == null) {
+            writer = new PrintWriter(new OutputStreamWriter(stream, getCharacterEncoding()));
+        }
+        return writer;
+    }
+
+    @Override
+    public void flushBuffer() throws IOException {
+        if (writer != null) {
+            writer.flush();
+        }
+        if (!stream.buffering()) {
+            stream.flush();
+            super.flushBuffer();
+        }
+    }
+
+    @Override
+    public void resetBuffer() {
+        stream.reset();
+        super.resetBuffer();
+    }
+
+    @Override
+    public void reset() {
+        stream.reset();
+        contentLength = null;
+        super.reset();
+    }
+
+    // length is only known when content is not compressed
+
+    @Override
+    public void setContentLength(int length) {
+        setContentLength(Integer.toString(length));
+    }
+
+    @Override
+    public void setHeader(String name, String value) {
+        if ("Content-Length".equalsIgnoreCase(name)) {
+            setContentLength(value);
+        } else {
+            super.setHeader(name, value);
+        }
+    }
+
+    @Override
+    public void addHeader(String name, String value) {
+        if ("Content-Length".equalsIgnoreCase(name)) {
+            setContentLength(value);
+        } else {
+            super.addHeader(name, value);
+        }
+    }
+
+    @Override
+    public void setIntHeader(String name, int value) {
+        setHeader(name, Integer.toString(value));
+    }
+
+    @Override
+    public void addIntHeader(String name, int value) {
+        addHeader(name, Integer.toString(value));
+    }
+
+    private void setContentLength(String length) {
+        if (stream.buffering()) {
+            contentLength = length;
+        } else if (!stream.compressing()) {
+            super.setHeader("Content-Length", length);
+        }
+    }
+
+    private void finishResponse() throws IOException {
+        if (writer != null) {
+            writer.flush();
+        }
+        stream.finish();
+    }
+
+    private boolean compressible() {
+        int status = getStatus();
+        if (status == SC_NO_CONTENT || status == SC_PARTIAL_CONTENT || status == SC_NOT_MODIFIED
+                || isCommitted() || containsHeader("Content-Encoding")) {
+            return false;
+        }
+        String contentType = getContentType();
+        if (contentType != null) {
+            contentType = contentType.toLowerCase();
+            for (String type : COMPRESSED_TYPES) {
+                if (contentType.startsWith(type) && !contentType.startsWith("image/svg")) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    private static Deflater borrow(boolean gzip) {
+        Deflater deflater = (gzip ? gzipDeflaters : zlibDeflaters).poll();
+        if (deflater == null) {
+            deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, gzip);
+        }
+        deflater.setLevel(Configuration.getCompressionLevel());
+        return deflater;
+    }
+
+    private static void release(Deflater deflater, boolean gzip) {
+        Queue<Deflater> pool = gzip ? gzipDeflaters : zlibDeflaters;
+        if (pool.size() < MAX_POOLED) {
+            deflater.reset();
+            pool.offer(deflater);
+        } else {
+            deflater.end();
+        }
+    }
+
+    private class CompressingStream extends ServletOutputStream {
+        private byte[] buffer;
+        private int count;
+        private ServletOutputStream out;
+        private DeflaterOutputStream deflaterOut;
+        private Deflater deflater;
+        private CRC32 crc;
+        private boolean finished;
+
+        private CompressingStream(int threshold) {
+            buffer = new byte[threshold];
+        }
+
+        private boolean buffering() {
+            return buffer != null;
+        }
+
+        private boolean compressing() {
+            return deflaterOut != null;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[]{(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] bytes, int offset, int length) throws IOException {
+            if (finished) {
+                throw new IOException("response is already finished");
+            }
+            if (buffering()) {
+                if (count + length <= buffer.length) {
+                    System.arraycopy(bytes, offset, buffer, count, length);
+                    count += length;
+                    return;
+                }
+                start(compressible());
+            }
+            if (compressing()) {
+                if (crc != null) {
+                    crc.update(bytes, offset, length);
+                }
+                deflaterOut.write(bytes, offset, length);
+            } else {
+                out.write(bytes, offset, length);
+            }
+        }
+
+        private void start(boolean compress) throws IOException {
+            byte[] buffered = buffer;
+            buffer = null;
+            if (compress) {
+                boolean gzip = encoding.equals(GZIP);
+                CompressingResponse.super.setHeader("Content-Encoding", encoding);
+                CompressingResponse.super.addHeader("Vary", "Accept-Encoding");
+                String etag = getHeader("ETag");
+                if (etag != null) {
+                    CompressingResponse.super.setHeader("ETag", ETags.encoded(etag, encoding));
+                }
+                out = CompressingResponse.super.getOutputStream();
+                deflater = borrow(gzip);
+                if (gzip) {
+                    out.write(GZIP_HEADER);
+                    crc = new CRC32();
+                }
+                deflaterOut = new DeflaterOutputStream(out, deflater, 8192, true);
+            } else {
+                if (contentLength != null) {
+                    CompressingResponse.super.setHeader("Content-Length", contentLength);
+                }
+                out = CompressingResponse.super.getOutputStream();
+            }
+            write(buffered, 0, count);
+            count = 0;
+        }
+
+        /**
+         * Flushes compressed content, unless content is still held back.
+         */
+        @Override
+        public void flush() throws IOException {
+            if (!buffering() && !finished) {
+                (compressing() ? deflaterOut : out).flush();
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            finish();
+        }
+
+        private void reset() {
+            if (buffering()) {
+                count = 0;
+            }
+        }
+
+        private void finish() throws IOException {
+            if (finished) {
+                return;
+            }
+            if (buffering()) {
+                if (count == 0) {
+                    buffer = null;
+                    finished = true;
+                    if (contentLength != null && !isCommitted()) {
+                        CompressingResponse.super.setHeader("Content-Length", contentLength);
+                    }
+                    return;
+                }
+                if (contentLength == null && !isCommitted()) {
+                    contentLength = Integer.toString(count);
+                }
+                start(false);
+            }
+            finished = true;
+            if (compressing()) {
+                try {
+                    deflaterOut.finish();
+                    if (crc != null) {
+                        writeInt((int) crc.getValue());
+                        writeInt((int) deflater.getBytesRead());
+                    }
+                } finally {
+                    release(deflater, crc != null);
+                }
+            }
+            out.flush();
+        }
+
+        private void discard() {
+            if (finished) {
+                return; // compressor, if any, is already released
+            }
+            finished = true;
+            buffer = null;
+            if (deflater != null) {
+                deflater.end();
+            }
+        }
+
+        private void writeInt(int i) throws IOException {
+            out.write(i & 0xff);
+            out.write((i >> 8) & 0xff);
+            out.write((i >> 16) & 0xff);
+            out.write((i >> 24) & 0xff);
+        }
+    }
+}
@@ -36,7 +36,10 @@ public class Configuration {
 
     enum Params {
         templateManager, bootstrap, defaultLayout, targetDir, rootPackage, dbconfig, controllerConfig, rollback,
-        freeMarkerConfig, route_config, maxUploadSize
+        freeMarkerConfig, route_config, maxUploadSize, asyncThreads, asyncTimeout,
+        compression, compressionLevel, compressionThreshold, uploadThreshold, uploadMemory, uploadMemoryTimeout,
+        responseBufferSize, responseCacheSize, etag, warmUpViews, failOnBrokenViews, templateCacheSize,
+        templateUpdateDelay
     }
 
     private static final Configuration instance = new Configuration();
@@ -274,6 +277,78 @@ public class Configuration {
         return Integer.parseInt(get(Params.maxUploadSize.toString()));
     }
 
+    public static int getAsyncThreads() {
+        return Integer.parseInt(get(Params.asyncThreads.toString()).trim());
+    }
+
+    public static long getAsyncTimeout() {
+        return Long.parseLong(get(Params.asyncTimeout.toString()).trim());
+    }
+
+    /**
+     * @return true if responses are compressed by default, see {@link org.javalite.activeweb.annotations.Compress}.
+     */
+    public static boolean compression() {
+        return Boolean.parseBoolean(get(Params.compression.toString()).trim());
+    }
+
+    /**
+     * @return true if rendered pages get an <code>ETag</code> by default, see {@link org.javalite.activeweb.annotations.ETag}.
+     */
+    public static boolean etag() {
+        return Boolean.parseBoolean(get(Params.etag.toString()).trim());
+    }
+
+    /**
+     * @return true if all templates are parsed when application starts.
+     */
+    public static boolean warmUpViews() {
+        return Boolean.parseBoolean(get(Params.warmUpViews.toString()).trim());
+    }
+
+    /**
+     * @return true if application fails to start if some templates fail to parse during warm up.
+     */
+    public static boolean failOnBrokenViews() {
+        return Boolean.parseBoolean(get(Params.failOnBrokenViews.toString()).trim());
+    }
+
+    public static int getTemplateCacheSize() {
+        return Integer.parseInt(get(Params.templateCacheSize.toString()).trim());
+    }
+
+    public static int getTemplateUpdateDelay() {
+        return Integer.parseInt(get(Params.templateUpdateDelay.toString()).trim());
+    }
+
+    public static int getCompressionLevel() {
+        return Integer.parseInt(get(Params.compressionLevel.toString()).trim());
+    }
+
+    public static int getCompressionThreshold() {
+        return Integer.parseInt(get(Params.compressionThreshold.toString()).trim());
+    }
+
+    public static int getUploadThreshold() {
+        return Integer.parseInt(get(Params.uploadThreshold.toString()).trim());
+    }
+
+    public static int getUploadMemory() {
+        return Integer.parseInt(get(Params.uploadMemory.toString()).trim());
+    }
+
+    public static long getUploadMemoryTimeout() {
+        return Long.parseLong(get(Params.uploadMemoryTimeout.toString()).trim());
+    }
+
+    public static int getResponseBufferSize() {
+        return Integer.parseInt(get(Params.responseBufferSize.toString()).trim());
+    }
+
+    public static long getResponseCacheSize() {
+        return Long.parseLong(get(Params.responseCacheSize.toString()).trim());
+    }
+
     public static File getTmpDir() {
         return new File(System.getProperty("java.io.tmpdir"));
     }
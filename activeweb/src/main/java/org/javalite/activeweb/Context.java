@@ -18,8 +18,10 @@ package org.javalite.activeweb;
 import javax.servlet.FilterConfig;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.Callable;
 
 
 /**
@@ -27,138 +29,220 @@ import java.util.Map;
  */
 class Context {
 
-    private static ThreadLocal<ControllerRegistry> registry = new ThreadLocal<ControllerRegistry>();
-    private static ThreadLocal<HttpServletRequest> request = new ThreadLocal<HttpServletRequest>();
-    private static ThreadLocal<HttpServletResponse> response = new ThreadLocal<HttpServletResponse>();
-    private static ThreadLocal<FilterConfig> filterConfig = new ThreadLocal<FilterConfig>();
-    private static ThreadLocal<ControllerResponse> controllerResponse = new ThreadLocal<ControllerResponse>();
-    private static ThreadLocal<AppContext> appContext = new ThreadLocal<AppContext>();
-    private static ThreadLocal<RequestContext> requestContext = new ThreadLocal<RequestContext>();
-    private static ThreadLocal<String> format = new ThreadLocal<String>();
-    private static ThreadLocal<String> encoding = new ThreadLocal<String>();
-    private static ThreadLocal<Route> route = new ThreadLocal<Route>();
-    private static ThreadLocal<Map<String, Object>> values =new ThreadLocal<Map<String, Object>>();
+    private static final ThreadLocal<RequestScope> scope = new ThreadLocal<RequestScope>();
+    private static final RequestScope EMPTY = new RequestScope();
 
+    /**
+     * @return scope bound to current thread, creating one if none is bound.
+     */
+    private static RequestScope scope() {
+        RequestScope current = scope.get();
+        if (current == null) {
+            scope.set(current = new RequestScope());
+        }
+        return current;
+    }
+
+    /**
+     * @return scope bound to current thread, or empty scope if none is bound. Do not modify.
+     */
+    private static RequestScope current() {
+        RequestScope current = scope.get();
+        return current == null ? EMPTY : current;
+    }
+
+    /**
+     * Returns state of a request bound to the current thread, so that it can be bound to a different thread
+     * with {@link #bind(RequestScope)}.
+     *
+     * @return state of a request bound to current thread, or null if none is bound.
+     */
+    static RequestScope capture() {
+        return scope.get();
+    }
+
+    /**
+     * Binds state of a request to the current thread.
+     *
+     * @param requestScope state captured with {@link #capture()}, null to unbind.
+     */
+    static void bind(RequestScope requestScope) {
+        if (requestScope == null) {
+            scope.remove();
+        } else {
+            scope.set(requestScope);
+        }
+    }
 
     public static Map<String, Object> getValues() {
-        return values.get();
+        return current().values;
     }
 
     public static String getEncoding() {
-        return encoding.get();
+        return current().encoding;
     }
 
     public static void setEncoding(String encoding) {
-        Context.encoding.set(encoding);
+        scope().encoding = encoding;
     }
 
     public static String getFormat() {
-        return format.get();
+        return current().format;
     }
 
     public static void setFormat(String format) {
-        Context.format.set(format);
+        scope().format = format;
     }
 
     public static RequestContext getRequestContext() {
-        return requestContext.get();
+        return current().requestContext;
     }
 
     public static void setRequestContext(RequestContext requestContext) {
-        Context.requestContext.set(requestContext);
+        scope().requestContext = requestContext;
     }
 
     public static AppContext getAppContext() {
-        return appContext.get();
+        return current().appContext;
     }
 
     public static void setAppContext(AppContext appContext) {
-        Context.appContext.set(appContext);
+        scope().appContext = appContext;
     }
 
     static void setControllerRegistry(ControllerRegistry controllerRegistry){
-        registry.set(controllerRegistry);
+        scope().registry = controllerRegistry;
     }
 
     static ControllerRegistry getControllerRegistry(){
-        return registry.get();
+        return current().registry;
     }
 
     static void setHttpRequest(HttpServletRequest req){
-        request.set(req);
+        scope().request = req;
     }
 
     static HttpServletRequest getHttpRequest(){
-        return request.get();
+        return current().request;
     }
 
-    static void setHttpResponse(HttpServletResponse resp){        
-        response.set(resp);
+    static void setHttpResponse(HttpServletResponse resp){
+        scope().response = resp;
     }
 
     static HttpServletResponse getHttpResponse(){
-        return response.get();
+        return current().response;
     }
 
     static ControllerResponse getControllerResponse() {
-        return controllerResponse.get();
+        return current().controllerResponse;
     }
 
     static void setControllerResponse(ControllerResponse resp) {
-        controllerResponse.set(resp);
+        scope().controllerResponse = resp;
+    }
+
+    /**
+     * @return cached response to send instead of executing an action, if filters do not respond, or null.
+     */
+    static ControllerResponse getCachedResponse() {
+        return current().cachedResponse;
+    }
+
+    static void setCachedResponse(ControllerResponse response) {
+        scope().cachedResponse = response;
     }
 
     static Route getRoute(){
-        return route.get();
+        return current().route;
     }
 
 
+    static Callable<?> getAsyncTask() {
+        return current().asyncTask;
+    }
+
+    static void setAsyncTask(Callable<?> task) {
+        scope().asyncTask = task;
+    }
+
+    static RequestParams getRequestParams() {
+        return current().params;
+    }
+
+    static void setRequestParams(RequestParams params) {
+        scope().params = params;
+    }
+
+    static RequestParams getFormParams() {
+        return current().formParams;
+    }
+
+    static void setFormParams(RequestParams params) {
+        scope().formParams = params;
+    }
+
+    static void addUpload(SpooledItem item) {
+        RequestScope current = scope();
+        if (current.uploads == null) {
+            current.uploads = new ArrayList<SpooledItem>();
+        }
+        current.uploads.add(item);
+    }
+
+    /**
+     * Releases memory and temporary files of uploads of current request.
+     */
+    static void releaseUploads() {
+        RequestScope current = current();
+        if (current.uploads != null) {
+            for (SpooledItem item : current.uploads) {
+                item.release();
+            }
+            current.uploads = null;
+        }
+    }
+
     static FilterConfig getFilterConfig() {
-        return filterConfig.get();
+        return current().filterConfig;
     }
 
     static void setFilterConfig(FilterConfig config) {
-        filterConfig.set(config);
+        scope().filterConfig = config;
     }
 
     static void setTLs(HttpServletRequest req, HttpServletResponse resp, FilterConfig conf,
                        ControllerRegistry reg, AppContext context, RequestContext requestContext, String format) {
-        setHttpRequest(req);
-        setHttpResponse(resp);
-        setControllerRegistry(reg);
-        setFilterConfig(conf);
-        setAppContext(context);
-        setRequestContext(requestContext);
-        setFormat(format);
+        RequestScope scope = scope();
+        scope.request = req;
+        scope.response = resp;
+        scope.registry = reg;
+        scope.filterConfig = conf;
+        scope.appContext = context;
+        scope.requestContext = requestContext;
+        scope.format = format;
     }
 
     static void setRoute(Route route) throws InstantiationException, IllegalAccessException {
         if (route == null)
             throw new IllegalArgumentException("Route could not be null");
+        RequestScope scope = scope();
         if (route.getId() != null){
-            getHttpRequest().setAttribute("id", route.getId());
+            scope.request.setAttribute("id", route.getId());
         }
 
+        if(!route.getUserSegments().isEmpty()){
+            scope.requestContext.getUserSegments().putAll(route.getUserSegments());
+        }
         if(route.isWildCard()){
-            requestContext.get().setWildCardName(route.getWildCardName());
-            requestContext.get().setWildCardValue(route.getWildCardValue());
+            scope.requestContext.setWildCardName(route.getWildCardName());
+            scope.requestContext.setWildCardValue(route.getWildCardValue());
         }
-        Context.route.set(route);
-        Context.values.set(new HashMap<String, Object>());
-
+        scope.route = route;
+        scope.values = new HashMap<String, Object>();
     }
 
     static void clear() {
-        registry.set(null);
-        request.set(null);
-        response.set(null);
-        controllerResponse.set(null);
-        route.set(null);
-        filterConfig.set(null);
-        requestContext.set(null);
-        format.set(null);
-        encoding.set(null);
-        appContext.set(null);
-        values.set(null);
+        scope.remove();
     }
 }
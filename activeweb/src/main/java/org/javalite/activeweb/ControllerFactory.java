@@ -17,17 +17,35 @@ package org.javalite.activeweb;
 
 import org.javalite.common.Inflector;
 
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
 /**
  * @author Igor Polevoy
  */
 public class ControllerFactory {
 
+    // names are computed from URI, limit the caches so that random URIs do not grow them without bounds
+    private static final int MAX_CACHED_NAMES = 10000;
+    private static final ConcurrentMap<String, String> classNamesByPath = new ConcurrentHashMap<String, String>();
+    private static final ConcurrentMap<String, String> classNamesBySuffix = new ConcurrentHashMap<String, String>();
+    private static final ConcurrentMap<String, Boolean> restfulByPath = new ConcurrentHashMap<String, Boolean>();
 
     protected static AppController createControllerInstance(String controllerClassName) throws ClassLoadException {
         return DynamicClassFactory.createInstance(controllerClassName, AppController.class);
     }
 
     static String getControllerClassName(String controllerName, String packageSuffix) {
+        String key = packageSuffix == null ? controllerName : packageSuffix + "/" + controllerName;
+        String className = classNamesBySuffix.get(key);
+        if (className == null) {
+            className = createControllerClassName(controllerName, packageSuffix);
+            cache(classNamesBySuffix, key, className);
+        }
+        return className;
+    }
+
+    private static String createControllerClassName(String controllerName, String packageSuffix) {
         String name = controllerName.replace('-', '_');
         String temp = Configuration.getRootPackage() + ".controllers";
         if (packageSuffix != null) {
@@ -46,6 +64,50 @@ public class ControllerFactory {
      * @return name of controller class.
      */
     public static String getControllerClassName(String controllerPath) {
+        String className = classNamesByPath.get(controllerPath);
+        if (className == null) {
+            className = createControllerClassName(controllerPath);
+            cache(classNamesByPath, controllerPath, className);
+        }
+        return className;
+    }
+
+    /**
+     * Tells if a controller is RESTful without creating an instance of it, unless a controller overrides
+     * {@link AppController#restful()}. Results are cached per controller path, except in <code>active_reload</code> mode.
+     *
+     * @param controllerPath controller path, see {@link #getControllerClassName(String)}.
+     * @return true if controller is RESTful.
+     */
+    public static boolean isRestful(String controllerPath) throws ClassLoadException {
+        Boolean restful = restfulByPath.get(controllerPath);
+        if (restful == null) {
+            String className = getControllerClassName(controllerPath);
+            Class<? extends AppController> controllerClass = DynamicClassFactory.getCompiledClass(className);
+            restful = overridesRestful(controllerClass)
+                    ? createControllerInstance(className).restful() : AppController.restful(controllerClass);
+            if (!Configuration.activeReload() && restfulByPath.size() < MAX_CACHED_NAMES) {
+                restfulByPath.put(controllerPath, restful);
+            }
+        }
+        return restful;
+    }
+
+    private static boolean overridesRestful(Class<? extends AppController> controllerClass) {
+        try {
+            return controllerClass.getMethod("restful").getDeclaringClass() != AppController.class;
+        } catch (NoSuchMethodException e) {
+            return false;
+        }
+    }
+
+    private static void cache(ConcurrentMap<String, String> cache, String key, String className) {
+        if (cache.size() < MAX_CACHED_NAMES) {
+            cache.put(key, className);
+        }
+    }
+
+    private static String createControllerClassName(String controllerPath) {
 
         if (!controllerPath.startsWith("/") && controllerPath.contains("/"))
             throw new IllegalArgumentException("must start with '/'");
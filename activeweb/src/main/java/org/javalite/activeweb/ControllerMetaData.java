@@ -19,6 +19,8 @@ import com.google.inject.Injector;
 import org.javalite.activeweb.controller_filters.ControllerFilter;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 /**
  * Meta-data class to keep various things related to a controller.
@@ -31,13 +33,41 @@ class ControllerMetaData {
     private HashMap<String, List<ControllerFilter>> actionFilterMap = new HashMap<String, List<ControllerFilter>>();
     private HashMap<String, List<ControllerFilter>> excludedActionFilterMap = new HashMap<String, List<ControllerFilter>>();
 
+    // resolved filter chains, cleared when filters are added. Actions without own filters share default chain.
+    private final ConcurrentMap<String, ActionFilterChain> actionFilterChains = new ConcurrentHashMap<String, ActionFilterChain>();
+    private volatile ActionFilterChain defaultFilterChain;
+    private volatile List<ControllerFilter> globalFilters;
+
+    private volatile CachePolicy cachePolicy;
+    private final ConcurrentMap<String, CachePolicy> actionCachePolicies = new ConcurrentHashMap<String, CachePolicy>();
+
+    void setCachePolicy(CachePolicy cachePolicy) {
+        this.cachePolicy = cachePolicy;
+    }
+
+    void setCachePolicy(CachePolicy cachePolicy, String[] actionNames) {
+        for (String action : actionNames) {
+            actionCachePolicies.put(action, cachePolicy);
+        }
+    }
+
+    /**
+     * @param action name of action
+     * @return cache policy configured for an action or for all actions of a controller, null if none.
+     */
+    CachePolicy getCachePolicy(String action) {
+        CachePolicy policy = actionCachePolicies.get(action);
+        return policy != null ? policy : cachePolicy;
+    }
 
     void addFilters(ControllerFilter[] filters) {
         Collections.addAll(controllerFilters, filters);
+        clearFilterChains();
     }
 
     void addFilter(ControllerFilter filter){
         controllerFilters.add(filter);
+        clearFilterChains();
     }
 
 
@@ -46,6 +76,7 @@ class ControllerMetaData {
         for (String action : excludedActions) {
             excludedActionFilterMap.put(action, Arrays.asList(filters));
         }
+        clearFilterChains();
     }
 
     void addFilters(ControllerFilter[] filters, String[] actionNames) {
@@ -56,6 +87,7 @@ class ControllerMetaData {
         for (String action : actionNames) {
             actionFilterMap.put(action, Arrays.asList(filters));
         }
+        clearFilterChains();
     }
 
 //    /**
@@ -89,6 +121,40 @@ class ControllerMetaData {
     }
 
 
+    /**
+     * Returns a filter chain for an action, creating it on first call. Global filters are resolved only then,
+     * once per controller.
+     *
+     * @param action name of action
+     * @param registry registry with global filters
+     * @param controllerClass class of controller this meta-data belongs to
+     * @return filter chain for an action
+     */
+    protected ActionFilterChain getFilterChain(String action, ControllerRegistry registry,
+                                               Class<? extends AppController> controllerClass) {
+        boolean ownFilters = actionFilterMap.containsKey(action) || excludedActionFilterMap.containsKey(action);
+        ActionFilterChain chain = ownFilters ? actionFilterChains.get(action) : defaultFilterChain;
+        if (chain == null) {
+            List<ControllerFilter> global = globalFilters;
+            if (global == null) {
+                globalFilters = global = registry.getGlobalFilters(controllerClass);
+            }
+            chain = new ActionFilterChain(global, getFilters(action));
+            if (ownFilters) {
+                actionFilterChains.put(action, chain);
+            } else {
+                defaultFilterChain = chain;
+            }
+        }
+        return chain;
+    }
+
+    protected void clearFilterChains() {
+        actionFilterChains.clear();
+        defaultFilterChain = null;
+        globalFilters = null;
+    }
+
     protected List<ControllerFilter> getFilters(){
         List<ControllerFilter> allFilters = new LinkedList<ControllerFilter>();
         allFilters.addAll(controllerFilters);
@@ -0,0 +1,133 @@
+/*
+Copyright 2009-2014 Igor Polevoy
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package org.javalite.activeweb;
+
+import org.javalite.common.Util;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Trie of controller packages found under "app.controllers". Used to find the longest package matching a URI
+ * and the controller name following it in a single walk over the URI.
+ *
+ * @author Igor Polevoy
+ */
+final class ControllerPackageTrie {
+
+    private final Node root = new Node(null);
+
+    ControllerPackageTrie(List<String> packages) {
+        for (String pack : packages) {
+            Node node = root;
+            for (String name : Util.split(pack, '.')) {
+                node = node.add(name);
+            }
+            node.packageName = pack;
+        }
+    }
+
+    /**
+     * Finds the longest controller package matching beginning of a URI. Periods in URI segments match
+     * underscores in package names, so that "/v1.0/service" is mapped to package "v1_0".
+     *
+     * @param uri uri from request
+     * @return package and controller name, or null if URI does not start with a controller package.
+     */
+    Match find(String uri) {
+        Node node = root;
+        String packageName = null;
+        int packageEnd = -1;
+        int pos = uri.startsWith("/") ? 1 : 0;
+        while (pos < uri.length()) {
+            int end = uri.indexOf('/', pos);
+            if (end == -1) {
+                end = uri.length();
+            }
+            node = node.child(uri, pos, end);
+            if (node == null) {
+                break;
+            }
+            if (node.packageName != null) {
+                packageName = node.packageName;
+                packageEnd = end;
+            }
+            pos = end + 1;
+        }
+        if (packageName == null) {
+            return null;
+        }
+
+        int nameStart = packageEnd + 1, nameEnd = nameStart;
+        while (nameEnd < uri.length() && uri.charAt(nameEnd) != '/' && uri.charAt(nameEnd) != '.') {
+            nameEnd++;
+        }
+        if (nameEnd <= nameStart) {
+            throw new ControllerException("You defined a controller package '" + packageName + "', but this request does not specify controller name");
+        }
+        return new Match(packageName, uri.substring(nameStart, nameEnd));
+    }
+
+    static final class Match {
+        final String packageSuffix, controllerName;
+
+        private Match(String packageSuffix, String controllerName) {
+            this.packageSuffix = packageSuffix;
+            this.controllerName = controllerName;
+        }
+    }
+
+    private static final class Node {
+        private final String name;
+        private final List<Node> children = new ArrayList<Node>(2);
+        private String packageName;
+
+        private Node(String name) {
+            this.name = name;
+        }
+
+        private Node add(String name) {
+            for (Node child : children) {
+                if (child.name.equals(name)) {
+                    return child;
+                }
+            }
+            Node child = new Node(name);
+            children.add(child);
+            return child;
+        }
+
+        // compares without creating a substring of URI
+        private Node child(String uri, int start, int end) {
+            for (Node child : children) {
+                if (child.name.length() == end - start && segmentEquals(child.name, uri, start)) {
+                    return child;
+                }
+            }
+            return null;
+        }
+
+        private static boolean segmentEquals(String name, String uri, int start) {
+            for (int i = 0; i < name.length(); i++) {
+                char c = uri.charAt(start + i);
+                if ((c == '.' ? '_' : c) != name.charAt(i)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
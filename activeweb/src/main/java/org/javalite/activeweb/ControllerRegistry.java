@@ -20,6 +20,8 @@ import com.google.inject.Injector;
 
 import javax.servlet.FilterConfig;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 /**
  * Registration facility for {@link ControllerMetaData}.
@@ -31,13 +33,14 @@ class ControllerRegistry {
     /**
      * key - controller class name, value ControllerMetaData.
      */
-    private Map<String, ControllerMetaData> metaDataMap = new HashMap<String, ControllerMetaData>();
+    private final ConcurrentMap<String, ControllerMetaData> metaDataMap = new ConcurrentHashMap<String, ControllerMetaData>();
     private List<FilterList> globalFilterLists = new ArrayList<FilterList>();
     private Injector injector;
 
     // these are not full package names, just partial package names between "app.controllers"
     // and simple name of controller class
     private List<String> controllerPackages;
+    private ControllerPackageTrie controllerPackageTrie;
 
     private final Object token = new Object();
 
@@ -46,6 +49,7 @@ class ControllerRegistry {
 
     protected ControllerRegistry(FilterConfig config) {
         controllerPackages = ControllerPackageLocator.locateControllerPackages(config);
+        controllerPackageTrie = new ControllerPackageTrie(controllerPackages);
     }
 
 
@@ -56,18 +60,51 @@ class ControllerRegistry {
      * @return controller metadata for a controller class.
      */
     protected ControllerMetaData getMetaData(Class<? extends AppController> controllerClass) {
-        if (metaDataMap.get(controllerClass.getName()) == null) {
-            metaDataMap.put(controllerClass.getName(), new ControllerMetaData());
+        ControllerMetaData metaData = metaDataMap.get(controllerClass.getName());
+        if (metaData == null) {
+            ControllerMetaData existing = metaDataMap.putIfAbsent(controllerClass.getName(), metaData = new ControllerMetaData());
+            if (existing != null) {
+                metaData = existing;
+            }
+        }
+        return metaData;
+    }
+
+    /**
+     * Returns filters to be executed for a controller action, including global filters.
+     *
+     * @param controllerClass controller class.
+     * @param action name of action
+     * @return filters to be executed for a controller action.
+     */
+    protected ActionFilterChain getFilterChain(Class<? extends AppController> controllerClass, String action) {
+        return getMetaData(controllerClass).getFilterChain(action, this, controllerClass);
+    }
+
+    List<ControllerFilter> getGlobalFilters(Class<? extends AppController> controllerClass) {
+        List<ControllerFilter> filters = new ArrayList<ControllerFilter>();
+        for (FilterList filterList : globalFilterLists) {
+            if (!filterList.excludesController(controllerClass)) {
+                filters.addAll(filterList.getFilters());
+            }
         }
-        return metaDataMap.get(controllerClass.getName());
+        return filters;
     }
 
     protected void addGlobalFilters(ControllerFilter... filters) {
         globalFilterLists.add(new FilterList(Arrays.asList(filters)));
+        clearFilterChains();
     }
 
     protected void addGlobalFilters(List<ControllerFilter> filters, List<Class<? extends AppController>> excludeControllerClasses) {
         globalFilterLists.add(new FilterList(filters, excludeControllerClasses));
+        clearFilterChains();
+    }
+
+    private void clearFilterChains() {
+        for (ControllerMetaData metaData : metaDataMap.values()) {
+            metaData.clearFilterChains();
+        }
     }
 
     protected List<FilterList> getGlobalFilterLists() {
@@ -109,6 +146,10 @@ class ControllerRegistry {
         return controllerPackages;
     }
 
+    protected ControllerPackageTrie getControllerPackageTrie() {
+        return controllerPackageTrie;
+    }
+
     // instance contains a list of filters and corresponding  list of controllers for which these filters
     // need to be excluded.
     static class FilterList{
@@ -128,11 +169,11 @@ class ControllerRegistry {
             return Collections.unmodifiableList(filters);
         }
 
-        public boolean excludesController(AppController controller) {
+        public boolean excludesController(Class<? extends AppController> controllerClass) {
 
             for (Class<? extends AppController> clazz : excludedControllers) {
                 //must use string here, because when controller re-compiles, class instance is different
-                if(clazz.getName().equals(controller.getClass().getName()))
+                if(clazz.getName().equals(controllerClass.getName()))
                     return true;
             }
             return false;
@@ -19,14 +19,13 @@ import org.javalite.activeweb.controller_filters.ControllerFilter;
 import com.google.inject.Injector;
 import org.javalite.activeweb.freemarker.AbstractFreeMarkerConfig;
 import org.javalite.activeweb.freemarker.FreeMarkerTemplateManager;
-import org.javalite.common.Inflector;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.lang.reflect.InvocationTargetException;
-import java.lang.reflect.Method;
-import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpSession;
 
 import static org.javalite.common.Util.join;
@@ -45,49 +44,118 @@ class ControllerRunner {
 
     protected void run(Route route, boolean integrateViews) throws Exception {
         ControllerRegistry controllerRegistry = Context.getControllerRegistry();
-        List<ControllerRegistry.FilterList> globalFilterLists = controllerRegistry.getGlobalFilterLists();
-        List<ControllerFilter> controllerFilters = controllerRegistry.getMetaData(route.getController().getClass()).getFilters(route.getActionName());
+        ActionFilterChain filterChain = controllerRegistry.getFilterChain(route.getController().getClass(), route.getActionName());
 
-        Context.getControllerRegistry().injectFilters(); //will execute once, really filters are persistent
+        controllerRegistry.injectFilters(); //will execute once, really filters are persistent
 
         try {
-            filterBefore(route, globalFilterLists, controllerFilters);
+            filterBefore(filterChain);
 
-            if (Context.getControllerResponse() == null) {//execute controller... only if a filter did not respond
+            if (Context.getControllerResponse() == null && Context.getCachedResponse() != null) {
+                Context.setControllerResponse(Context.getCachedResponse());
+            } else if (Context.getControllerResponse() == null) {//execute controller... only if a filter did not respond
 
-                String actionMethod = Inflector.camelize(route.getActionName().replace('-', '_'), false);
-                if (checkActionMethod(route.getController(), actionMethod)) {
+                ActionDescriptor action = ActionDescriptor.get(route.getController().getClass(), route.getActionName());
+                if (checkActionMethod(route.getController(), action)) {
                     //Configuration.getTemplateManager().
                     injectController(route.getController());
                     if(Configuration.logRequestParams()){
-                        logger.info("Executing controller: " + route.getController().getClass().getName() + "." + actionMethod);
+                        logger.info("Executing controller: " + route.getController().getClass().getName() + "." + action.getMethodName());
                     }
-                    executeAction(route.getController(), actionMethod);
+                    executeAction(route.getController(), action);
                 }
             }
 
-            if(injectTags){
-                injectFreemarkerTags();
+            if (Context.getAsyncTask() != null && asyncSupported()) {
+                return; // request will be completed by runAsync() on a different thread
             }
-
-            renderResponse(route, integrateViews);
-            processFlash();
-
-            //run filters in opposite order
-            filterAfter(route, globalFilterLists, controllerFilters);
+            completeResponse(route, integrateViews, filterChain, null);
         }
         catch(ActionNotFoundException e){
             throw e;
         }
         catch (RuntimeException e) {
-            Context.setControllerResponse(null);//must blow away, as this response is not valid anymore.
+            handleException(e, route, integrateViews, filterChain, null);
+        }
+    }
 
-            if (exceptionHandled(e, route, globalFilterLists, controllerFilters)) {
-                logger.debug("A filter has called render(..) method, proceeding to render it...");
-                renderResponse(route, integrateViews);//a filter has created an instance of a controller response, need to render it.
-            }else{
-                throw e;//if exception was not handled by filter, re-throw
-            }
+    /**
+     * Executes a task registered by an action with {@link HttpSupport#async(Callable)}, then renders response and
+     * executes <code>after()</code> methods of filters. Expects the request to be bound to the current thread.
+     * Nothing is rendered and filters are not called after the task if <code>gate</code> is closed, because
+     * the request has timed out.
+     *
+     * @param gate tells if response can still be written
+     */
+    protected void runAsync(Route route, boolean integrateViews, ResponseGate gate) throws Exception {
+        ActionFilterChain filterChain = Context.getControllerRegistry().getFilterChain(route.getController().getClass(), route.getActionName());
+        try {
+            completeResponse(route, integrateViews, filterChain, gate);
+        } catch (RuntimeException e) {
+            handleException(e, route, integrateViews, filterChain, gate);
+        }
+    }
+
+    /**
+     * Guards a response of an asynchronous request against writes after the request has timed out.
+     */
+    interface ResponseGate {
+        /**
+         * @return true if the response can be written, in which case it will not be completed by a time out.
+         */
+        boolean open();
+    }
+
+    private boolean asyncSupported() {
+        HttpServletRequest request = Context.getHttpRequest();
+        return request != null && request.isAsyncSupported();
+    }
+
+    private void completeResponse(Route route, boolean integrateViews, ActionFilterChain filterChain, ResponseGate gate) throws Exception {
+        //tasks are executed in place when a request cannot be completed asynchronously
+        Callable<?> task;
+        while ((task = Context.getAsyncTask()) != null) {
+            Context.setAsyncTask(null);
+            callAsyncTask(task);
+        }
+
+        if (gate != null && !gate.open()) {
+            logger.warn("Request timed out before its task completed, response is dropped");
+            return;
+        }
+
+        if(injectTags){
+            injectFreemarkerTags();
+        }
+
+        renderResponse(route, integrateViews);
+        processFlash();
+
+        //run filters in opposite order
+        filterAfter(filterChain);
+    }
+
+    private void handleException(RuntimeException e, Route route, boolean integrateViews, ActionFilterChain filterChain, ResponseGate gate) throws Exception {
+        Context.setControllerResponse(null);//must blow away, as this response is not valid anymore.
+        if (gate != null && !gate.open()) {
+            throw e;
+        }
+
+        if (exceptionHandled(e, filterChain)) {
+            logger.debug("A filter has called render(..) method, proceeding to render it...");
+            renderResponse(route, integrateViews);//a filter has created an instance of a controller response, need to render it.
+        }else{
+            throw e;//if exception was not handled by filter, re-throw
+        }
+    }
+
+    private void callAsyncTask(Callable<?> task) {
+        try {
+            task.call();
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new ControllerException(e);
         }
     }
 
@@ -137,7 +205,6 @@ class ControllerRunner {
 
         controllerResponse = Context.getControllerResponse();
         if (integrateViews && controllerResponse instanceof RenderTemplateResponse) {
-            ParamCopy.copyInto((controllerResponse.values()));
             controllerResponse.process();
         }else if(!(controllerResponse instanceof RenderTemplateResponse)){
             if(controllerResponse.getContentType() == null){
@@ -162,8 +229,7 @@ class ControllerRunner {
 
     // this is implicit processing - default behavior, really
     private void createDefaultResponse(Route route, String controllerLayout) throws InstantiationException, IllegalAccessException {
-           String controllerPath = Router.getControllerPath(route.getController().getClass());
-            String template =  controllerPath + "/" + route.getActionName();
+            String template = ActionDescriptor.get(route.getController().getClass(), route.getActionName()).getTemplatePath();
             RenderTemplateResponse resp = new RenderTemplateResponse(route.getController().values(), template, Context.getFormat());
             if(!Configuration.getDefaultLayout().equals(controllerLayout)){
                 resp.setLayout(controllerLayout);//could be a real layout ot null for no layout
@@ -192,63 +258,49 @@ class ControllerRunner {
         }
     }
 
-    private boolean checkActionMethod(AppController controller, String actionMethod) {
+    private boolean checkActionMethod(AppController controller, ActionDescriptor action) {
         HttpMethod method = HttpMethod.getMethod(Context.getHttpRequest());
-        if (!controller.actionSupportsHttpMethod(actionMethod, method)) {
+        if (!action.supports(controller, method)) {
             DirectResponse res = new DirectResponse("");
             //see http://www.w3.org/Protocols/rfc2616/rfc2616-sec10.html
             res.setStatus(405);
             logger.warn("Requested action does not support HTTP method: " + method.name() + ", returning status code 405.");
             Context.setControllerResponse(res);
             //see http://www.w3.org/Protocols/rfc2616/rfc2616-sec14.html
-            Context.getHttpResponse().setHeader("Allow", join(controller.allowedActions(actionMethod), ", "));
+            Context.getHttpResponse().setHeader("Allow", join(action.getAllowedMethods(controller), ", "));
             return false;
         }
         return true;
     }
 
-    private boolean exceptionHandled(Exception e, Route route, List<ControllerRegistry.FilterList> globalFilterLists, List<ControllerFilter> ... filterGroups) throws Exception{
+    private boolean exceptionHandled(Exception e, ActionFilterChain filterChain) throws Exception{
 
         //first, process global filters and account for exceptions
-        for (ControllerRegistry.FilterList filterList : globalFilterLists) {
-            if (!filterList.excludesController(route.getController())) {
-                List<ControllerFilter> filters = filterList.getFilters();
-                for (ControllerFilter controllerFilter : filters) {
-                    controllerFilter.onException(e);
-                }
-            }
+        for (ControllerFilter controllerFilter : filterChain.getGlobalFilters()) {
+            controllerFilter.onException(e);
         }
 
-        for(List<ControllerFilter> filterGroup: filterGroups){
-            for (ControllerFilter controllerFilter : filterGroup) {
-                controllerFilter.onException(e);
-            }
+        for (ControllerFilter controllerFilter : filterChain.getControllerFilters()) {
+            controllerFilter.onException(e);
         }
         return Context.getControllerResponse() != null;
     }
 
-    private void filterBefore(Route route, List<ControllerRegistry.FilterList> globalFilterLists, List<ControllerFilter>... filterGroups) {
+    private void filterBefore(ActionFilterChain filterChain) {
         try {
 
             //first, process global filters and account for exceptions
-            for (ControllerRegistry.FilterList filterList : globalFilterLists) {
-                if(!filterList.excludesController(route.getController())){
-                    List<ControllerFilter> filters = filterList.getFilters();
-                    for (ControllerFilter controllerFilter : filters) {
-                        controllerFilter.before();
-                    }
-                }
+            for (ControllerFilter controllerFilter : filterChain.getGlobalFilters()) {
+                controllerFilter.before();
             }
 
             //then process all other filters
-            for (List<ControllerFilter> filterGroup : filterGroups) {
-                for (ControllerFilter controllerFilter : filterGroup) {
-                    if (Configuration.logRequestParams()) {
-                        logger.debug("Executing filter: " + controllerFilter.getClass().getName() + "#before");
-                    }
-                    controllerFilter.before();
-                    if (Context.getControllerResponse() != null) return;//a filter responded!
+            for (ControllerFilter controllerFilter : filterChain.getControllerFilters()) {
+                if (Configuration.logRequestParams()) {
+                    logger.debug("Executing filter: " + controllerFilter.getClass().getName() + "#before");
                 }
+                controllerFilter.before();
+                if (Context.getControllerResponse() != null) return;//a filter responded!
             }
         }catch(RuntimeException e){
             throw e;
@@ -257,36 +309,29 @@ class ControllerRunner {
         }
     }
 
-    private void filterAfter(Route route, List<ControllerRegistry.FilterList> globalFilterLists, List<ControllerFilter>... filterGroups) {
+    private void filterAfter(ActionFilterChain filterChain) {
         try {
 
             //first, process global filters and account for exceptions
-            for (ControllerRegistry.FilterList filterList : globalFilterLists) {
-                if(!filterList.excludesController(route.getController())){
-                    List<ControllerFilter> filters = filterList.getFilters();
-                    for (ControllerFilter controllerFilter : filters) {
-                        controllerFilter.after();
-                    }
-                }
+            for (ControllerFilter controllerFilter : filterChain.getGlobalFilters()) {
+                controllerFilter.after();
             }
 
-            for (List<ControllerFilter> filterGroup : filterGroups) {
-                for (int i = filterGroup.size() - 1; i >= 0; i--) {
-                    if(Configuration.logRequestParams()){
-                        logger.debug("Executing filter: " + filterGroup.get(i).getClass().getName() + "#after" );
-                    }
-                    filterGroup.get(i).after();
+            ControllerFilter[] controllerFilters = filterChain.getControllerFilters();
+            for (int i = controllerFilters.length - 1; i >= 0; i--) {
+                if(Configuration.logRequestParams()){
+                    logger.debug("Executing filter: " + controllerFilters[i].getClass().getName() + "#after" );
                 }
+                controllerFilters[i].after();
             }
         } catch (Exception e) {
             throw  new FilterException(e);
         }
     }
 
-    private void executeAction(Object controller, String actionName) {
+    private void executeAction(Object controller, ActionDescriptor action) {
         try{
-            Method m = controller.getClass().getMethod(actionName);
-            m.invoke(controller);
+            action.getMethod().invoke(controller);
         }catch(InvocationTargetException e){
             if(e.getCause() != null && e.getCause() instanceof  WebException){
                 throw (WebException)e.getCause();                
@@ -1,12 +1,15 @@
 package org.javalite.activeweb;
 
-import java.io.PrintWriter;
-import java.io.StringWriter;
+import java.io.File;
+import java.lang.reflect.Constructor;
 import java.lang.reflect.InvocationTargetException;
-import java.lang.reflect.Method;
 import java.net.URL;
 import java.net.URLClassLoader;
 import java.net.URLDecoder;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import static org.javalite.common.Collections.list;
 import static org.javalite.common.Util.join;
@@ -18,15 +21,29 @@ import static org.javalite.common.Util.join;
  */
 abstract public class DynamicClassFactory {
 
+    // negative entries are created for unknown classes requested from URI, these are limited in size
+    private static final int MAX_MISSING_CLASSES = 1000;
+
+    //caches are used only when active_reload is off
+    private static final ConcurrentMap<String, Class> classes = new ConcurrentHashMap<String, Class>();
+    private static final ConcurrentMap<String, Constructor> constructors = new ConcurrentHashMap<String, Constructor>();
+    private static final Set<String> missingClasses = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+
+    //used only when active_reload is on
+    private static volatile DynamicCompiler compiler;
+
     public static <T> T createInstance(String className, Class<T> expectedType) throws ClassLoadException {
         try {
-            Object o = getCompiledClass(className).newInstance();
+            Object o = Configuration.activeReload() ? getCompiledClass(className).newInstance()
+                    : getConstructor(className).newInstance();
             T instance = expectedType.cast(o);
             return instance ;
         } catch (CompilationException e) {
             throw e;
         } catch (ClassLoadException e) {
             throw e;
+        } catch (InvocationTargetException e) {
+            throw new ClassLoadException(e.getCause());
         } catch (ClassCastException e) {
             throw new ClassLoadException("Class: " + className + " is not the expected type, are you sure it extends " + expectedType.getName() + "?");
         } catch (Exception e) {
@@ -39,56 +56,88 @@ abstract public class DynamicClassFactory {
         Class theClass;
         try {
             if (Configuration.activeReload()) {
-                String compilationResult = compileClass(className);
-                if (compilationResult.contains("cannot read")) {
-                    throw new ClassLoadException(compilationResult);
-                }
-                if (compilationResult.contains("error")) {
-                    throw new CompilationException(compilationResult);
-                }
-
-                DynamicClassLoader dynamicClassLoader = new DynamicClassLoader(ControllerFactory.class.getClassLoader(),
-                        Configuration.getTargetDir());
-                theClass = dynamicClassLoader.loadClass(className);
+                theClass = getCompiler().getClass(className, getSourceFile(className));
             } else {
-                //TODO: in case there is no active_reload, cache instance of controller class - optimization!
-                theClass = Class.forName(className);
+                theClass = getClass(className);
             }
 
             return theClass;
         } catch (CompilationException e) {
             throw e;
+        } catch (ClassLoadException e) {
+            throw e;
         } catch (Exception e) {
             throw new ClassLoadException(e);
         }
     }
 
-    protected synchronized static String compileClass(String className) throws ClassNotFoundException, NoSuchMethodException, InvocationTargetException, IllegalAccessException {
-
-        String controllerFileName = className.replace(".", System.getProperty("file.separator")) + ".java";
+    private static Class getClass(String className) throws ClassNotFoundException {
+        Class theClass = classes.get(className);
+        if (theClass != null) {
+            return theClass;
+        }
+        if (missingClasses.contains(className)) {
+            throw new ClassNotFoundException(className);
+        }
+        try {
+            theClass = Class.forName(className);
+        } catch (ClassNotFoundException e) {
+            if (missingClasses.size() < MAX_MISSING_CLASSES) {
+                missingClasses.add(className);
+            }
+            throw e;
+        }
+        classes.put(className, theClass);
+        return theClass;
+    }
 
-        URLClassLoader loader = ((URLClassLoader) Thread.currentThread().getContextClassLoader());
-        URL[] urls = loader.getURLs();
+    private static Constructor getConstructor(String className) throws ClassLoadException, NoSuchMethodException {
+        Constructor constructor = constructors.get(className);
+        if (constructor == null) {
+            constructor = getCompiledClass(className).getDeclaredConstructor();
+            constructors.put(className, constructor);
+        }
+        return constructor;
+    }
 
-        String classpath = getClasspath(urls);
+    /**
+     * Returns last modification time of a source file of a class, used in <code>active_reload</code> mode
+     * to detect changes. Returns 0 if source file is not found.
+     *
+     * @param className fully qualified class name
+     * @return last modification time of a source file of a class.
+     */
+    static long getSourceTimestamp(String className) {
+        return getSourceFile(className).lastModified();
+    }
 
-        StringWriter writer = new StringWriter();
-        PrintWriter out = new PrintWriter(writer);
-        String targetClasses = join(list("target", "classes"), System.getProperty("file.separator"));
+    private static File getSourceFile(String className) {
         String srcMainJava = join(list("src", "main", "java"), System.getProperty("file.separator"));
+        return new File(srcMainJava + System.getProperty("file.separator")
+                + className.replace(".", System.getProperty("file.separator")) + ".java");
+    }
 
-        String[] args = {"-g:lines,source,vars", "-d", targetClasses, "-cp", classpath, srcMainJava + System.getProperty("file.separator") + controllerFileName};
-
-        Class cl = Class.forName("com.sun.tools.javac.Main");
-        Method compile = cl.getMethod("compile", String[].class, PrintWriter.class);
-        compile.invoke(null, args, out);
-        out.flush();
-        return writer.toString();
+    private static DynamicCompiler getCompiler() throws ClassLoadException {
+        DynamicCompiler current = compiler;
+        if (current == null) {
+            synchronized (DynamicClassFactory.class) {
+                if (compiler == null) {
+                    String targetClasses = join(list("target", "classes"), System.getProperty("file.separator"));
+                    compiler = new DynamicCompiler(getClasspath(), targetClasses, Configuration.getTargetDir());
+                }
+                current = compiler;
+            }
+        }
+        return current;
     }
 
-    private static String getClasspath(URL[] urls) {
-        String classpath = "";
-        for (URL url : urls) {
+    private static String getClasspath() {
+        ClassLoader loader = Thread.currentThread().getContextClassLoader();
+        if (!(loader instanceof URLClassLoader)) {
+            return System.getProperty("java.class.path");
+        }
+        StringBuilder classpath = new StringBuilder();
+        for (URL url : ((URLClassLoader) loader).getURLs()) {
             String path = url.getPath();
             if(System.getProperty("os.name").contains("Windows")){
                 if(path.startsWith("/")){
@@ -99,9 +148,8 @@ abstract public class DynamicClassFactory {
                 }catch(java.io.UnsupportedEncodingException e){/*ignore*/}
                 path = path.replace("/", "\\");//boy, do I dislike windoz!
             }
-            classpath += path + System.getProperty("path.separator");
+            classpath.append(path).append(System.getProperty("path.separator"));
         }
-
-        return classpath;
+        return classpath.toString();
     }
 }
@@ -19,8 +19,11 @@ package org.javalite.activeweb;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.File;
 import java.io.FileInputStream;
 import java.io.InputStream;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import static org.javalite.common.Util.bytes;
 
@@ -33,6 +36,8 @@ class DynamicClassLoader extends ClassLoader {
     private static Logger logger = LoggerFactory.getLogger(DynamicClassLoader.class);
 
     private String baseDir;
+    // class files of classes defined by this loader, and their timestamps at the time
+    private final Map<File, Long> definedFiles = new ConcurrentHashMap<File, Long>();
 
     DynamicClassLoader(ClassLoader parent, String baseDir){
         super(parent);
@@ -50,9 +55,12 @@ class DynamicClassLoader extends ClassLoader {
                     || name.equals(Configuration.getRouteConfigClassName())){
 
                 String pathToClassFile = name.replace('.', '/') + ".class";
+                File classFile = new File(baseDir, pathToClassFile);
+                long timestamp = classFile.lastModified();
 
                 byte[] classBytes = bytes(getResourceAsStream(pathToClassFile));
                 Class<?> daClass = defineClass(name, classBytes, 0, classBytes.length);
+                definedFiles.put(classFile, timestamp);
 
                 logger.debug("Loaded class: " + name);
                 return daClass;
@@ -66,6 +74,19 @@ class DynamicClassLoader extends ClassLoader {
         }
     }
 
+    /**
+     * @return true if a class file of any class defined by this loader has changed since, for instance because
+     * a superclass of a controller was compiled again.
+     */
+    boolean stale() {
+        for (Map.Entry<File, Long> definedFile : definedFiles.entrySet()) {
+            if (definedFile.getKey().lastModified() != definedFile.getValue()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     private Class<?> loadByParent(String name) throws ClassNotFoundException {
         return Thread.currentThread().getContextClassLoader().loadClass(name);
     }
@@ -0,0 +1,161 @@
+/*
+Copyright 2009-2014 Igor Polevoy
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package org.javalite.activeweb;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.tools.JavaCompiler;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.zip.CRC32;
+
+import static org.javalite.common.Collections.list;
+
+/**
+ * Compiles classes from sources in <code>active_reload</code> mode. Uses one in-process compiler and file manager
+ * for all compilations. A class is compiled and loaded again only when its source file changes, or when a class file
+ * of any controller loaded along with it changes, such as a base controller compiled again by an IDE. Otherwise
+ * a class from a previous call is returned. Classes that fail to compile are compiled again on every call,
+ * because errors might be caused by other sources.
+ *
+ * @author Igor Polevoy
+ */
+final class DynamicCompiler {
+
+    private static Logger logger = LoggerFactory.getLogger(DynamicCompiler.class);
+
+    private final JavaCompiler compiler;
+    private final StandardJavaFileManager fileManager;
+    private final List<String> options;
+    private final String targetDir;
+    private final ConcurrentMap<String, CompiledClass> classes = new ConcurrentHashMap<String, CompiledClass>();
+
+    /**
+     * @param classpath classpath to compile against
+     * @param outputDir directory where to write class files
+     * @param targetDir directory to load compiled classes from
+     * @throws ClassLoadException if there is no compiler, which is the case when running on JRE.
+     */
+    DynamicCompiler(String classpath, String outputDir, String targetDir) throws ClassLoadException {
+        compiler = ToolProvider.getSystemJavaCompiler();
+        if (compiler == null) {
+            throw new ClassLoadException("Java compiler not found, active_reload requires JDK");
+        }
+        fileManager = compiler.getStandardFileManager(null, null, null);
+        options = list("-g:lines,source,vars", "-d", outputDir, "-cp", classpath);
+        this.targetDir = targetDir;
+    }
+
+    /**
+     * Returns a class compiled from the current version of its source.
+     *
+     * @param className fully qualified class name
+     * @param source source file of a class
+     * @return class compiled from current version of source
+     * @throws ClassLoadException if source cannot be read or class cannot be loaded
+     * @throws CompilationException if there are compilation errors
+     */
+    Class getClass(String className, File source) throws ClassLoadException {
+        long timestamp = source.lastModified();
+        if (timestamp == 0) {
+            throw new ClassLoadException("cannot read: " + source.getPath());
+        }
+        CompiledClass compiled = classes.get(className);
+        if (!current(compiled, timestamp)) {
+            compiled = compile(className, source, timestamp);
+        }
+        return compiled.theClass;
+    }
+
+    // file manager and compiler are not thread safe, also prevents compiling same class twice
+    private synchronized CompiledClass compile(String className, File source, long timestamp) throws ClassLoadException {
+        CompiledClass compiled = classes.get(className);
+        if (current(compiled, timestamp)) {
+            return compiled;
+        }
+        long checksum = checksum(source);
+        if (compiled != null && compiled.checksum == checksum && !compiled.loader.stale()) {
+            // touched, but not changed
+            compiled = new CompiledClass(compiled.theClass, compiled.loader, timestamp, checksum);
+        } else {
+            StringWriter writer = new StringWriter();
+            PrintWriter out = new PrintWriter(writer);
+            boolean success = compiler.getTask(out, fileManager, null, options, null,
+                    fileManager.getJavaFileObjects(source)).call();
+            out.flush();
+            if (!success) {
+                classes.remove(className);
+                throw new CompilationException(writer.toString());
+            }
+            try {
+                DynamicClassLoader loader = new DynamicClassLoader(ControllerFactory.class.getClassLoader(), targetDir);
+                compiled = new CompiledClass(loader.loadClass(className), loader, timestamp, checksum);
+            } catch (ClassNotFoundException e) {
+                throw new ClassLoadException(e);
+            }
+            logger.debug("Compiled class: " + className);
+        }
+        classes.put(className, compiled);
+        return compiled;
+    }
+
+    private static boolean current(CompiledClass compiled, long timestamp) {
+        return compiled != null && compiled.timestamp == timestamp && !compiled.loader.stale();
+    }
+
+    private static long checksum(File source) throws ClassLoadException {
+        InputStream in = null;
+        try {
+            in = new FileInputStream(source);
+            CRC32 crc = new CRC32();
+            byte[] buffer = new byte[8192];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                crc.update(buffer, 0, read);
+            }
+            return crc.getValue();
+        } catch (IOException e) {
+            throw new ClassLoadException(e);
+        } finally {
+            if (in != null) {
+                try { in.close(); } catch (IOException ignore) {}
+            }
+        }
+    }
+
+    private static final class CompiledClass {
+        private final Class theClass;
+        private final DynamicClassLoader loader;
+        private final long timestamp, checksum;
+
+        private CompiledClass(Class theClass, DynamicClassLoader loader, long timestamp, long checksum) {
+            this.theClass = theClass;
+            this.loader = loader;
+            this.timestamp = timestamp;
+            this.checksum = checksum;
+        }
+    }
+}
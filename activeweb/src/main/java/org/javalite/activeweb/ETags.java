@@ -0,0 +1,109 @@
+/*
+Copyright 2009-2014 Igor Polevoy
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package org.javalite.activeweb;
+
+import java.io.UnsupportedEncodingException;
+
+/**
+ * Generates and compares values of <code>ETag</code> headers. Strong tags are computed from content with
+ * 64-bit FNV-1a, which is not cryptographic, but is fast and good enough to tell versions of a page apart.
+ * Compressed responses get a suffix with content coding added to a strong tag, as they are different
+ * representations of the same content.
+ *
+ * @author Igor Polevoy
+ */
+final class ETags {
+
+    private static final long FNV_OFFSET = 0xcbf29ce484222325L, FNV_PRIME = 0x100000001b3L;
+
+    private ETags() {}
+
+    /**
+     * @param bytes content
+     * @param length length of content in array
+     * @return strong tag of content.
+     */
+    static String strong(byte[] bytes, int length) {
+        long hash = FNV_OFFSET;
+        for (int i = 0; i < length; i++) {
+            hash ^= bytes[i] & 0xff;
+            hash *= FNV_PRIME;
+        }
+        return "\"" + Integer.toHexString(length) + "-" + Long.toHexString(hash) + "\"";
+    }
+
+    /**
+     * @param version version of content, such as time it was updated
+     * @return weak tag of a version.
+     */
+    static String weak(Object version) {
+        if (version == null) throw new IllegalArgumentException("version cannot be null");
+        byte[] bytes;
+        try {
+            bytes = version.toString().getBytes("UTF-8");
+        } catch (UnsupportedEncodingException e) {
+            throw new WebException(e);
+        }
+        return "W/" + strong(bytes, bytes.length);
+    }
+
+    /**
+     * @param etag tag of content
+     * @param encoding content coding, such as "gzip"
+     * @return tag of content compressed with the content coding.
+     */
+    static String encoded(String etag, String encoding) {
+        if (etag.startsWith("W/") || etag.length() < 2 || !etag.endsWith("\"")) {
+            return etag;
+        }
+        return etag.substring(0, etag.length() - 1) + "-" + encoding + "\"";
+    }
+
+    /**
+     * Compares tags with weak comparison, which is what <code>If-None-Match</code> requires. Tags of compressed
+     * representations match tags of their content.
+     *
+     * @param ifNoneMatch value of <code>If-None-Match</code> header, can be null
+     * @param etag tag of content
+     * @return true if header has a tag that matches.
+     */
+    static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null || etag == null) {
+            return false;
+        }
+        String opaque = opaque(etag);
+        for (String candidate : ifNoneMatch.split(",")) {
+            candidate = candidate.trim();
+            if (candidate.equals("*") || opaque(candidate).equals(opaque)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String opaque(String etag) {
+        if (etag.startsWith("W/")) {
+            etag = etag.substring(2);
+        }
+        for (String encoding : new String[]{CompressingResponse.GZIP, CompressingResponse.DEFLATE}) {
+            String suffix = "-" + encoding + "\"";
+            if (etag.endsWith(suffix)) {
+                return etag.substring(0, etag.length() - suffix.length()) + "\"";
+            }
+        }
+        return etag;
+    }
+}
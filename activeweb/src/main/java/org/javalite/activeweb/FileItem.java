@@ -69,4 +69,8 @@ public class FileItem extends FormItem{
     FileItem(ApacheFileItemFacade apacheFileItemFacade) {
         super(apacheFileItemFacade);
     }
+
+    FileItem(SpooledItem spooledItem) {
+        super(spooledItem);
+    }
 }
\ No newline at end of file
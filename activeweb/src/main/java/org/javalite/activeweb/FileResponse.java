@@ -0,0 +1,229 @@
+/*
+Copyright 2009-2014 Igor Polevoy
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package org.javalite.activeweb;
+
+import javax.servlet.ServletOutputStream;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Sends content of a file. Sets <code>Content-Length</code>, <code>Last-Modified</code> and <code>ETag</code> headers,
+ * answers conditional requests with 304 and serves single and multiple byte ranges with 206.
+ * Content is transferred with {@link FileChannel#transferTo(long, long, WritableByteChannel)}.
+ *
+ * @author Igor Polevoy
+ */
+class FileResponse extends ControllerResponse {
+
+    //more ranges than this are served as a whole file
+    private static final int MAX_RANGES = 64;
+
+    private final File file;
+
+    FileResponse(File file) {
+        this.file = file;
+    }
+
+    @Override
+    void doProcess() {
+        HttpServletRequest request = Context.getHttpRequest();
+        HttpServletResponse response = Context.getHttpResponse();
+        long length = file.length();
+        long lastModified = file.lastModified();
+        String etag = "\"" + Long.toHexString(length) + "-" + Long.toHexString(lastModified) + "\"";
+
+        response.setDateHeader("Last-Modified", lastModified);
+        response.setHeader("ETag", etag);
+        response.setHeader("Accept-Ranges", "bytes");
+
+        String method = request.getMethod();
+        boolean body = !"HEAD".equals(method);
+        boolean conditional = "GET".equals(method) || "HEAD".equals(method);
+        if (conditional && notModified(request, etag, lastModified)) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+
+        List<long[]> ranges = conditional ? getRanges(request, etag, lastModified, length) : null;
+        try {
+            if (ranges == null) {
+                response.setHeader("Content-Length", Long.toString(length));
+                if (body) {
+                    transfer(new long[]{0, length - 1}, response.getOutputStream());
+                }
+            } else if (ranges.isEmpty()) {
+                response.setStatus(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+                response.setHeader("Content-Range", "bytes */" + length);
+            } else if (ranges.size() == 1) {
+                long[] range = ranges.get(0);
+                response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+                response.setHeader("Content-Range", contentRange(range, length));
+                response.setHeader("Content-Length", Long.toString(range[1] - range[0] + 1));
+                if (body) {
+                    transfer(range, response.getOutputStream());
+                }
+            } else {
+                sendMultipart(response, ranges, length, body);
+            }
+        } catch (IOException e) {
+            throw new ControllerException(e);
+        }
+    }
+
+    private void sendMultipart(HttpServletResponse response, List<long[]> ranges, long length, boolean body) throws IOException {
+        String boundary = "ACTIVEWEB_" + Long.toHexString(System.nanoTime());
+        String[] partHeaders = new String[ranges.size()];
+        String end = "\r\n--" + boundary + "--\r\n";
+        long contentLength = end.length();
+        for (int i = 0; i < partHeaders.length; i++) {
+            long[] range = ranges.get(i);
+            partHeaders[i] = "\r\n--" + boundary + "\r\n"
+                    + (getContentType() == null ? "" : "Content-Type: " + getContentType() + "\r\n")
+                    + "Content-Range: " + contentRange(range, length) + "\r\n\r\n";
+            contentLength += partHeaders[i].length() + range[1] - range[0] + 1;
+        }
+
+        response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+        response.setContentType("multipart/byteranges; boundary=" + boundary);
+        response.setHeader("Content-Length", Long.toString(contentLength));
+        if (body) {
+            ServletOutputStream out = response.getOutputStream();
+            for (int i = 0; i < partHeaders.length; i++) {
+                out.write(partHeaders[i].getBytes("ISO-8859-1"));
+                transfer(ranges.get(i), out);
+            }
+            out.write(end.getBytes("ISO-8859-1"));
+        }
+    }
+
+    private void transfer(long[] range, ServletOutputStream out) throws IOException {
+        FileInputStream in = new FileInputStream(file);
+        try {
+            FileChannel channel = in.getChannel();
+            WritableByteChannel target = Channels.newChannel(out);
+            long position = range[0], count = range[1] - range[0] + 1;
+            while (count > 0) {
+                long transferred = channel.transferTo(position, count, target);
+                if (transferred <= 0) {
+                    break; // file was truncated
+                }
+                position += transferred;
+                count -= transferred;
+            }
+            out.flush();
+        } finally {
+            in.close();
+        }
+    }
+
+    private static String contentRange(long[] range, long length) {
+        return "bytes " + range[0] + "-" + range[1] + "/" + length;
+    }
+
+    private static boolean notModified(HttpServletRequest request, String etag, long lastModified) {
+        String ifNoneMatch = request.getHeader("If-None-Match");
+        if (ifNoneMatch != null) {
+            for (String tag : ifNoneMatch.split(",")) {
+                tag = tag.trim();
+                if (tag.equals("*") || tag.equals(etag) || tag.equals("W/" + etag)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        long ifModifiedSince = getDateHeader(request, "If-Modified-Since");
+        return ifModifiedSince != -1 && lastModified / 1000 <= ifModifiedSince / 1000;
+    }
+
+    private static long getDateHeader(HttpServletRequest request, String name) {
+        try {
+            return request.getDateHeader(name);
+        } catch (IllegalArgumentException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * @return null if whole file is to be sent, empty list if no range can be satisfied, or list of ranges
+     * with first and last positions.
+     */
+    private static List<long[]> getRanges(HttpServletRequest request, String etag, long lastModified, long length) {
+        String header = request.getHeader("Range");
+        if (header == null || !header.startsWith("bytes=")) {
+            return null;
+        }
+        String ifRange = request.getHeader("If-Range");
+        if (ifRange != null) {
+            if (ifRange.startsWith("\"") || ifRange.startsWith("W/")) {
+                if (!ifRange.equals(etag)) {
+                    return null;
+                }
+            } else if (getDateHeader(request, "If-Range") / 1000 != lastModified / 1000) {
+                return null;
+            }
+        }
+
+        String[] specs = header.substring("bytes=".length()).split(",");
+        if (specs.length > MAX_RANGES) {
+            return null;
+        }
+        List<long[]> ranges = new ArrayList<long[]>(specs.length);
+        for (String spec : specs) {
+            spec = spec.trim();
+            int dash = spec.indexOf('-');
+            if (dash == -1) {
+                return null;
+            }
+            long first, last;
+            try {
+                if (dash == 0) {
+                    long suffix = Long.parseLong(spec.substring(1));
+                    if (suffix < 0) {
+                        return null;
+                    }
+                    first = Math.max(0, length - suffix);
+                    last = suffix == 0 ? -1 : length - 1;
+                } else {
+                    first = Long.parseLong(spec.substring(0, dash));
+                    String lastPosition = spec.substring(dash + 1);
+                    if (lastPosition.length() == 0) {
+                        last = length - 1;
+                    } else {
+                        last = Long.parseLong(lastPosition);
+                        if (last < first) {
+                            return null; // invalid, header is ignored
+                        }
+                        last = Math.min(last, length - 1);
+                    }
+                }
+            } catch (NumberFormatException e) {
+                return null;
+            }
+            if (first < length && first <= last) {
+                ranges.add(new long[]{first, last});
+            }
+        }
+        return ranges;
+    }
+}
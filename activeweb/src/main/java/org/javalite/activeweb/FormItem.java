@@ -21,6 +21,11 @@ import org.apache.commons.fileupload.FileItemStream;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
 
 /**
  * Represents an form item from a multi-part form.
@@ -167,6 +172,68 @@ public class FormItem {
      * @throws IOException
      */
     public void saveTo(String path) throws IOException {
-        Util.saveTo(path, getInputStream());
+        if (fileItemStream instanceof SpooledItem) {
+            FileChannel channel = FileChannel.open(Paths.get(path), StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+            try {
+                ((SpooledItem) fileItemStream).transferTo(channel);
+            } finally {
+                channel.close();
+            }
+        } else {
+            Util.saveTo(path, getInputStream());
+        }
+    }
+
+    /**
+     * Size of content in bytes.
+     *
+     * @return size of content in bytes, or -1 if content is streamed and size is not known
+     * before it is read, as with items from {@link HttpSupport#uploadedFiles()}.
+     */
+    public long getSize() {
+        return fileItemStream instanceof SpooledItem ? ((SpooledItem) fileItemStream).getSize() : -1;
+    }
+
+    /**
+     * Returns a temporary file with content of this item. Content that was held in memory is written to
+     * a temporary file first. The file is deleted at the end of a request, unless it is moved
+     * with {@link #moveTo(Path)}.
+     *
+     * @return temporary file with content of this item.
+     * @throws IOException
+     */
+    public Path getPath() throws IOException {
+        return spooled().getPath();
+    }
+
+    /**
+     * Moves content of this item to a file. If content is in a temporary file on the same file system,
+     * the file is renamed and content is not copied.
+     *
+     * @param target file to move content to, replaced if it exists.
+     * @throws IOException
+     */
+    public void moveTo(Path target) throws IOException {
+        spooled().moveTo(target);
+    }
+
+    /**
+     * Writes content of this item to a channel. Content of a temporary file is transferred with
+     * {@link FileChannel#transferTo(long, long, WritableByteChannel)}.
+     *
+     * @param target channel to write content to.
+     * @return number of bytes written.
+     * @throws IOException
+     */
+    public long transferTo(WritableByteChannel target) throws IOException {
+        return spooled().transferTo(target);
+    }
+
+    private SpooledItem spooled() throws IOException {
+        if (!(fileItemStream instanceof SpooledItem)) {
+            fileItemStream = UploadSpool.spool(fileItemStream, 0);
+        }
+        return (SpooledItem) fileItemStream;
     }
 }
\ No newline at end of file
@@ -19,6 +19,8 @@ import org.javalite.activeweb.annotations.*;
 
 import javax.servlet.http.HttpServletRequest;
 import java.lang.annotation.Annotation;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * @author Igor Polevoy
@@ -48,6 +50,23 @@ public enum HttpMethod {
         }
     }
 
+    /**
+     * Detects methods from annotations of an action, ignoring annotations that do not specify HTTP methods.
+     *
+     * @param annotations annotations of an action method
+     * @return methods corresponding to annotations, empty list if there are none.
+     */
+    static List<HttpMethod> methods(Annotation[] annotations){
+        List<HttpMethod> methods = new ArrayList<HttpMethod>();
+        for (Annotation annotation : annotations) {
+            if (annotation instanceof GET || annotation instanceof POST || annotation instanceof PUT
+                    || annotation instanceof DELETE || annotation instanceof HEAD) {
+                methods.add(method(annotation));
+            }
+        }
+        return methods;
+    }
+
     /**
      * Detects an HTTP method from a request.
      */
@@ -16,9 +16,7 @@ limitations under the License.
 package org.javalite.activeweb;
 
 
-import org.apache.commons.fileupload.FileItem;
 import org.apache.commons.fileupload.FileItemIterator;
-import org.apache.commons.fileupload.disk.DiskFileItemFactory;
 import org.apache.commons.fileupload.servlet.ServletFileUpload;
 import org.javalite.common.Convert;
 import org.javalite.common.Util;
@@ -29,8 +27,7 @@ import javax.servlet.http.HttpServletRequest;
 import java.io.*;
 import java.net.URL;
 import java.util.*;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.concurrent.Callable;
 
 import static org.javalite.common.Collections.map;
 
@@ -290,6 +287,29 @@ public class HttpSupport {
     }
 
 
+    /**
+     * Finishes processing of a request on a separate thread after the action returns, so that a thread of the
+     * container is not held while the task waits for a slow resource. The task can use all the same methods as the
+     * action, such as {@link #render(String, Map)} or {@link #respond(String)}. Once the task completes, the response
+     * is rendered and <code>after()</code> methods of filters are executed.
+     *
+     * <p/>
+     * Tasks are executed by a pool of <code>asyncThreads</code> threads and must complete within
+     * <code>asyncTimeout</code> milliseconds, both configured in <code>activeweb.properties</code>. An executor can
+     * also be provided by placing it into {@link AppContext} under name {@link RequestDispatcher#ASYNC_EXECUTOR}.
+     * In order to free container threads, <code>RequestDispatcher</code> must be declared with
+     * <code>&lt;async-supported&gt;true&lt;/async-supported&gt;</code> in <code>web.xml</code>; otherwise the task
+     * is executed on the same thread right after the action.
+     *
+     * @param task task to finish processing of this request.
+     */
+    protected void async(Callable<?> task) {
+        if (task == null)
+            throw new IllegalArgumentException("task cannot be null");
+        Context.setAsyncTask(task);
+    }
+
+
     /**
      * Redirects to a an action of this controller, or an action of a different controller.
      * This method does not expect a full URL.
@@ -481,6 +501,10 @@ public class HttpSupport {
      * Convenience method for downloading files. This method will force the browser to find a handler(external program)
      *  for  this file (content type) and will provide a name of file to the browser. This method sets an HTTP header
      * "Content-Disposition" based on a file name.
+     * <p/>
+     * Content length, last modification time and an entity tag of the file are sent with the file. Conditional requests
+     * are answered with 304 (Not Modified), and requests for byte ranges, such as resumed downloads, with 206 (Partial
+     * Content).
      *
      * @param file file to download.
      * @return builder instance.
@@ -488,7 +512,10 @@ public class HttpSupport {
      */
     protected HttpBuilder sendFile(File file) throws FileNotFoundException {
         try{
-            StreamResponse resp = new StreamResponse(new FileInputStream(file));
+            if (!file.isFile() || !file.canRead()) {
+                throw new FileNotFoundException(file.getPath());
+            }
+            FileResponse resp = new FileResponse(file);
             Context.setControllerResponse(resp);
             HttpBuilder builder = new HttpBuilder(resp);
             builder.header("Content-Disposition", "attachment; filename=" + file.getName());
@@ -737,18 +764,11 @@ public class HttpSupport {
 
     /**
      * Returns a collection of uploaded files and form fields from a multi-part request.
-     * This method uses <a href="http://commons.apache.org/proper/commons-fileupload/apidocs/org/apache/commons/fileupload/disk/DiskFileItemFactory.html">DiskFileItemFactory</a>.
-     * As a result, it is recommended to add the following to your web.xml file:
-     *
-     * <pre>
-     *   &lt;listener&gt;
-     *      &lt;listener-class&gt;
-     *         org.apache.commons.fileupload.servlet.FileCleanerCleanup
-     *      &lt;/listener-class&gt;
-     *   &lt;/listener&gt;
-     *</pre>
-     *
-     * For more information, see: <a href="http://commons.apache.org/proper/commons-fileupload/using.html">Using FileUpload</a>
+     * Items smaller than <code>uploadThreshold</code> bytes are held in memory, larger items are written to temporary
+     * files as they are read. Memory and temporary files are released at the end of a request. Use
+     * {@link FormItem#moveTo(java.nio.file.Path)} to keep an uploaded file without copying it.
+     * Memory used for uploads by all requests is limited by <code>uploadMemory</code>, see
+     * {@link UploadLimitException}.
      *
      * The size of upload defaults to max of 20mb. Files greater than that will be rejected. If you want to accept files
      * smaller of larger, create a file called <code>activeweb.properties</code>, add it to your classpath and
@@ -780,27 +800,10 @@ public class HttpSupport {
             if (!ServletFileUpload.isMultipartContent(req))
                 throw new ControllerException("this is not a multipart request, be sure to add this attribute to the form: ... enctype=\"multipart/form-data\" ...");
 
-            DiskFileItemFactory factory = new DiskFileItemFactory();
-
-            factory.setSizeThreshold(Configuration.getMaxUploadSize());
-            factory.setRepository(Configuration.getTmpDir());
-
-            ServletFileUpload upload = new ServletFileUpload(factory);
-            if(encoding != null)
-                upload.setHeaderEncoding(encoding);
-            upload.setFileSizeMax(Configuration.getMaxUploadSize());
             try {
-                List<org.apache.commons.fileupload.FileItem> apacheFileItems = upload.parseRequest(Context.getHttpRequest());
-                formItems = new ArrayList<FormItem>();
-                for (FileItem apacheItem : apacheFileItems) {
-                    ApacheFileItemFacade f = new ApacheFileItemFacade(apacheItem);
-                    if(f.isFormField()){
-                        formItems.add(new FormItem(f));
-                    }else{
-                        formItems.add(new org.javalite.activeweb.FileItem(f));
-                    }
-                }
-                return formItems;
+                formItems = UploadSpool.parse(req, encoding);
+            } catch (UploadLimitException e) {
+                throw e;
             } catch (Exception e) {
                 throw new ControllerException(e);
             }
@@ -861,17 +864,7 @@ public class HttpSupport {
      * @return map with name/value pairs parsed from request.
      */
     public Map<String, String> getMap(String hashName) {
-        Map<String, String[]>  params = params();
-        Map<String, String>  hash = new HashMap<String, String>();
-        for(String key:params.keySet()){
-            if(key.startsWith(hashName)){
-                String name = parseHashName(key);
-                if(name != null){
-                    hash.put(name, param(key));
-                }
-            }
-        }
-        return hash;
+        return new HashMap<String, String>(RequestParams.current().getHash(hashName));
     }
 
     /**
@@ -897,38 +890,7 @@ public class HttpSupport {
      * @return map with name/value pairs parsed from request.
      */
     public Map<String, String> getMap(String hashName, List<FormItem> formItems) {
-        Map<String, String>  hash = new HashMap<String, String>();
-        for(FormItem item:formItems){
-            if(item.getFieldName().startsWith(hashName) && !item.isFile()){
-                String name = parseHashName(item.getFieldName());
-                if(name != null){
-                    hash.put(name, item.getStreamAsString());
-                }
-            }
-        }
-        return hash;
-    }
-
-    private static Pattern hashPattern = Pattern.compile("\\[.*\\]");
-
-    /**
-     * Parses name from hash syntax.
-     *
-     * @param param something like this: <code>person[account]</code>
-     * @return name of hash key:<code>account</code>
-     */
-    private static String parseHashName(String param) {
-        Matcher matcher = hashPattern.matcher(param);
-        String name = null;
-        while (matcher.find()){
-            name = matcher.group(0);
-        }
-        return name == null? null : name.substring(1, name.length() - 1);
-    }
-
-
-    public static void main(String[] args){
-        System.out.println(HttpSupport.parseHashName("account[name]"));
+        return new HashMap<String, String>(RequestParams.current(formItems).getHash(hashName));
     }
 
     /**
@@ -1053,7 +1015,7 @@ public class HttpSupport {
     }
 
     /**
-     * Returns reference to a current session. Creates a new session of one does not exist.
+     * Returns reference to a current session. A new session is created only when something is written to it.
      * @return reference to a current session.
      */
     protected SessionFacade session(){
@@ -1438,6 +1400,39 @@ public class HttpSupport {
         header(name, value.toString());
     }
 
+    /**
+     * Sets <code>ETag</code> of a response from a version of its content, such as time a model was last updated.
+     * If a client already has this version, a response is set to 304 and the method returns true, in which case
+     * an action should return without rendering anything:
+     *
+     * <pre>
+     * public void show(){
+     *     Post post = Post.findById(getId());
+     *     if(notModified(post.get("updated_at"))) return;
+     *     view("post", post);
+     * }
+     * </pre>
+     *
+     * Tag is weak, because the same version may be rendered into different bytes, for instance with a different layout.
+     *
+     * Only GET and HEAD requests are answered with 304, other methods always render a page.
+     *
+     * @param version version of content, cannot be null.
+     * @return true if client has this version and was answered with 304, false if a page is to be rendered.
+     */
+    protected boolean notModified(Object version) {
+        if (!(isGet() || isHead())) {
+            return false;
+        }
+        String etag = ETags.weak(version);
+        Context.getHttpResponse().setHeader("ETag", etag);
+        if (ETags.matches(header("If-None-Match"), etag)) {
+            Context.setControllerResponse(new NopResponse(null, 304));
+            return true;
+        }
+        return false;
+    }
+
     /**
      * Streams content of the <code>reader</code> to the HTTP client.
      *
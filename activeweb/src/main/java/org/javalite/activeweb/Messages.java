@@ -4,10 +4,13 @@ package org.javalite.activeweb;
 import java.text.MessageFormat;
 import java.util.Locale;
 import java.util.ResourceBundle;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 /**
  * This class is used to pull messages from a resource bundle called <code>activeweb_messages</code>.
  * It is primarily used by the validation framework, but client code can use it as well for other things.
+ * Messages are parsed once per locale and key, except in <code>active_reload</code> mode, see {@link #clearCache()}.
  *
  * @author Igor Polevoy
  */
@@ -15,6 +18,9 @@ import java.util.ResourceBundle;
 public class Messages {
 
     private static final String BUNDLE = "activeweb_messages";
+    private static final int MAX_CACHED_KEYS = 10000, MAX_CACHED_LOCALES = 100;
+    private static final ConcurrentMap<Locale, ConcurrentMap<String, Object>> formats
+            = new ConcurrentHashMap<Locale, ConcurrentMap<String, Object>>();
 
     /**
      * Looks for a localized property/message in <code>activeweb_messages</code> bundle.
@@ -42,17 +48,58 @@ public class Messages {
         return getMessage(key, Context.getHttpRequest().getLocale(), params);
     }
 
+    /**
+     * Forgets parsed messages and cached resource bundles, so that changed bundles are read again.
+     */
+    public static void clearCache() {
+        formats.clear();
+        ResourceBundle.clearCache();
+    }
+
     private static String getMessage(String key, Locale locale, Object... params){
-        MessageFormat mf = new MessageFormat("");
-        try{
-            if(locale == null){
-                mf.applyPattern(ResourceBundle.getBundle(BUNDLE).getString(key));
-            }else{
-                mf.applyPattern(ResourceBundle.getBundle(BUNDLE, locale).getString(key));
+        if (locale == null) {
+            locale = Locale.getDefault();
+        }
+        Object format;
+        if (Configuration.activeReload()) {
+            format = compile(key, locale);
+        } else {
+            ConcurrentMap<String, Object> localeFormats = formats.get(locale);
+            //locales come from requests, the limit guards against clients sending made up locales
+            if (localeFormats == null && formats.size() < MAX_CACHED_LOCALES) {
+                formats.putIfAbsent(locale, new ConcurrentHashMap<String, Object>());
+                localeFormats = formats.get(locale);
+            }
+            format = localeFormats == null ? null : localeFormats.get(key);
+            if (format == null) {
+                format = compile(key, locale);
+                //keys missing from bundles are cached too, the limit guards against keys made of user input
+                if (localeFormats != null && localeFormats.size() < MAX_CACHED_KEYS) {
+                    localeFormats.put(key, format);
+                }
             }
-        }catch(Exception e){
-            mf.applyPattern(key);
         }
-        return mf.format(params);
+        if (format instanceof String) {
+            return (String) format;
+        }
+        //MessageFormat is not thread safe, a copy is cheaper than parsing a pattern again
+        return ((MessageFormat) ((MessageFormat) format).clone()).format(params);
+    }
+
+    /**
+     * @return message as is if it has neither arguments nor quotes, otherwise {@link MessageFormat}. Key is used as
+     * message if it is not found in a bundle.
+     */
+    private static Object compile(String key, Locale locale) {
+        String pattern;
+        MessageFormat format;
+        try {
+            pattern = ResourceBundle.getBundle(BUNDLE, locale).getString(key);
+            format = new MessageFormat(pattern);
+        } catch (Exception e) {
+            pattern = key;
+            format = new MessageFormat(pattern);
+        }
+        return pattern.indexOf('{') == -1 && pattern.indexOf('\'') == -1 ? pattern : format;
     }
-}
\ No newline at end of file
+}
@@ -78,8 +78,12 @@ class RenderTemplateResponse extends ControllerResponse{
 
     @Override
     void doProcess() {
+        Route route = Context.getRoute();
+        boolean etag = route != null && ActionDescriptor.get(route.getController().getClass(), route.getActionName()).etag();
+        ResponseBuffer buffer = new ResponseBuffer(Context.getHttpResponse(), etag);
         try {
-            templateManager.merge(values, template, layout, format, Context.getHttpResponse().getWriter());
+            templateManager.merge(new ViewModel(values), template, layout, format, buffer);
+            buffer.close();
         }
         catch (IllegalStateException e){
             throw e;
@@ -90,6 +94,9 @@ class RenderTemplateResponse extends ControllerResponse{
         catch (Exception e) {
             throw new ViewException(e);
         }
+        finally {
+            buffer.release();
+        }
     }
 
     @Override
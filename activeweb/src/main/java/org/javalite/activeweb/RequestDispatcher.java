@@ -16,6 +16,7 @@ limitations under the License.
 package org.javalite.activeweb;
 
 import org.javalite.activejdbc.DB;
+import org.javalite.activeweb.freemarker.FreeMarkerTemplateManager;
 import org.javalite.common.Util;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -26,7 +27,11 @@ import javax.servlet.http.HttpServletResponse;
 import java.io.IOException;
 import java.io.PrintWriter;
 import java.io.StringWriter;
+import java.sql.Connection;
 import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 
 import static org.javalite.activeweb.Configuration.getDefaultLayout;
 import static org.javalite.activeweb.Configuration.useDefaultLayoutForErrors;
@@ -36,6 +41,13 @@ import static org.javalite.common.Collections.map;
  * @author Igor Polevoy
  */
 public class RequestDispatcher implements Filter {
+
+    /**
+     * Name of an {@link ExecutorService} in {@link AppContext} to complete asynchronous requests,
+     * see {@link HttpSupport#async(Callable)}. If not provided, a pool of <code>asyncThreads</code> threads is used.
+     */
+    public static final String ASYNC_EXECUTOR = "activeweb.async_executor";
+
     private Logger logger = LoggerFactory.getLogger(getClass().getName());
     private FilterConfig filterConfig;
     private List<String> exclusions = new ArrayList<String>();
@@ -43,6 +55,10 @@ public class RequestDispatcher implements Filter {
     private AppContext appContext;
     private Bootstrap appBootstrap;
     private String encoding;
+    private volatile Router router;
+    private long routeConfigTimestamp;
+    private ExecutorService asyncExecutor;
+    private boolean ownAsyncExecutor;
 
     public void init(FilterConfig filterConfig) throws ServletException {
         this.filterConfig = filterConfig;        
@@ -62,6 +78,9 @@ public class RequestDispatcher implements Filter {
             }
         }
         initApp(appContext);
+        initRouter(appContext);
+        initAsyncExecutor(appContext);
+        warmUpViews();
         encoding = filterConfig.getInitParameter("encoding");
         logger.info("ActiveWeb: starting the app in environment: " + Configuration.getEnv());
     }
@@ -83,9 +102,49 @@ public class RequestDispatcher implements Filter {
     protected void setRouteConfig(AbstractRouteConfig routeConfig) {
         this.routeConfigTest = routeConfig;
         testMode = true;
+        router = null; // will be rebuilt from this config on next request
     }
 
+    /**
+     * Builds routes once at startup. If the route config is broken, the error is not thrown here,
+     * but reported on every request, same as before routes were cached.
+     */
+    private void initRouter(AppContext context) {
+        try {
+            getRouter(context);
+        } catch (RuntimeException e) {
+            logger.warn("Failed to load routes, will retry on request: " + getCauseMessage(e));
+        }
+    }
+
+    /**
+     * Returns a router built from the RouteConfig. Routes are built once and shared by all requests.
+     * In <code>active_reload</code> mode the router is rebuilt only when the source of the RouteConfig class changes.
+     */
     private Router getRouter(AppContext context){
+        Router current = router;
+        if (current != null && !routeConfigChanged()) {
+            return current;
+        }
+        synchronized (this) {
+            if (router == null || routeConfigChanged()) {
+                long timestamp = routeConfigSourceTimestamp();
+                router = createRouter(context);
+                routeConfigTimestamp = timestamp;
+            }
+            return router;
+        }
+    }
+
+    private boolean routeConfigChanged() {
+        return Configuration.activeReload() && !testMode && routeConfigSourceTimestamp() != routeConfigTimestamp;
+    }
+
+    private long routeConfigSourceTimestamp() {
+        return Configuration.activeReload() ? DynamicClassFactory.getSourceTimestamp(Configuration.getRouteConfigClassName()) : 0;
+    }
+
+    private Router createRouter(AppContext context){
         String routeConfigClassName = Configuration.getRouteConfigClassName();
         Router router = new Router(filterConfig.getInitParameter("root_controller"));
         AbstractRouteConfig routeConfigLocal;
@@ -113,6 +172,31 @@ public class RequestDispatcher implements Filter {
         return router;
     }
 
+    /**
+     * Parses all templates at startup if <code>warmUpViews</code> is set, see {@link FreeMarkerTemplateManager#warmUp(boolean)}.
+     */
+    private void warmUpViews() {
+        TemplateManager templateManager = Configuration.getTemplateManager();
+        if (Configuration.warmUpViews() && templateManager instanceof FreeMarkerTemplateManager) {
+            ((FreeMarkerTemplateManager) templateManager).warmUp(Configuration.failOnBrokenViews());
+        }
+    }
+
+    private void initAsyncExecutor(AppContext context) {
+        asyncExecutor = context.get(ASYNC_EXECUTOR, ExecutorService.class);
+        if (asyncExecutor == null) {
+            ownAsyncExecutor = true;
+            asyncExecutor = Executors.newFixedThreadPool(Configuration.getAsyncThreads(), new ThreadFactory() {
+                private final AtomicInteger count = new AtomicInteger();
+                public Thread newThread(Runnable runnable) {
+                    Thread thread = new Thread(runnable, "activeweb-async-" + count.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+        }
+    }
+
     //TODO: refactor to some util class. This is stolen...ehrr... borrowed from Apache ExceptionUtils
     static String getCauseMessage(Throwable throwable) {
         List<Throwable> list = new ArrayList<Throwable>();
@@ -150,6 +234,7 @@ public class RequestDispatcher implements Filter {
     }
 
     public void doFilter(ServletRequest req, ServletResponse resp, FilterChain chain) throws IOException, ServletException {
+        boolean async = false;
         try {
 
             HttpServletRequest request = (HttpServletRequest) req;
@@ -181,6 +266,10 @@ public class RequestDispatcher implements Filter {
             }
 
             Context.setTLs(request, response, filterConfig, getControllerRegistry(), appContext, new RequestContext(), format);
+            if (ResponseCache.serve(path)) {
+                logger.debug("Response served from cache: " + path);
+                return;
+            }
             if (Util.blank(uri)) {
                 uri = "/";//different servlet implementations, damn.
             }
@@ -199,36 +288,196 @@ public class RequestDispatcher implements Filter {
                 if (Configuration.logRequestParams()) {
                     logger.info("================ New request: " + new Date() + " ================");
                 }
+                ActionDescriptor action = ActionDescriptor.get(route.getController().getClass(), route.getActionName());
+                if (action.compress()) {
+                    CompressingResponse.wrap();
+                }
+                if (action.getCachePolicy() != null) {
+                    ResponseCache.capture(path, action, action.compress());
+                }
                 runner.run(route, true);
+                if (Context.getAsyncTask() != null) {
+                    startAsync(request, route);
+                    async = true;
+                }
             } else {
                 //TODO: theoretically this will never happen, because if the route was not excluded, the router.recognize() would throw some kind
                 // of exception, leading to the a system error page.
                 logger.warn("No matching route for servlet path: " + request.getServletPath() + ", passing down to container.");
                 chain.doFilter(req, resp);//let it fall through
             }
-        } catch (CompilationException e) {
+        } catch (Throwable e) {
+            renderException(e);
+        }finally {
+            if (!async) {
+                finishResponse();
+                Context.releaseUploads();
+            }
+            Context.clear();
+            closeLeakedConnections();
+        }
+    }
+
+    private static final int RUNNING = 0, RESPONDING = 1, TIMED_OUT = 2;
+
+    /**
+     * Releases the container thread and completes the request on a thread of the async executor,
+     * with the same request state and database connections bound to it. Once the executor thread starts
+     * writing a response, a time out waits for it to finish; once a request has timed out, nothing is written
+     * to its response.
+     */
+    private void startAsync(final HttpServletRequest request, final Route route) {
+        final AsyncContext asyncContext = request.startAsync(request, Context.getHttpResponse());
+        asyncContext.setTimeout(Configuration.getAsyncTimeout());
+        final RequestScope scope = Context.capture();
+        final Map<String, Connection> connections = detachConnections();
+        final AtomicInteger state = new AtomicInteger(RUNNING);
+        final CountDownLatch done = new CountDownLatch(1);
+        final AtomicReference<Thread> worker = new AtomicReference<Thread>();
+        final ControllerRunner.ResponseGate gate = new ControllerRunner.ResponseGate() {
+            public boolean open() {
+                return state.compareAndSet(RUNNING, RESPONDING) || state.get() == RESPONDING;
+            }
+        };
+
+        asyncContext.addListener(new AsyncListener() {
+            public void onTimeout(AsyncEvent event) throws IOException {
+                if (state.compareAndSet(RUNNING, TIMED_OUT)) {
+                    synchronized (worker) {
+                        if (worker.get() != null) {
+                            worker.get().interrupt();
+                        }
+                    }
+                    logger.warn("Asynchronous request timed out: " + request.getRequestURI());
+                    HttpServletResponse response = (HttpServletResponse) event.getAsyncContext().getResponse();
+                    if (!response.isCommitted()) {
+                        response.sendError(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+                    }
+                    asyncContext.complete();
+                } else {
+                    //response is being written, it will be completed when it is done
+                    try {
+                        if (!done.await(Configuration.getAsyncTimeout(), TimeUnit.MILLISECONDS)) {
+                            logger.warn("Asynchronous request is still rendering after time out: " + request.getRequestURI());
+                        }
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+            }
+            public void onComplete(AsyncEvent event) {}
+            public void onError(AsyncEvent event) {}
+            public void onStartAsync(AsyncEvent event) {}
+        });
+
+        try {
+            asyncExecutor.execute(new Runnable() {
+                public void run() {
+                    worker.set(Thread.currentThread());
+                    Context.bind(scope);
+                    attachConnections(connections);
+                    try {
+                        if (state.get() != TIMED_OUT) {
+                            runner.runAsync(route, true, gate);
+                        }
+                    } catch (Throwable e) {
+                        if (gate.open()) {
+                            renderException(e);
+                        } else {
+                            logger.warn("Asynchronous request failed after time out: " + request.getRequestURI(), e);
+                        }
+                    } finally {
+                        boolean respond = gate.open();
+                        if (respond) {
+                            finishResponse();
+                        } else {
+                            CompressingResponse.discard();
+                        }
+                        Context.releaseUploads();
+                        Context.clear();
+                        closeLeakedConnections();
+                        if (respond) {
+                            asyncContext.complete();
+                        }
+                        synchronized (worker) {
+                            worker.set(null);
+                            Thread.interrupted(); //interrupt by a time out must not leak to the next task
+                        }
+                        done.countDown();
+                    }
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            attachConnections(connections);
+            state.set(TIMED_OUT);
+            asyncContext.complete();
+            throw e;
+        }
+    }
+
+    /**
+     * Detaches database connections from the current thread, so that they are not closed when the container thread
+     * is released, and can be used by filters and tasks on a thread that completes the request.
+     */
+    private static Map<String, Connection> detachConnections() {
+        Map<String, Connection> connections = new HashMap<String, Connection>(DB.connections());
+        for (String name : connections.keySet()) {
+            new DB(name).detach();
+        }
+        return connections;
+    }
+
+    private static void attachConnections(Map<String, Connection> connections) {
+        for (Map.Entry<String, Connection> connection : connections.entrySet()) {
+            new DB(connection.getKey()).attach(connection.getValue());
+        }
+    }
+
+    private void renderException(Throwable e) {
+        if (e instanceof CompilationException) {
             renderSystemError(e);
-        } catch (ClassLoadException e) {
-            renderSystemError("/system/404", useDefaultLayoutForErrors() ? getDefaultLayout():null, 404, e);
-        }catch (ActionNotFoundException e) {
+        } else if (e instanceof ClassLoadException || e instanceof ActionNotFoundException
+                || e instanceof ViewMissingException || e instanceof RouteException) {
             renderSystemError("/system/404", useDefaultLayoutForErrors() ? getDefaultLayout():null, 404, e);
-        }catch(ViewMissingException e){
-            renderSystemError("/system/404", useDefaultLayoutForErrors() ? getDefaultLayout():null, 404, e);
-        }catch(RouteException e){
-            renderSystemError("/system/404", useDefaultLayoutForErrors() ? getDefaultLayout():null, 404, e);
-        }catch(ViewException e){
+        } else if (causedBy(e, UploadLimitException.class)) {
+            Context.getHttpResponse().setHeader("Retry-After", "1");
+            renderSystemError("/system/error", useDefaultLayoutForErrors() ? getDefaultLayout():null, 503, e);
+        } else {
             renderSystemError("/system/error", useDefaultLayoutForErrors() ? getDefaultLayout():null, 500, e);
-        }catch (Throwable e) {
-            renderSystemError("/system/error", useDefaultLayoutForErrors() ? getDefaultLayout():null, 500, e);
-        }finally {
-           Context.clear();
-            List<String> connectionsRemaining = DB.getCurrrentConnectionNames();
-            if(connectionsRemaining.size() != 0){
-                logger.warn("CONNECTION LEAK DETECTED ... and AVERTED!!! You left connections opened:"
-                        + connectionsRemaining + ". ActiveWeb is closing all active connections for you...");
-                DB.closeAllConnections();
+        }
+    }
+
+    private static boolean causedBy(Throwable e, Class<? extends Throwable> type) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause() == cause ? null : cause.getCause()) {
+            if (type.isInstance(cause)) {
+                return true;
             }
         }
+        return false;
+    }
+
+    private void finishResponse() {
+        try {
+            CachingResponse.finish();
+        } catch (Exception e) {
+            logger.error("Failed to finish response", e);
+        }
+        try {
+            CompressingResponse.finish();
+        } catch (Exception e) {
+            logger.error("Failed to finish response", e);
+        } finally {
+            CompressingResponse.discard();
+        }
+    }
+
+    private void closeLeakedConnections() {
+        List<String> connectionsRemaining = DB.getCurrrentConnectionNames();
+        if(connectionsRemaining.size() != 0){
+            logger.warn("CONNECTION LEAK DETECTED ... and AVERTED!!! You left connections opened:"
+                    + connectionsRemaining + ". ActiveWeb is closing all active connections for you...");
+            DB.closeAllConnections();
+        }
     }
 
     private Map getMapWithExceptionDataAndSession(Throwable e) {
@@ -285,7 +534,6 @@ public class RequestDispatcher implements Filter {
                 resp.setContentType("text/html");
                 resp.setStatus(status);
                 resp.setTemplateManager(Configuration.getTemplateManager());
-                ParamCopy.copyInto(resp.values());
                 resp.process();
             }
         }catch(Throwable t){
@@ -317,6 +565,9 @@ public class RequestDispatcher implements Filter {
     }
     
     public void destroy() {
+        if (ownAsyncExecutor) {
+            asyncExecutor.shutdown();
+        }
         appBootstrap.destroy(appContext);
     }
 }
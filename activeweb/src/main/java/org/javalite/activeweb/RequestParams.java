@@ -0,0 +1,145 @@
+/*
+Copyright 2009-2014 Igor Polevoy
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package org.javalite.activeweb;
+
+import javax.servlet.http.HttpServletRequest;
+import java.util.*;
+
+/**
+ * Parameters of a request, or form fields of a <code>multipart/form-data</code> request, indexed once per request:
+ * all values by name, first value by name, and parameters with "hash" syntax, such as <code>account[name]</code>,
+ * grouped by name of a hash. Helpers of {@link RequestUtils} and {@link HttpSupport} are served from an index
+ * instead of walking all parameters on every call. Maps returned by an index must not be modified.
+ *
+ * @author Igor Polevoy
+ */
+final class RequestParams {
+
+    private final Object source;
+    private final Map<String, String[]> values;
+    private final Map<String, String> first;
+    private Map<String, Map<String, String>> hashes;
+
+    private RequestParams(Object source, Map<String, String[]> values) {
+        this.source = source;
+        this.values = Collections.unmodifiableMap(values);
+        Map<String, String> first = new HashMap<String, String>(values.size() * 2);
+        for (Map.Entry<String, String[]> entry : values.entrySet()) {
+            String[] v = entry.getValue();
+            first.put(entry.getKey(), v == null || v.length == 0 ? null : v[0]);
+        }
+        this.first = Collections.unmodifiableMap(first);
+    }
+
+    /**
+     * @return index of parameters of request of the current thread.
+     */
+    static RequestParams current() {
+        HttpServletRequest request = Context.getHttpRequest();
+        RequestParams params = Context.getRequestParams();
+        if (params == null || params.source != request) {
+            @SuppressWarnings("unchecked")
+            Map<String, String[]> map = request.getParameterMap();
+            params = new RequestParams(request, new HashMap<String, String[]>(map));
+            Context.setRequestParams(params);
+        }
+        return params;
+    }
+
+    /**
+     * @param formItems form items retrieved from <code>multipart/form-data</code> request
+     * @return index of form fields, files are skipped.
+     */
+    static RequestParams current(List<FormItem> formItems) {
+        RequestParams params = Context.getFormParams();
+        if (params == null || params.source != formItems) {
+            Map<String, List<String>> lists = new LinkedHashMap<String, List<String>>();
+            for (FormItem item : formItems) {
+                if (item.isFormField()) {
+                    List<String> list = lists.get(item.getFieldName());
+                    if (list == null) {
+                        lists.put(item.getFieldName(), list = new ArrayList<String>(1));
+                    }
+                    list.add(item.getStreamAsString());
+                }
+            }
+            Map<String, String[]> values = new HashMap<String, String[]>(lists.size() * 2);
+            for (Map.Entry<String, List<String>> entry : lists.entrySet()) {
+                values.put(entry.getKey(), entry.getValue().toArray(new String[entry.getValue().size()]));
+            }
+            params = new RequestParams(formItems, values);
+            Context.setFormParams(params);
+        }
+        return params;
+    }
+
+    /**
+     * @return first value of a parameter, null if there is none.
+     */
+    String get(String name) {
+        return first.get(name);
+    }
+
+    /**
+     * @return all values of a parameter, null if there are none.
+     */
+    String[] getValues(String name) {
+        return values.get(name);
+    }
+
+    /**
+     * @return all values of all parameters.
+     */
+    Map<String, String[]> getAll() {
+        return values;
+    }
+
+    /**
+     * @return first values of all parameters.
+     */
+    Map<String, String> getFirst() {
+        return first;
+    }
+
+    /**
+     * @param hashName name of a hash, such as "account" for parameters like <code>account[name]</code>
+     * @return first values of parameters of a hash keyed by names of hash elements, empty map if there are none.
+     */
+    Map<String, String> getHash(String hashName) {
+        if (hashes == null) {
+            hashes = hashes();
+        }
+        Map<String, String> hash = hashes.get(hashName);
+        return hash == null ? Collections.<String, String>emptyMap() : hash;
+    }
+
+    private Map<String, Map<String, String>> hashes() {
+        Map<String, Map<String, String>> hashes = new HashMap<String, Map<String, String>>();
+        for (Map.Entry<String, String> entry : first.entrySet()) {
+            String key = entry.getKey();
+            int open = key.indexOf('['), close = key.lastIndexOf(']');
+            if (open > 0 && close > open) {
+                String hashName = key.substring(0, open);
+                Map<String, String> hash = hashes.get(hashName);
+                if (hash == null) {
+                    hashes.put(hashName, hash = new HashMap<String, String>());
+                }
+                hash.put(key.substring(open + 1, close), entry.getValue());
+            }
+        }
+        return hashes;
+    }
+}
@@ -0,0 +1,48 @@
+/*
+Copyright 2009-2014 Igor Polevoy
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package org.javalite.activeweb;
+
+import javax.servlet.FilterConfig;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+
+/**
+ * State of a single request, bound to a thread by {@link Context}. A scope can be taken from
+ * one thread with {@link Context#capture()} and bound to another with {@link Context#bind(RequestScope)}
+ * in order to continue processing of the same request there.
+ *
+ * @author Igor Polevoy
+ */
+final class RequestScope {
+
+    ControllerRegistry registry;
+    HttpServletRequest request;
+    HttpServletResponse response;
+    FilterConfig filterConfig;
+    ControllerResponse controllerResponse, cachedResponse;
+    AppContext appContext;
+    RequestContext requestContext;
+    String format;
+    String encoding;
+    Route route;
+    Map<String, Object> values;
+    Callable<?> asyncTask;
+    List<SpooledItem> uploads;
+    RequestParams params, formParams;
+}
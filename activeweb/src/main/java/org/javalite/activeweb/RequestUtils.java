@@ -35,7 +35,7 @@ public class RequestUtils {
                 && name.equals(Context.getRequestContext().getWildCardName())){
             return Context.getRequestContext().getWildCardValue();
         }else{
-            return Context.getHttpRequest().getParameter(name);
+            return RequestParams.current().get(name);
         }
     }
 
@@ -50,12 +50,7 @@ public class RequestUtils {
      * @return value of request parameter  from <code>multipart/form-data</code> request or null if not found.
      */
     public static String param(String name, List<FormItem> formItems) {
-        for (FormItem formItem : formItems) {
-            if(formItem.isFormField() && formItem.getFieldName().equals(name)){
-                return formItem.getStreamAsString();
-            }
-        }
-        return null;
+        return RequestParams.current(formItems).get(name);
     }
 
     /**
@@ -65,7 +60,7 @@ public class RequestUtils {
      * @return ID value from URI is one exists, null if not.
      */
     public static String getId(){
-        String paramId = Context.getHttpRequest().getParameter("id");
+        String paramId = RequestParams.current().get("id");
         if(paramId != null && Context.getHttpRequest().getAttribute("id") != null){
             logger.warn("WARNING: probably you have 'id' supplied both as a HTTP parameter, as well as in the URI. Choosing parameter over URI value.");
         }
@@ -272,7 +267,7 @@ public class RequestUtils {
             String id = getId();
             return id != null ? asList(id) : Collections.<String>emptyList();
         } else {
-            String[] values = Context.getHttpRequest().getParameterValues(name);
+            String[] values = RequestParams.current().getValues(name);
             List<String>valuesList = values == null? new ArrayList<String>() : list(values);
             String userSegment = Context.getRequestContext().getUserSegments().get(name);
             if(userSegment != null){
@@ -292,13 +287,8 @@ public class RequestUtils {
      * @return multiple request values for a name. Will ignore files, and only return form fields.
      */
     public static List<String> params(String name, List<FormItem> formItems) {
-        List<String> vals = new ArrayList<String>();
-        for (FormItem formItem : formItems) {
-            if(formItem.isFormField() && formItem.getFieldName().equals(name)){
-                vals.add(formItem.getStreamAsString());
-            }
-        }
-        return vals;
+        String[] values = RequestParams.current(formItems).getValues(name);
+        return values == null ? new ArrayList<String>() : list(values);
     }
 
     /**
@@ -309,15 +299,10 @@ public class RequestUtils {
      * if such parameter has more than one value submitted.
      */
     public static Map<String, String> params1st(){
-        //TODO: candidate for performance optimization
-        Map<String, String> params = new HashMap<String, String>();
-        Enumeration names = Context.getHttpRequest().getParameterNames();
-        while (names.hasMoreElements()) {
-            String name = names.nextElement().toString();
-            params.put(name, Context.getHttpRequest().getParameter(name));
-        }
-        if(getId() != null)
-            params.put("id", getId());
+        Map<String, String> params = new HashMap<String, String>(RequestParams.current().getFirst());
+        String id = getId();
+        if(id != null)
+            params.put("id", id);
 
         Map<String, String> userSegments = Context.getRequestContext().getUserSegments();
         params.putAll(userSegments);
@@ -335,13 +320,7 @@ public class RequestUtils {
      * if such parameter has more than one value submitted.
      */
     public static Map<String, String> params1st(List<FormItem> formItems) {
-        Map<String, String> vals = new HashMap<String, String>();
-        for (FormItem formItem : formItems) {
-            if(formItem.isFormField() && !vals.containsKey(formItem.getFieldName())){
-                vals.put(formItem.getFieldName(), formItem.getStreamAsString());
-            }
-        }
-        return vals;
+        return new HashMap<String, String>(RequestParams.current(formItems).getFirst());
     }
 
 
@@ -353,9 +332,10 @@ public class RequestUtils {
      * The keys in the parameter map are of type String. The values in the parameter map are of type String array.
      */
     public static Map<String, String[]> params(){
-        SimpleHash params = new SimpleHash(Context.getHttpRequest().getParameterMap());
-        if(getId() != null)
-            params.put("id", new String[]{getId()});
+        SimpleHash params = new SimpleHash(RequestParams.current().getAll());
+        String id = getId();
+        if(id != null)
+            params.put("id", new String[]{id});
 
         Map<String, String> userSegments = Context.getRequestContext().getUserSegments();
 
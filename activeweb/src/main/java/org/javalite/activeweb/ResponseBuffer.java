@@ -0,0 +1,229 @@
+/*
+Copyright 2009-2014 Igor Polevoy
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package org.javalite.activeweb;
+
+import javax.servlet.ServletOutputStream;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+
+/**
+ * Collects a rendered page in a buffer of the current thread and sends it with <code>Content-Length</code>,
+ * encoded to the charset of a response in one go. Pages longer than <code>responseBufferSize</code> characters,
+ * as well as pages that write more content after calling <code>flush()</code>, such as streaming layouts,
+ * are streamed to the response writer instead. Buffers are reused by requests processed on the same thread.
+ * Buffered pages can also get an <code>ETag</code>, in which case clients that already have them get 304.
+ *
+ * @author Igor Polevoy
+ */
+final class ResponseBuffer extends Writer {
+
+    private static final int INITIAL_SIZE = 8192;
+    private static final ThreadLocal<char[]> charBuffers = new ThreadLocal<char[]>();
+    private static final ThreadLocal<byte[]> byteBuffers = new ThreadLocal<byte[]>();
+    private static final ThreadLocal<CharsetEncoder> encoders = new ThreadLocal<CharsetEncoder>();
+
+    private final HttpServletResponse response;
+    private final int limit;
+    private final boolean etag;
+    private char[] chars;
+    private int count;
+    private boolean flushed;
+    private Writer out;
+
+    ResponseBuffer(HttpServletResponse response) {
+        this(response, false);
+    }
+
+    /**
+     * @param response response to send content to
+     * @param etag true to generate <code>ETag</code> of content
+     */
+    ResponseBuffer(HttpServletResponse response, boolean etag) {
+        this.response = response;
+        this.etag = etag;
+        this.limit = Configuration.getResponseBufferSize();
+        chars = charBuffers.get();
+        charBuffers.remove();
+        if (chars == null) {
+            chars = new char[Math.min(INITIAL_SIZE, limit)];
+        }
+    }
+
+    @Override
+    public void write(char[] buffer, int offset, int length) throws IOException {
+        if (reserve(length)) {
+            System.arraycopy(buffer, offset, chars, count, length);
+            count += length;
+        } else {
+            out.write(buffer, offset, length);
+        }
+    }
+
+    @Override
+    public void write(String string, int offset, int length) throws IOException {
+        if (reserve(length)) {
+            string.getChars(offset, offset + length, chars, count);
+            count += length;
+        } else {
+            out.write(string, offset, length);
+        }
+    }
+
+    @Override
+    public void write(int c) throws IOException {
+        if (out == null && !flushed && count < chars.length) {
+            chars[count++] = (char) c;
+        } else {
+            write(new char[]{(char) c}, 0, 1);
+        }
+    }
+
+    /**
+     * A flush in the middle of rendering means that a page wants content to reach the client,
+     * so content written after it is streamed.
+     */
+    @Override
+    public void flush() throws IOException {
+        if (out != null) {
+            out.flush();
+        } else {
+            flushed = true;
+        }
+    }
+
+    /**
+     * Sends content of the buffer, with <code>Content-Length</code> if it was not streamed, and returns the buffer
+     * to the current thread.
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            if (out != null) {
+                out.flush();
+            } else {
+                send();
+            }
+        } finally {
+            release();
+        }
+    }
+
+    /**
+     * Returns the buffer to the current thread without sending it.
+     */
+    void release() {
+        if (chars != null) {
+            charBuffers.set(chars);
+            chars = null;
+        }
+    }
+
+    /**
+     * Makes room for more characters in the buffer, or switches to streaming if they do not belong there.
+     *
+     * @return true if characters are to be written to the buffer, false if to <code>out</code>.
+     */
+    private boolean reserve(int length) throws IOException {
+        if (out == null && (flushed || count + length > limit)) {
+            stream();
+        }
+        if (out != null) {
+            return false;
+        }
+        if (count + length > chars.length) {
+            char[] grown = new char[Math.min(limit, Math.max(chars.length * 2, count + length))];
+            System.arraycopy(chars, 0, grown, 0, count);
+            chars = grown;
+        }
+        return true;
+    }
+
+    private void stream() throws IOException {
+        out = response.getWriter();
+        out.write(chars, 0, count);
+        count = 0;
+    }
+
+    private void send() throws IOException {
+        CharsetEncoder encoder = encoder(response.getCharacterEncoding());
+        // large enough for any content of the char buffer, so that it never overflows
+        int size = (int) Math.min(Integer.MAX_VALUE - 8, (long) Math.ceil(limit * (double) encoder.maxBytesPerChar()));
+        byte[] bytes = byteBuffers.get();
+        if (bytes == null || bytes.length < size) {
+            bytes = new byte[size];
+            byteBuffers.set(bytes);
+        }
+        ByteBuffer byteBuffer = ByteBuffer.wrap(bytes);
+        CoderResult result = encoder.encode(CharBuffer.wrap(chars, 0, count), byteBuffer, true);
+        if (!result.isOverflow()) {
+            result = encoder.flush(byteBuffer);
+        }
+        ServletOutputStream outputStream;
+        try {
+            outputStream = result.isOverflow() ? null : response.getOutputStream();
+        } catch (IllegalStateException e) {
+            outputStream = null; // writer of the response is already in use
+        }
+        if (outputStream == null) {
+            stream();
+            out.flush();
+        } else if (!(etag && notModified(bytes, byteBuffer.position()))) {
+            response.setContentLength(byteBuffer.position());
+            outputStream.write(bytes, 0, byteBuffer.position());
+        }
+    }
+
+    /**
+     * Sets <code>ETag</code> of content, unless an action has already set one.
+     *
+     * @return true if client has the same content, and was answered with 304.
+     */
+    private boolean notModified(byte[] bytes, int length) {
+        HttpServletRequest request = Context.getHttpRequest();
+        String method = request.getMethod();
+        if (!("GET".equals(method) || "HEAD".equals(method)) || response.getStatus() != HttpServletResponse.SC_OK
+                || response.containsHeader("ETag")) {
+            return false;
+        }
+        String tag = ETags.strong(bytes, length);
+        response.setHeader("ETag", tag);
+        if (ETags.matches(request.getHeader("If-None-Match"), tag)) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return true;
+        }
+        return false;
+    }
+
+    private static CharsetEncoder encoder(String encoding) {
+        Charset charset = Charset.forName(encoding == null ? "ISO-8859-1" : encoding);
+        CharsetEncoder encoder = encoders.get();
+        if (encoder == null || !encoder.charset().equals(charset)) {
+            encoder = charset.newEncoder()
+                    .onMalformedInput(CodingErrorAction.REPLACE)
+                    .onUnmappableCharacter(CodingErrorAction.REPLACE);
+            encoders.set(encoder);
+        }
+        return encoder.reset();
+    }
+}
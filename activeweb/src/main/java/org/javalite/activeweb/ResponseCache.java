@@ -0,0 +1,269 @@
+/*
+Copyright 2009-2014 Igor Polevoy
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package org.javalite.activeweb;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps complete responses of actions configured with {@link org.javalite.activeweb.annotations.CacheResponse}
+ * or {@link AbstractControllerConfig#cacheResponses(int)}. Responses are evicted when they expire, or when
+ * total size of cached content goes over <code>responseCacheSize</code> bytes, least recently used first.
+ * Cache is not used in <code>active_reload</code> mode.
+ *
+ * <p>Cached responses of actions without filters are sent by {@link RequestDispatcher} before a route is
+ * recognized, so it keeps actions of paths it has seen to know which requests can be answered from cache. A path
+ * is answered from cache this way only as long as its action has the same cache policy and no filters. Cached
+ * responses of actions with filters are sent after <code>before()</code> methods of filters, instead of executing
+ * an action.</p>
+ *
+ * @author Igor Polevoy
+ */
+public final class ResponseCache {
+
+    private static final int MAX_PATHS = 10000;
+
+    private static final ConcurrentMap<String, Target> targets = new ConcurrentHashMap<String, Target>();
+    private static final LinkedHashMap<String, CachedResponse> responses = new LinkedHashMap<String, CachedResponse>(64, 0.75f, true);
+    private static long size;
+    private static final AtomicLong hits = new AtomicLong(), misses = new AtomicLong(), evictions = new AtomicLong();
+
+    private ResponseCache() {}
+
+    /**
+     * @return number of requests answered from cache.
+     */
+    public static long getHits() {
+        return hits.get();
+    }
+
+    /**
+     * @return number of requests to cached actions that were not answered from cache.
+     */
+    public static long getMisses() {
+        return misses.get();
+    }
+
+    /**
+     * @return number of responses removed from cache to make room for others.
+     */
+    public static long getEvictions() {
+        return evictions.get();
+    }
+
+    /**
+     * @return number of cached responses.
+     */
+    public static synchronized int getCount() {
+        return responses.size();
+    }
+
+    /**
+     * @return total size of content of cached responses in bytes.
+     */
+    public static synchronized long getSize() {
+        return size;
+    }
+
+    /**
+     * Removes all responses from cache and resets counters.
+     */
+    public static void clear() {
+        synchronized (ResponseCache.class) {
+            responses.clear();
+            size = 0;
+        }
+        targets.clear();
+        hits.set(0);
+        misses.set(0);
+        evictions.set(0);
+    }
+
+    /**
+     * Sends a cached response to a request of the current thread if there is one and its action has no filters.
+     *
+     * @param path servlet path of request
+     * @return true if response was sent from cache.
+     */
+    static boolean serve(String path) throws IOException {
+        HttpServletRequest request = Context.getHttpRequest();
+        if (!"GET".equals(request.getMethod()) || Configuration.activeReload()) {
+            return false;
+        }
+        Target target = targets.get(path);
+        if (target == null) {
+            return false;
+        }
+        if (target.action.getCachePolicy() != target.policy) {
+            targets.remove(path, target);
+            return false;
+        }
+        if (!Context.getControllerRegistry().getFilterChain(target.action.getControllerClass(),
+                target.action.getActionName()).isEmpty()) {
+            return false; // served after filters, see capture()
+        }
+        CachedResponse cached = get(target.policy.key(request, path));
+        if (cached == null) {
+            return false;
+        }
+        hits.incrementAndGet();
+        if (cached.compress) {
+            CompressingResponse.wrap();
+        }
+        send(cached, request, Context.getHttpResponse());
+        return true;
+    }
+
+    /**
+     * Prepares a response of a request of the current thread for an action with a cache policy. If the response is
+     * cached, it is set as a response to send after filters, see {@link Context#getCachedResponse()}. Otherwise,
+     * the response is captured into cache as it is written.
+     *
+     * @param path servlet path of request
+     * @param action action with cache policy
+     * @param compress true if response is compressed
+     */
+    static void capture(String path, ActionDescriptor action, boolean compress) {
+        HttpServletRequest request = Context.getHttpRequest();
+        if (!"GET".equals(request.getMethod()) || Configuration.activeReload()) {
+            return;
+        }
+        CachePolicy policy = action.getCachePolicy();
+        if (targets.size() < MAX_PATHS) {
+            targets.put(path, new Target(action, policy));
+        }
+        String key = policy.key(request, path);
+        final CachedResponse cached = get(key);
+        if (cached != null) {
+            hits.incrementAndGet();
+            Context.setCachedResponse(new ControllerResponse() {
+                @Override
+                void doProcess() {
+                    try {
+                        send(cached, Context.getHttpRequest(), Context.getHttpResponse());
+                    } catch (IOException e) {
+                        throw new ControllerException(e);
+                    }
+                }
+            });
+            return;
+        }
+        misses.incrementAndGet();
+        long expires = System.currentTimeMillis() + policy.getTtl();
+        int maxSize = (int) Math.min(Integer.MAX_VALUE, Configuration.getResponseCacheSize() / 8);
+        Context.setHttpResponse(new CachingResponse(Context.getHttpResponse(), key, expires, compress, maxSize));
+    }
+
+    private static void send(CachedResponse cached, HttpServletRequest request, HttpServletResponse response) throws IOException {
+        String etag = cached.header("ETag");
+        if (etag != null && ETags.matches(request.getHeader("If-None-Match"), etag)) {
+            response.setHeader("ETag", etag);
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+        cached.writeTo(response);
+    }
+
+    static synchronized CachedResponse get(String key) {
+        CachedResponse cached = responses.get(key);
+        if (cached != null && cached.expires <= System.currentTimeMillis()) {
+            remove(key);
+            return null;
+        }
+        return cached;
+    }
+
+    static synchronized void put(String key, CachedResponse cached) {
+        long limit = Configuration.getResponseCacheSize();
+        if (cached.body.length > limit) {
+            return;
+        }
+        remove(key);
+        responses.put(key, cached);
+        size += cached.body.length;
+        Iterator<Map.Entry<String, CachedResponse>> it = responses.entrySet().iterator();
+        while (size > limit && it.hasNext()) {
+            CachedResponse eldest = it.next().getValue();
+            it.remove();
+            size -= eldest.body.length;
+            evictions.incrementAndGet();
+        }
+    }
+
+    private static void remove(String key) {
+        CachedResponse removed = responses.remove(key);
+        if (removed != null) {
+            size -= removed.body.length;
+        }
+    }
+
+    /**
+     * Action of a path and its cache policy at the time its response was captured.
+     */
+    private static final class Target {
+        private final ActionDescriptor action;
+        private final CachePolicy policy;
+
+        private Target(ActionDescriptor action, CachePolicy policy) {
+            this.action = action;
+            this.policy = policy;
+        }
+    }
+
+    static final class CachedResponse {
+        private final String contentType;
+        private final List<String[]> headers;
+        private final byte[] body;
+        private final long expires;
+        private final boolean compress;
+
+        CachedResponse(String contentType, List<String[]> headers, byte[] body, long expires, boolean compress) {
+            this.contentType = contentType;
+            this.headers = headers;
+            this.body = body;
+            this.expires = expires;
+            this.compress = compress;
+        }
+
+        private String header(String name) {
+            for (String[] header : headers) {
+                if (header[0].equalsIgnoreCase(name)) {
+                    return header[1];
+                }
+            }
+            return null;
+        }
+
+        private void writeTo(HttpServletResponse response) throws IOException {
+            if (contentType != null) {
+                response.setContentType(contentType);
+            }
+            for (String[] header : headers) {
+                response.addHeader(header[0], header[1]);
+            }
+            response.setContentLength(body.length);
+            response.getOutputStream().write(body);
+        }
+    }
+}
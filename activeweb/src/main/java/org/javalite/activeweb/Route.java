@@ -1,6 +1,8 @@
 package org.javalite.activeweb;
 
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 
 /**
  *  Instance of this class will contain routing information.
@@ -12,6 +14,7 @@ public class Route {
     private AppController controller;
     private String actionName, id, wildCardName, wildCardValue;
     private List<IgnoreSpec> ignoreSpecs;
+    private Map<String, String> userSegments = Collections.emptyMap();
 
     public Route(AppController controller, String actionName) {
         this.controller = controller;
@@ -24,12 +27,13 @@ public class Route {
         this.id = id;
     }
 
-    public Route(RouteBuilder builder) {
-        controller = builder.getController();
-        actionName = builder.getActionName();
-        id = builder.getId();
-        this.wildCardName = builder.getWildcardName();
-        this.wildCardValue = builder.getWildCardValue();
+    protected Route(AppController controller, RouteMatch match) {
+        this.controller = controller;
+        actionName = match.getActionName();
+        id = match.getId();
+        wildCardName = match.getWildCardName();
+        wildCardValue = match.getWildCardValue();
+        userSegments = match.getUserSegments();
     }
 
     public Route(AppController controller) {
@@ -48,6 +52,10 @@ public class Route {
         return wildCardValue;
     }
 
+    protected Map<String, String> getUserSegments() {
+        return userSegments;
+    }
+
     public AppController getController() {
         return controller;
     }
@@ -19,7 +19,6 @@ package org.javalite.activeweb;
 import org.javalite.common.Util;
 
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.List;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -33,39 +32,12 @@ public class RouteBuilder {
 
     private static Pattern USER_SEGMENT_PATTERN = Pattern.compile("\\{.*\\}");
 
-    private String actionName, id, routeConfig;
-    private AppController controller;
+    private String actionName, routeConfig;
     private Class<? extends AppController> type;
     private List<Segment> segments = new ArrayList<Segment>();
     private List<HttpMethod> methods = new ArrayList<HttpMethod>();
 
     private String wildcardName = null;
-    private String wildCardValue;
-
-    private int mandatorySegmentCount = 0;
-
-    /**
-     * Used for standard and restful routes.
-     *
-     * @param controller controller
-     * @param actionName action name
-     * @param id id
-     */
-    protected RouteBuilder(AppController controller, String actionName, String id) {
-        this.controller = controller;
-        this.actionName = actionName;
-        this.id = id;
-    }
-
-    /**
-     * Used for  tests.
-     *
-     * @param controller controller
-     * @param actionName action name
-     */
-    protected RouteBuilder(AppController controller, String actionName) {
-        this(controller, actionName, null);
-    }
 
     /**
      * Used for custom routes
@@ -74,7 +46,7 @@ public class RouteBuilder {
     protected RouteBuilder(String routeConfig) {
         String[] segmentsArr = Util.split(routeConfig, '/');
         for (String segmentStr : segmentsArr) {
-            Segment segment = new Segment(segmentStr);
+            Segment segment = new Segment(segmentStr, getUserSegmentName(segmentStr));
             segments.add(segment);
             if (segment.wildCard) {
                 String wildCardSegment = segment.segment;
@@ -87,12 +59,6 @@ public class RouteBuilder {
             throw new ConfigurationException("Cannot have URI segments past wild card");
         }
         this.routeConfig = routeConfig;
-
-        for (Segment segment : segments) {
-            if (segment.mandatory) {
-                mandatorySegmentCount++;
-            }
-        }
     }
 
     public boolean isWildcard(){
@@ -103,10 +69,6 @@ public class RouteBuilder {
         return wildcardName;
     }
 
-    public String getWildCardValue() {
-        return wildCardValue;
-    }
-
     /**
      * Allows to wire a route to a controller.
      *
@@ -201,119 +163,53 @@ public class RouteBuilder {
     }
 
     protected String getActionName() {
-        return actionName == null ? actionName = "index": actionName;
+        return actionName;
     }
 
-    protected String getId() {
-        return id;
+    protected Class<? extends AppController> getType() {
+        return type;
     }
 
-    protected AppController getController() {
-        try {
-            return controller == null? controller = type.newInstance(): controller ;
-        } catch (Exception e) {
-            throw new ControllerException(e);
-        }
+    protected String getRouteConfig() {
+        return routeConfig;
     }
 
-
-
-
-    /**
-     * Returns true if this route matches the request URI, otherwise returns false.
-     *
-     *
-     * @param requestUri incoming URI for request.
-     * @param httpMethod HTTP method of the request.
-     * @return true if this route matches the request URI
-     * @throws ClassLoadException in case could not load controller
-     */
-    protected boolean matches(String requestUri, HttpMethod httpMethod) throws ClassLoadException {
-
-        boolean match = false;
-
-        String[] requestUriSegments = Util.split(requestUri, '/');
-        if(isWildcard() && requestUriSegments.length >= segments.size() && wildSegmentsMatch(requestUriSegments)){
-            String[] tailArr = Arrays.copyOfRange(requestUriSegments, segments.size() - 1, requestUriSegments.length);
-            wildCardValue = Util.join(tailArr, "/");
-            match = true;
-        }else if(segments.size() == 0 && requestUri.equals("/")){
-            //this is matching root path: "/"
-            actionName = "index";
-            match = true;
-        }else if(requestUriSegments.length < mandatorySegmentCount || requestUriSegments.length > segments.size()){
-            //route("/greeting/{user_id}").to(HelloController.class).action("hi");
-            match = false;
-        }else{
-            //there should be a more elegant way ...
-            for (int i = 0; i < requestUriSegments.length; i++) {
-                String requestUriSegment = requestUriSegments[i];
-                match = segments.get(i).match(requestUriSegment);
-                if(!match)
-                    break;
-            }
-        }
-
-        if(match && Configuration.activeReload()){
-            controller = reloadController();
-        }
-
-        return match && methodMatches(httpMethod);
-    }
-
-    private boolean wildSegmentsMatch(String[] requestUriSegments) throws ClassLoadException {
-        for (int i = 0; i < segments.size() - 1; i++) {
-            Segment segment = segments.get(i);
-            if(!segment.match(requestUriSegments[i])){
-                return false;
-            }
-        }
-        return true;
+    protected List<Segment> getSegments() {
+        return segments;
     }
 
-    private boolean methodMatches(HttpMethod httpMethod) {
-        return methods.size() == 0 && httpMethod.equals(HttpMethod.GET) || methods.contains(httpMethod);
-    }
-
-    private AppController reloadController() throws ClassLoadException {
-
-        try {
-            return  ControllerFactory.createControllerInstance(getController().getClass().getName());
-        } catch (ClassLoadException e) {
-            throw e;
-        } catch (Exception e) {
-            throw new ClassLoadException(e);
-        }
+    protected List<HttpMethod> getMethods() {
+        return methods;
     }
 
     /**
-     * Contains a single segment provided in RouteConfig
+     * Contains a single segment provided in RouteConfig. Instances are immutable and shared by all requests,
+     * values extracted from request are set on a {@link RouteMatch}.
      */
-    private class Segment{
-        private String segment, userSegmentName;
-        private boolean controller, action, id, user, mandatory = true, staticSegment, wildCard;
+    static final class Segment{
+        final String segment, userSegmentName;
+        final boolean controller, action, id, user, staticSegment, wildCard;
 
-        Segment(String segment) {
+        Segment(String segment, String userSegmentName) {
             this.segment = segment;
             controller = segment.equals("{controller}");
             action = segment.equals("{action}");
             id = segment.equals("{id}");
-
-
-            if(!controller && ! action && !id){
-                userSegmentName = getUserSegmentName(segment);
-                user = userSegmentName != null;
-            }
-            if(!controller && ! action && !id && !user){
-                staticSegment = true;
-            }
-
-            if(segment.startsWith("*")){
-                wildCard = true;
-            }
-        }
-
-        boolean match(String requestSegment) throws ClassLoadException {
+            this.userSegmentName = !controller && !action && !id ? userSegmentName : null;
+            user = this.userSegmentName != null;
+            staticSegment = !controller && !action && !id && !user;
+            wildCard = segment.startsWith("*");
+        }
+
+        /**
+         * Matches a segment of a request URI.
+         *
+         * @param requestSegment segment of a request URI
+         * @param type controller class configured for a route, or null to infer from a {controller} segment
+         * @param match per-request match to collect values extracted from the segment
+         * @return true if segment matches
+         */
+        boolean match(String requestSegment, Class<? extends AppController> type, RouteMatch match) throws ClassLoadException {
 
             if(staticSegment && requestSegment.equals(segment)){
                 return true;
@@ -321,22 +217,20 @@ public class RouteBuilder {
 
                 if(type == null){//in case controller not provided in config, we infer it from the segment.
                     String controllerClassName = ControllerFactory.getControllerClassName("/" + requestSegment);
-                    type = DynamicClassFactory.getCompiledClass(controllerClassName);
+                    match.setControllerClass(DynamicClassFactory.getCompiledClass(controllerClassName));
                     return true;
                 }
                 return requestSegment.equals(Router.getControllerPath(type).substring(1));
 
             }else if(action){
-                RouteBuilder.this.actionName = requestSegment;
+                match.setActionName(requestSegment);
                 return true;
             }else if(id){
-                RouteBuilder.this.id = requestSegment;
+                match.setId(requestSegment);
                 return true;
             }else if(user){
-                if(userSegmentName != null){
-                    Context.getRequestContext().getUserSegments().put(userSegmentName, requestSegment);
-                    return true;
-                }
+                match.addUserSegment(userSegmentName, requestSegment);
+                return true;
             }
 
             return false;
@@ -0,0 +1,86 @@
+/*
+Copyright 2009-2014 Igor Polevoy
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package org.javalite.activeweb;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Result of matching a single request against a {@link CompiledRoute}. A new instance is created for every request,
+ * so that compiled routes can be shared between threads without locking.
+ *
+ * @author Igor Polevoy
+ */
+class RouteMatch {
+
+    private Class<? extends AppController> controllerClass;
+    private String actionName, id, wildCardName, wildCardValue;
+    private Map<String, String> userSegments;
+
+    RouteMatch(Class<? extends AppController> controllerClass, String actionName) {
+        this.controllerClass = controllerClass;
+        this.actionName = actionName;
+    }
+
+    Class<? extends AppController> getControllerClass() {
+        return controllerClass;
+    }
+
+    void setControllerClass(Class<? extends AppController> controllerClass) {
+        this.controllerClass = controllerClass;
+    }
+
+    String getActionName() {
+        return actionName == null ? "index" : actionName;
+    }
+
+    void setActionName(String actionName) {
+        this.actionName = actionName;
+    }
+
+    String getId() {
+        return id;
+    }
+
+    void setId(String id) {
+        this.id = id;
+    }
+
+    String getWildCardName() {
+        return wildCardName;
+    }
+
+    String getWildCardValue() {
+        return wildCardValue;
+    }
+
+    void setWildCard(String wildCardName, String wildCardValue) {
+        this.wildCardName = wildCardName;
+        this.wildCardValue = wildCardValue;
+    }
+
+    void addUserSegment(String name, String value) {
+        if (userSegments == null) {
+            userSegments = new HashMap<String, String>();
+        }
+        userSegments.put(name, value);
+    }
+
+    Map<String, String> getUserSegments() {
+        return userSegments == null ? Collections.<String, String>emptyMap() : userSegments;
+    }
+}
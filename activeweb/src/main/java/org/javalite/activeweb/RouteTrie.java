@@ -0,0 +1,132 @@
+/*
+Copyright 2009-2014 Igor Polevoy
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package org.javalite.activeweb;
+
+import org.javalite.common.Util;
+
+import java.util.*;
+
+/**
+ * Segment trie of custom routes. Static segments are children keyed by value, while <code>{controller}</code>,
+ * <code>{action}</code>, <code>{id}</code> and user segments share a single dynamic child. A request path is walked
+ * once, collecting routes whose shape fits the path. Candidates are then checked in the order in which they were
+ * declared in RouteConfig, so that the first declared route wins, same as with a linear scan.
+ *
+ * @author Igor Polevoy
+ */
+final class RouteTrie {
+
+    private final CompiledRoute[] routes;
+    private final Node root = new Node();
+
+    RouteTrie(List<CompiledRoute> routes) {
+        this.routes = routes.toArray(new CompiledRoute[routes.size()]);
+        for (int i = 0; i < this.routes.length; i++) {
+            add(i, this.routes[i].getSegments());
+        }
+    }
+
+    private void add(int index, RouteBuilder.Segment[] segments) {
+        Node node = root;
+        for (int i = 0; i < segments.length; i++) {
+            RouteBuilder.Segment segment = segments[i];
+            if (segment.wildCard && i == segments.length - 1) {
+                node.wildcardRoutes.add(index);
+            }
+            node = node.child(segment);
+        }
+        node.terminalRoutes.add(index);
+    }
+
+    /**
+     * Finds the first declared route matching a request.
+     *
+     * @param requestUri incoming URI for request.
+     * @param httpMethod HTTP method of the request.
+     * @return instance of matched route and values extracted from URI, or null if no custom route matches.
+     * @throws ClassLoadException in case could not load controller
+     */
+    Match match(String requestUri, HttpMethod httpMethod) throws ClassLoadException {
+        if (routes.length == 0) {
+            return null;
+        }
+        String[] requestUriSegments = Util.split(requestUri, '/');
+        BitSet candidates = new BitSet(routes.length);
+
+        List<Node> frontier = Collections.singletonList(root);
+        for (int depth = 0; depth < requestUriSegments.length && !frontier.isEmpty(); depth++) {
+            List<Node> next = new ArrayList<Node>(2);
+            for (Node node : frontier) {
+                addAll(candidates, node.wildcardRoutes);
+                Node child = node.staticChildren.get(requestUriSegments[depth]);
+                if (child != null) {
+                    next.add(child);
+                }
+                if (node.dynamicChild != null) {
+                    next.add(node.dynamicChild);
+                }
+            }
+            frontier = next;
+        }
+        for (Node node : frontier) {
+            addAll(candidates, node.terminalRoutes);
+        }
+
+        for (int i = candidates.nextSetBit(0); i >= 0; i = candidates.nextSetBit(i + 1)) {
+            RouteMatch match = routes[i].match(requestUri, requestUriSegments, httpMethod);
+            if (match != null) {
+                return new Match(routes[i], match);
+            }
+        }
+        return null;
+    }
+
+    private static void addAll(BitSet candidates, List<Integer> indexes) {
+        for (Integer index : indexes) {
+            candidates.set(index);
+        }
+    }
+
+    static final class Match {
+        final CompiledRoute route;
+        final RouteMatch routeMatch;
+
+        private Match(CompiledRoute route, RouteMatch routeMatch) {
+            this.route = route;
+            this.routeMatch = routeMatch;
+        }
+    }
+
+    private static final class Node {
+        private final Map<String, Node> staticChildren = new HashMap<String, Node>();
+        private Node dynamicChild;
+        // routes ending at this node
+        private final List<Integer> terminalRoutes = new ArrayList<Integer>();
+        // routes with a wild card segment right after this node
+        private final List<Integer> wildcardRoutes = new ArrayList<Integer>();
+
+        private Node child(RouteBuilder.Segment segment) {
+            if (segment.staticSegment) {
+                Node child = staticChildren.get(segment.segment);
+                if (child == null) {
+                    staticChildren.put(segment.segment, child = new Node());
+                }
+                return child;
+            }
+            return dynamicChild == null ? dynamicChild = new Node() : dynamicChild;
+        }
+    }
+}
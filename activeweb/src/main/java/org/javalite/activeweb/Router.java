@@ -16,12 +16,14 @@ limitations under the License.
 package org.javalite.activeweb;
 
 import org.javalite.common.Inflector;
-import org.javalite.common.Util;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.UnsupportedEncodingException;
 import java.net.URLEncoder;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import static org.javalite.activeweb.ControllerFactory.createControllerInstance;
 import static org.javalite.activeweb.ControllerFactory.getControllerClassName;
@@ -40,8 +42,16 @@ public class Router {
     public static final String CONTROLLER_NAME = "controller_name";
     public static final String PACKAGE_SUFFIX = "package_suffix";
 
+    private static final ConcurrentMap<Class, String> controllerPaths = new ConcurrentHashMap<Class, String>();
+    // controller paths and actions come from templates and code, the limit only guards against mistakes
+    private static final int MAX_URI_PREFIXES = 10000;
+    private static final ConcurrentMap<String, ConcurrentMap<String, String[]>> uriPrefixes
+            = new ConcurrentHashMap<String, ConcurrentMap<String, String[]>>();
+    private static final ConcurrentMap<String, ConcurrentMap<String, String[]>> restfulUriPrefixes
+            = new ConcurrentHashMap<String, ConcurrentMap<String, String[]>>();
+
     private String rootControllerName;
-    private List<RouteBuilder> routes = new ArrayList<RouteBuilder>();
+    private RouteTrie routes = new RouteTrie(Collections.<CompiledRoute>emptyList());
     private List<IgnoreSpec> ignoreSpecs;
 
     protected Router(String rootControllerName) {
@@ -54,7 +64,11 @@ public class Router {
      * @param routes se of custom routes defined for app.
      */
     public void setRoutes(List<RouteBuilder> routes) {
-        this.routes = routes;
+        List<CompiledRoute> compiled = new ArrayList<CompiledRoute>(routes.size());
+        for (RouteBuilder builder : routes) {
+            compiled.add(new CompiledRoute(builder));
+        }
+        this.routes = new RouteTrie(compiled);
     }
 
     /**
@@ -96,12 +110,23 @@ public class Router {
     }
 
     private Route matchCustom(String uri, HttpMethod httpMethod) throws ClassLoadException {
-        for (RouteBuilder builder : routes) {
-            if (builder.matches(uri, httpMethod)) {
-                return new Route(builder);
-            }
+        RouteTrie.Match match = routes.match(uri, httpMethod);
+        return match == null ? null : new Route(createController(match.routeMatch, match.route), match.routeMatch);
+    }
+
+    private AppController createController(RouteMatch match, CompiledRoute compiledRoute) throws ClassLoadException {
+        Class<? extends AppController> type = match.getControllerClass();
+        if (type == null) {
+            throw new ControllerException("Controller is not specified for route: " + compiledRoute.getRouteConfig());
+        }
+        if (Configuration.activeReload()) {
+            return createControllerInstance(type.getName());
+        }
+        try {
+            return type.newInstance();
+        } catch (Exception e) {
+            throw new ControllerException(e);
         }
-        return null;
     }
 
 
@@ -206,16 +231,9 @@ public class Router {
      * @return formed URI based on arguments.
      */
     public static String generate(String controllerPath, String action, String id, boolean restful, Map params) {
-
-        //prepend slash if missing
-        StringBuilder uri = new StringBuilder(controllerPath.startsWith("/") ? controllerPath : "/" + controllerPath);
+        String[] prefix = getUriPrefix(controllerPath, action, restful);
 
         if (restful) {
-            if (action != null && !(action.equals("new_form") || action.equals("edit_form"))) {
-                throw new IllegalArgumentException("Illegal action name: '" + action +
-                        "', allowed names for restful controllers: 'new_form' and 'edit_form'");
-            }
-
             if (action != null && action.equals("new_form") && id != null) {
                 throw new IllegalArgumentException("Cannot provide ID to action 'new_form'");
             }
@@ -223,47 +241,91 @@ public class Router {
             if (action != null && action.equals("edit_form") && id == null) {
                 throw new IllegalArgumentException("Must provide ID to action 'edit_form'");
             }
+        }
 
-            if (id != null) {
-                uri.append("/").append(id);
-            }
-
-            if (action != null) {
-                uri.append("/").append(action);
+        StringBuilder uri = new StringBuilder(prefix[0].length() + prefix[1].length() + 16 + params.size() * 16);
+        uri.append(prefix[0]);
+        if (id != null) {
+            uri.append('/').append(id);
+        }
+        uri.append(prefix[1]);
+
+        if (params.size() == 1) {
+            Map.Entry param = (Map.Entry) params.entrySet().iterator().next();
+            uri.append('?').append(encode(param.getKey().toString())).append('=').append(encode(param.getValue().toString()));
+        } else if (params.size() > 1) {
+            String[] pairs = new String[params.size()];
+            int i = 0;
+            for (Object o : params.entrySet()) {
+                Map.Entry param = (Map.Entry) o;
+                pairs[i++] = encode(param.getKey().toString()) + "=" + encode(param.getValue().toString());
             }
-        } else {
-            if (action != null) {
-                uri.append("/").append(action);
+            //sorting to make hard-coded tests pass
+            Arrays.sort(pairs);
+            uri.append('?');
+            for (i = 0; i < pairs.length; i++) {
+                if (i > 0) {
+                    uri.append('&');
+                }
+                uri.append(pairs[i]);
             }
+        }
 
-            if (id != null) {
-                uri.append("/").append(id);
+        return uri.toString();
+    }
+
+    /**
+     * Returns parts of a URI that do not depend on ID and parameters: the part before ID and the part after it.
+     * Parts are cached per controller path and action.
+     */
+    private static String[] getUriPrefix(String controllerPath, String action, boolean restful) {
+        ConcurrentMap<String, ConcurrentMap<String, String[]>> cache = restful ? restfulUriPrefixes : uriPrefixes;
+        ConcurrentMap<String, String[]> actions = cache.get(controllerPath);
+        String actionKey = action == null ? "" : action;
+        String[] prefix = actions == null ? null : actions.get(actionKey);
+        if (prefix == null) {
+            prefix = createUriPrefix(controllerPath, action, restful);
+            if (actions == null && cache.size() < MAX_URI_PREFIXES) {
+                cache.putIfAbsent(controllerPath, new ConcurrentHashMap<String, String[]>());
+                actions = cache.get(controllerPath);
+            }
+            if (actions != null && actions.size() < MAX_URI_PREFIXES) {
+                actions.put(actionKey, prefix);
             }
         }
+        return prefix;
+    }
 
-        if (params.size() > 0) {
-            uri.append("?");
+    private static String[] createUriPrefix(String controllerPath, String action, boolean restful) {
+        //prepend slash if missing
+        String path = controllerPath.startsWith("/") ? controllerPath : "/" + controllerPath;
+        if (restful) {
+            if (action != null && !(action.equals("new_form") || action.equals("edit_form"))) {
+                throw new IllegalArgumentException("Illegal action name: '" + action +
+                        "', allowed names for restful controllers: 'new_form' and 'edit_form'");
+            }
+            return new String[]{path, action == null ? "" : "/" + action};
+        } else {
+            return new String[]{action == null ? path : path + "/" + action, ""};
         }
+    }
 
-        List<String> pairs = new ArrayList<String>();
-
-        for (Object key : params.keySet()) {
-            try {
-                pairs.add(URLEncoder.encode(key.toString(), "UTF-8") + "=" + URLEncoder.encode(params.get(key).toString(), "UTF-8"));
-            } catch (Exception e) {
-                pairs.add(URLEncoder.encode(key.toString()) + "=" + URLEncoder.encode(params.get(key).toString()));
+    /**
+     * URL-encodes a string, skipping strings that do not need encoding, such as most names of parameters.
+     */
+    private static String encode(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (!((c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9')
+                    || c == '.' || c == '-' || c == '*' || c == '_')) {
+                try {
+                    return URLEncoder.encode(value, "UTF-8");
+                } catch (UnsupportedEncodingException e) {
+                    return URLEncoder.encode(value);
+                }
             }
         }
-        //sorting to make hard-coded tests pass
-        Collections.sort(pairs, new Comparator<String>() {
-            public int compare(String o1, String o2) {
-                return o1.compareTo(o2);
-            }
-        });
-
-        Util.join(uri, pairs, "&");
-
-        return uri.toString();
+        return value;
     }
 
 
@@ -289,10 +351,9 @@ public class Router {
             LOGGER.warn("URI is: '/', but root controller not set");
             return new HashMap<String, String>();
         } else {
-            String pack;
-            if ((pack = findPackagePrefix(uri)) != null) {
-                String controllerName = findControllerNamePart(pack, uri);
-                return map(CONTROLLER_NAME, controllerName, Router.PACKAGE_SUFFIX, pack);
+            ControllerPackageTrie.Match match = Context.getControllerRegistry().getControllerPackageTrie().find(uri);
+            if (match != null) {
+                return map(CONTROLLER_NAME, match.controllerName, Router.PACKAGE_SUFFIX, match.packageSuffix);
             } else {
                 return map(CONTROLLER_NAME, uri.split("/")[1]);//no package suffix
             }
@@ -315,6 +376,18 @@ public class Router {
      * @return standard path for a controller.
      */
     static <T extends AppController> String getControllerPath(Class<T> controllerClass) {
+        if (Configuration.activeReload()) {
+            return createControllerPath(controllerClass);
+        }
+        String path = controllerPaths.get(controllerClass);
+        if (path == null) {
+            path = createControllerPath(controllerClass);
+            controllerPaths.put(controllerClass, path);
+        }
+        return path;
+    }
+
+    private static String createControllerPath(Class<? extends AppController> controllerClass) {
         String simpleName = controllerClass.getSimpleName();
         if (!simpleName.endsWith("Controller")) {
             throw new ControllerException("controller name must end with 'Controller' suffix");
@@ -332,61 +405,6 @@ public class Router {
         return (packageSuffix.equals("") ? "" : "/" + packageSuffix) + "/" + Inflector.underscore(simpleName.substring(0, simpleName.lastIndexOf("Controller")));
     }
 
-    /**
-     * Now that we know that this controller is under a package, need to find the controller short name.
-     *
-     * @param pack part of the package of the controller, taken from URI: value between "app.controllers" and controller name.
-     * @param uri  uri from request
-     * @return controller name
-     */
-    protected static String findControllerNamePart(String pack, String uri) {
-        String temp = uri.startsWith("/") ? uri.substring(1) : uri;
-        temp = temp.replace("/", ".");
-        if (temp.length() > pack.length())
-            temp = temp.substring(pack.length() + 1);
-
-        if (temp.equals("") || temp.equals(pack))
-            throw new ControllerException("You defined a controller package '" + pack + "', but this request does not specify controller name");
-
-        return temp.split("\\.")[0];
-    }
-
-    /**
-     * Finds a part of a package name which can be found in between "app.controllers" and short name of class.
-     *
-     * @param uri uri from request
-     * @return a part of a package name which can be found in between "app.controllers" and short name of class, or null
-     *         if not found
-     */
-    protected String findPackagePrefix(String uri) {
-
-        String temp = uri.startsWith("/") ? uri.substring(1) : uri;
-        temp = temp.replace(".", "_");
-        temp = temp.replace("/", ".");
-
-        //find all matches
-        List<String> candidates = new ArrayList<String>();
-        ControllerRegistry r = Context.getControllerRegistry();
-
-
-        for (String pack : Context.getControllerRegistry().getControllerPackages()) {
-            if (temp.startsWith(pack)) {
-                candidates.add(pack);
-            }
-        }
-        int resultIndex = 0;
-        int size = 0;
-        //find the longest package
-        for (int i = 0; i < candidates.size(); i++) {
-            String candidate = candidates.get(i);
-            if (candidate.length() > size) {
-                size = candidate.length();
-                resultIndex = i;
-            }
-        }
-        return candidates.size() > 0 ? candidates.get(resultIndex) : null;
-    }
-
     //todo: write a regexp one day
     private static String[] split(String value, String delimeter) {
         StringTokenizer st = new StringTokenizer(value, delimeter);
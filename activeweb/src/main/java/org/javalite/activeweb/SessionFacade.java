@@ -15,11 +15,13 @@ limitations under the License.
 */
 package org.javalite.activeweb;
 
+import javax.servlet.http.HttpSession;
 import java.io.Serializable;
 import java.util.*;
 
 /**
- * Facade to HTTP session. 
+ * Facade to HTTP session. Reading from this facade does not create a session, a session is created only when
+ * an object is added to it, or when its ID, creation time or time to live is used.
  *
  * @author Igor Polevoy
  */
@@ -32,7 +34,8 @@ public class SessionFacade implements Map {
      * @return named object. 
      */
     public Object get(String name){
-        return Context.getHttpRequest().getSession(true).getAttribute(name);
+        HttpSession session = SessionHelper.getSession(false);
+        return session == null ? null : session.getAttribute(name);
     }
 
     /**
@@ -53,7 +56,10 @@ public class SessionFacade implements Map {
      * @param name name of object
      */
     public void remove(String name){
-        Context.getHttpRequest().getSession(true).removeAttribute(name);
+        HttpSession session = SessionHelper.getSession(false);
+        if (session != null) {
+            session.removeAttribute(name);
+        }
     }
 
     /**
@@ -62,8 +68,9 @@ public class SessionFacade implements Map {
      * @param value object reference.
      */
     public Object put(String name, Serializable value){
-        Object val = Context.getHttpRequest().getSession(true).getAttribute(name);
-        Context.getHttpRequest().getSession(true).setAttribute(name, value);
+        HttpSession session = SessionHelper.getSession(true);
+        Object val = session.getAttribute(name);
+        session.setAttribute(name, value);
         return val;
     }
 
@@ -73,14 +80,17 @@ public class SessionFacade implements Map {
      * @return time when session was created.
      */
     public long getCreationTime(){
-        return Context.getHttpRequest().getSession(true).getCreationTime();
+        return SessionHelper.getSession(true).getCreationTime();
     }
 
     /**
      * Invalidates current session. All attributes are discarded.
      */
     public void invalidate(){
-        Context.getHttpRequest().getSession(true).invalidate();
+        HttpSession session = SessionHelper.getSession(false);
+        if (session != null) {
+            session.invalidate();
+        }
     }
 
     /**
@@ -88,7 +98,7 @@ public class SessionFacade implements Map {
      * @param seconds time to live.
      */
     public void setTimeToLive(int seconds){
-        Context.getHttpRequest().getSession(true).setMaxInactiveInterval(seconds);
+        SessionHelper.getSession(true).setMaxInactiveInterval(seconds);
     }
 
     /**
@@ -98,7 +108,7 @@ public class SessionFacade implements Map {
      */
     public String[] names(){
         List<String> namesList = new ArrayList<String>();
-        Enumeration names = Context.getHttpRequest().getSession(true).getAttributeNames();
+        Enumeration names = attributeNames();
         while (names.hasMoreElements()) {
             Object o = names.nextElement();
             namesList.add(o.toString());
@@ -113,7 +123,7 @@ public class SessionFacade implements Map {
      * @return ID of the underlying session
      */
     public String getId(){
-        return Context.getHttpRequest().getSession(true).getId();
+        return SessionHelper.getSession(true).getId();
     }
 
 
@@ -121,7 +131,7 @@ public class SessionFacade implements Map {
      * Destroys current session
      */
     public void destroy(){
-        Context.getHttpRequest().getSession(true).invalidate();
+        invalidate();
     }
 
 
@@ -133,17 +143,17 @@ public class SessionFacade implements Map {
 
     @Override
     public boolean isEmpty() {
-        return !Context.getHttpRequest().getSession(true).getAttributeNames().hasMoreElements();
+        return !attributeNames().hasMoreElements();
     }
 
     @Override
     public boolean containsKey(Object key) {
-        return Context.getHttpRequest().getSession(true).getAttribute(key.toString()) != null;
+        return get(key.toString()) != null;
     }
 
     @Override
     public boolean containsValue(Object value) {
-        Enumeration names = Context.getHttpRequest().getSession(true).getAttributeNames();
+        Enumeration names = attributeNames();
         while (names.hasMoreElements()){
             String name = names.nextElement().toString();
             if(name.equals(value)){
@@ -168,7 +178,7 @@ public class SessionFacade implements Map {
     @Override
     public Object remove(Object key) {
         Object val = get(key.toString());
-        Context.getHttpRequest().getSession(true).removeAttribute(key.toString());
+        remove(key.toString());
         return val;
     }
 
@@ -188,7 +198,7 @@ public class SessionFacade implements Map {
     @Override
     public Set<Object> keySet() {
         Set<Object> keys = new HashSet<Object>();
-        Enumeration names = Context.getHttpRequest().getSession(true).getAttributeNames();
+        Enumeration names = attributeNames();
         while (names.hasMoreElements()){
             Object name = names.nextElement();
             keys.add(name);
@@ -199,7 +209,7 @@ public class SessionFacade implements Map {
     @Override
     public Collection values() {
         Set<Object> values = new HashSet<Object>();
-        Enumeration names = Context.getHttpRequest().getSession(true).getAttributeNames();
+        Enumeration names = attributeNames();
         while (names.hasMoreElements()){
             Object name = names.nextElement();
             values.add(get(name));
@@ -211,4 +221,9 @@ public class SessionFacade implements Map {
     public Set<Entry> entrySet() {
         throw new UnsupportedOperationException();
     }
+
+    private Enumeration attributeNames() {
+        HttpSession session = SessionHelper.getSession(false);
+        return session == null ? Collections.enumeration(Collections.emptyList()) : session.getAttributeNames();
+    }
 }
@@ -16,6 +16,7 @@ limitations under the License.
 
 package org.javalite.activeweb;
 
+import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpSession;
 import java.util.Enumeration;
 import java.util.HashMap;
@@ -25,17 +26,36 @@ import java.util.Map;
  * @author Igor Polevoy
  */
 class SessionHelper {
+
     /**
-     * Returns all session attributes in a map.
+     * Returns a session of current request, creating one only if asked to. Creation of a session is counted
+     * for the current route in {@link SessionStatistics}.
      *
-     * @return all session attributes in a map.
+     * @param create true to create a session if one does not exist
+     * @return session of current request, null if there is none and <code>create</code> is false.
      */
-     protected static Map<String, Object> getSessionAttributes(){
-        //TODO: cache session attributes map since this method can be called multiple times during a request.
+    static HttpSession getSession(boolean create) {
+        HttpServletRequest request = Context.getHttpRequest();
+        HttpSession session = request.getSession(false);
+        if (session == null && create) {
+            session = request.getSession(true);
+            SessionStatistics.sessionCreated(Context.getRoute());
+        }
+        return session;
+    }
 
-        HttpSession session = Context.getHttpRequest().getSession(true);
-        Enumeration names = session.getAttributeNames();
+    /**
+     * Returns all session attributes in a map. Does not create a session.
+     *
+     * @return all session attributes in a map, empty map if there is no session.
+     */
+    protected static Map<String, Object> getSessionAttributes(){
+        HttpSession session = getSession(false);
         Map<String, Object> values = new HashMap<String, Object>();
+        if (session == null) {
+            return values;
+        }
+        Enumeration names = session.getAttributeNames();
         while (names.hasMoreElements()) {
             Object name = names.nextElement();
             values.put(name.toString(), session.getAttribute(name.toString()));
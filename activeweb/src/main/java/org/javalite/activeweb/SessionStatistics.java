@@ -0,0 +1,69 @@
+/*
+Copyright 2009-2014 Igor Polevoy
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package org.javalite.activeweb;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counts HTTP sessions created by ActiveWeb, per route. A session is only created when something is written
+ * to it, so routes that show up here are the ones that make requests stateful. Routes are named as
+ * <code>controller_path#action</code>; sessions created before a route was found are counted under
+ * <code>unknown</code>.
+ *
+ * @author Igor Polevoy
+ */
+public final class SessionStatistics {
+
+    static final String UNKNOWN = "unknown";
+
+    private static final ConcurrentMap<String, AtomicLong> created = new ConcurrentHashMap<String, AtomicLong>();
+
+    private SessionStatistics() {}
+
+    /**
+     * @return numbers of sessions created per route since start or last {@link #reset()}, sorted by route.
+     */
+    public static Map<String, Long> getCreatedSessions() {
+        Map<String, Long> counts = new TreeMap<String, Long>();
+        for (Map.Entry<String, AtomicLong> entry : created.entrySet()) {
+            counts.put(entry.getKey(), entry.getValue().get());
+        }
+        return counts;
+    }
+
+    /**
+     * Clears all counters.
+     */
+    public static void reset() {
+        created.clear();
+    }
+
+    static void sessionCreated(Route route) {
+        String name = route == null ? UNKNOWN : route.getControllerPath() + "#" + route.getActionName();
+        AtomicLong count = created.get(name);
+        if (count == null) {
+            AtomicLong existing = created.putIfAbsent(name, count = new AtomicLong());
+            if (existing != null) {
+                count = existing;
+            }
+        }
+        count.incrementAndGet();
+    }
+}
@@ -0,0 +1,171 @@
+/*
+Copyright 2009-2014 Igor Polevoy
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package org.javalite.activeweb;
+
+import org.apache.commons.fileupload.FileItemHeaders;
+import org.apache.commons.fileupload.FileItemStream;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Content of an uploaded file or field that was read by {@link UploadSpool}, either held in memory
+ * or written to a temporary file. Memory and temporary file are released at the end of a request.
+ *
+ * @author Igor Polevoy
+ */
+final class SpooledItem implements FileItemStream {
+
+    private final String name, fieldName, contentType;
+    private final boolean formField;
+    private FileItemHeaders headers;
+    private byte[] content;
+    private Path file;
+    private final long size;
+    private boolean moved;
+
+    SpooledItem(FileItemStream stream, byte[] content) {
+        this(stream, content, null, content.length);
+    }
+
+    SpooledItem(FileItemStream stream, Path file, long size) {
+        this(stream, null, file, size);
+    }
+
+    private SpooledItem(FileItemStream stream, byte[] content, Path file, long size) {
+        this.name = stream.getName();
+        this.fieldName = stream.getFieldName();
+        this.contentType = stream.getContentType();
+        this.formField = stream.isFormField();
+        this.headers = stream.getHeaders();
+        this.content = content;
+        this.file = file;
+        this.size = size;
+    }
+
+    long getSize() {
+        return size;
+    }
+
+    boolean inMemory() {
+        return content != null;
+    }
+
+    /**
+     * Returns the temporary file with content, writing content held in memory to one first.
+     */
+    synchronized Path getPath() throws IOException {
+        if (moved) {
+            throw new IOException("content was moved to another file");
+        }
+        if (file == null) {
+            Path path = UploadSpool.createTempFile();
+            Files.write(path, content);
+            file = path;
+            UploadSpool.release(content.length);
+            content = null;
+        }
+        return file;
+    }
+
+    /**
+     * Moves content to a target file. A temporary file is renamed, not copied, if it is on the same file system
+     * as the target.
+     */
+    synchronized void moveTo(Path target) throws IOException {
+        if (file == null) {
+            Files.write(target, content);
+        } else {
+            Files.move(getPath(), target, StandardCopyOption.REPLACE_EXISTING);
+            moved = true;
+        }
+    }
+
+    synchronized long transferTo(WritableByteChannel target) throws IOException {
+        if (file == null) {
+            ByteBuffer buffer = ByteBuffer.wrap(content);
+            while (buffer.hasRemaining()) {
+                target.write(buffer);
+            }
+            return content.length;
+        }
+        FileChannel channel = FileChannel.open(getPath(), StandardOpenOption.READ);
+        try {
+            long position = 0;
+            while (position < size) {
+                long transferred = channel.transferTo(position, size - position, target);
+                if (transferred <= 0) {
+                    break;
+                }
+                position += transferred;
+            }
+            return position;
+        } finally {
+            channel.close();
+        }
+    }
+
+    /**
+     * Releases memory or deletes temporary file.
+     */
+    synchronized void release() {
+        if (content != null) {
+            UploadSpool.release(content.length);
+            content = null;
+        } else if (file != null && !moved) {
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException ignore) {}
+        }
+        file = null;
+    }
+
+    public synchronized InputStream openStream() throws IOException {
+        return content != null ? new ByteArrayInputStream(content) : Files.newInputStream(getPath());
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getFieldName() {
+        return fieldName;
+    }
+
+    public boolean isFormField() {
+        return formField;
+    }
+
+    public FileItemHeaders getHeaders() {
+        return headers;
+    }
+
+    public void setHeaders(FileItemHeaders headers) {
+        this.headers = headers;
+    }
+}
@@ -15,6 +15,7 @@ limitations under the License.
 */
 package org.javalite.activeweb;
 
+import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 
@@ -32,7 +33,7 @@ class StreamResponse extends ControllerResponse{
     void doProcess() {
         try{
             OutputStream out = Context.getHttpResponse().getOutputStream();
-            byte[] bytes = new byte[1024];
+            byte[] bytes = new byte[8192];
 
             int x;
             while((x = in.read(bytes)) != -1){
@@ -42,6 +43,10 @@ class StreamResponse extends ControllerResponse{
         }
         catch(Exception e){
             throw new ControllerException(e);
+        }finally {
+            try {
+                in.close();
+            } catch (IOException ignore) {}
         }
     }
 }
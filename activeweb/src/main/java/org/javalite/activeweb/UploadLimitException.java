@@ -0,0 +1,28 @@
+/*
+Copyright 2009-2014 Igor Polevoy
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package org.javalite.activeweb;
+
+/**
+ * Thrown when memory available to all uploads is used up for longer than <code>uploadMemoryTimeout</code>.
+ * A request that fails with this exception is answered with 503.
+ *
+ * @author Igor Polevoy
+ */
+public class UploadLimitException extends ControllerException {
+    public UploadLimitException(String message) {
+        super(message);
+    }
+}
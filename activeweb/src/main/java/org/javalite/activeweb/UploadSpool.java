@@ -0,0 +1,184 @@
+/*
+Copyright 2009-2014 Igor Polevoy
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package org.javalite.activeweb;
+
+import org.apache.commons.fileupload.FileItemIterator;
+import org.apache.commons.fileupload.FileItemStream;
+import org.apache.commons.fileupload.FileUploadException;
+import org.apache.commons.fileupload.servlet.ServletFileUpload;
+
+import javax.servlet.http.HttpServletRequest;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reads items of a multipart request. Items up to <code>uploadThreshold</code> bytes are kept in memory, larger
+ * items are written to temporary files through a file channel as they are read. Memory used by all requests is
+ * limited to <code>uploadMemory</code> bytes: when it is used up, a request waits up to
+ * <code>uploadMemoryTimeout</code> milliseconds for memory to be released, then fails with
+ * {@link UploadLimitException}.
+ *
+ * @author Igor Polevoy
+ */
+final class UploadSpool {
+
+    private static final long CHUNK = 64 * 1024;
+    private static Semaphore memory;
+
+    private UploadSpool() {}
+
+    /**
+     * Reads all items of a multipart request of the current thread. Items are released when the request ends.
+     *
+     * @param request multipart request
+     * @param encoding encoding of headers of parts, can be null
+     * @return form items and file items of the request
+     */
+    static List<FormItem> parse(HttpServletRequest request, String encoding) throws IOException, FileUploadException {
+        ServletFileUpload upload = new ServletFileUpload();
+        if (encoding != null) {
+            upload.setHeaderEncoding(encoding);
+        }
+        upload.setFileSizeMax(Configuration.getMaxUploadSize());
+        int threshold = Configuration.getUploadThreshold();
+
+        List<FormItem> formItems = new ArrayList<FormItem>();
+        FileItemIterator it = upload.getItemIterator(request);
+        while (it.hasNext()) {
+            SpooledItem item = spool(it.next(), threshold);
+            formItems.add(item.isFormField() ? new FormItem(item) : new FileItem(item));
+        }
+        return formItems;
+    }
+
+    /**
+     * Reads content of a stream into memory or a temporary file. The item is registered with the current
+     * request to be released when it ends.
+     */
+    static SpooledItem spool(FileItemStream stream, int threshold) throws IOException {
+        reserve(threshold);
+        long reserved = threshold;
+        InputStream in = stream.openStream();
+        try {
+            byte[] buffer = new byte[threshold];
+            int count = read(in, buffer);
+            int next = count < threshold ? -1 : in.read();
+            SpooledItem item;
+            if (next == -1) {
+                release(threshold - count);
+                reserved = 0;
+                item = new SpooledItem(stream, count == threshold ? buffer : Arrays.copyOf(buffer, count));
+            } else {
+                item = spill(stream, in, buffer, count, next);
+            }
+            Context.addUpload(item);
+            return item;
+        } finally {
+            release(reserved);
+            in.close();
+        }
+    }
+
+    private static SpooledItem spill(FileItemStream stream, InputStream in, byte[] buffer, int count, int next) throws IOException {
+        Path file = createTempFile();
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE);
+        boolean done = false;
+        try {
+            write(channel, ByteBuffer.wrap(buffer, 0, count));
+            write(channel, ByteBuffer.wrap(new byte[]{(byte) next}));
+            long position = count + 1;
+            ReadableByteChannel source = Channels.newChannel(in);
+            long transferred;
+            while ((transferred = channel.transferFrom(source, position, CHUNK)) > 0) {
+                position += transferred;
+            }
+            done = true;
+            return new SpooledItem(stream, file, position);
+        } finally {
+            channel.close();
+            if (!done) {
+                Files.deleteIfExists(file);
+            }
+        }
+    }
+
+    private static void write(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    private static int read(InputStream in, byte[] buffer) throws IOException {
+        int count = 0, read;
+        while (count < buffer.length && (read = in.read(buffer, count, buffer.length - count)) != -1) {
+            count += read;
+        }
+        return count;
+    }
+
+    static Path createTempFile() throws IOException {
+        return Files.createTempFile(Configuration.getTmpDir().toPath(), "upload_", ".tmp");
+    }
+
+    private static synchronized Semaphore memory() {
+        if (memory == null) {
+            memory = new Semaphore(Configuration.getUploadMemory());
+        }
+        return memory;
+    }
+
+    private static void reserve(int bytes) {
+        if (bytes == 0) {
+            return;
+        }
+        if (bytes > Configuration.getUploadMemory()) {
+            throw new UploadLimitException("uploadThreshold is larger than uploadMemory");
+        }
+        try {
+            if (!memory().tryAcquire(bytes, Configuration.getUploadMemoryTimeout(), TimeUnit.MILLISECONDS)) {
+                throw new UploadLimitException("memory for uploads is used up, try again later");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new UploadLimitException("interrupted while waiting for memory for uploads");
+        }
+    }
+
+    static void release(long bytes) {
+        if (bytes > 0) {
+            memory().release((int) bytes);
+        }
+    }
+
+    /**
+     * @return number of bytes of memory available to uploads at the moment.
+     */
+    static int availableMemory() {
+        return memory().availablePermits();
+    }
+}
@@ -0,0 +1,173 @@
+/*
+Copyright 2009-2014 Igor Polevoy
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package org.javalite.activeweb;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpSession;
+import java.util.*;
+
+import static org.javalite.common.Collections.map;
+
+/**
+ * Values passed to a view. In addition to values assigned by a controller, provides <code>context_path</code>,
+ * <code>activeweb</code>, <code>request</code>, <code>session</code>, <code>flasher</code>,
+ * <code>request_props</code> and attributes of a request. These are resolved when a template asks for them,
+ * and not copied before every render. Names reserved by ActiveWeb take precedence over values of a controller,
+ * which take precedence over request attributes.
+ *
+ * <p>Values assigned by a controller are not changed.</p>
+ *
+ * @author Igor Polevoy
+ */
+@SuppressWarnings("unchecked")
+class ViewModel extends AbstractMap<String, Object> {
+    private static Logger logger = LoggerFactory.getLogger(ViewModel.class.getName());
+
+    private static final Set<String> RESERVED = new HashSet<String>(Arrays.asList(
+            "context_path", "activeweb", "request", "session", "request_props"));
+
+    private final Map values;
+    private final HttpServletRequest request;
+    private final Map<String, Object> resolved = new HashMap<String, Object>();
+    private Map<String, Object> all;
+    private Object flasher;
+    private boolean flasherResolved;
+
+    /**
+     * @param values values assigned by a controller
+     */
+    ViewModel(Map values) {
+        this.values = values;
+        this.request = Context.getHttpRequest();
+    }
+
+    @Override
+    public Object get(Object key) {
+        if (!(key instanceof String)) {
+            return values.get(key);
+        }
+        String name = (String) key;
+        if (resolved.containsKey(name)) {
+            return resolved.get(name);
+        }
+        if (RESERVED.contains(name)) {
+            Object value = resolve(name);
+            resolved.put(name, value);
+            return value;
+        }
+        if (name.equals("flasher")) {
+            Object flasher = getFlasher();
+            if (flasher != null) {
+                return flasher;
+            }
+        }
+        return values.containsKey(name) ? values.get(name) : request.getAttribute(name);
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return get(key) != null || values.containsKey(key);
+    }
+
+    /**
+     * Values set by a template do not change values of a controller.
+     */
+    @Override
+    public Object put(String key, Object value) {
+        all = null;
+        return resolved.put(key, value);
+    }
+
+    /**
+     * Resolves all values. Used only by code that iterates over names, such as partials.
+     */
+    @Override
+    public Set<Entry<String, Object>> entrySet() {
+        if (all == null) {
+            Map<String, Object> entries = new HashMap<String, Object>();
+            Enumeration names = request.getAttributeNames();
+            while (names.hasMoreElements()) {
+                String name = names.nextElement().toString();
+                entries.put(name, request.getAttribute(name));
+            }
+            entries.putAll(values);
+            Object flasher = getFlasher();
+            if (flasher != null) {
+                entries.put("flasher", flasher);
+            }
+            for (String name : RESERVED) {
+                entries.put(name, get(name));
+            }
+            entries.putAll(resolved);
+            all = Collections.unmodifiableMap(entries);
+        }
+        return all.entrySet();
+    }
+
+    private Object resolve(String name) {
+        if (name.equals("context_path")) {
+            return request.getContextPath();
+        } else if (name.equals("activeweb")) {
+            return getActiveWebParams();
+        } else if (name.equals("request")) {
+            return getRequestParams();
+        } else if (name.equals("session")) {
+            if (values.get("session") != null) {
+                logger.warn("found 'session' value set by controller. It is reserved by ActiveWeb and will be overwritten.");
+            }
+            return SessionHelper.getSessionAttributes();
+        } else {
+            return map("url", request.getRequestURL().toString());
+        }
+    }
+
+    private Object getFlasher() {
+        if (!flasherResolved) {
+            HttpSession session = SessionHelper.getSession(false);
+            flasher = session == null ? null : session.getAttribute("flasher");
+            flasherResolved = true;
+        }
+        return flasher;
+    }
+
+    private Map getActiveWebParams() {
+        Map params = map("environment", Configuration.getEnv());
+        //in some cases the Route is missing - for example, when exception happened before Router was invoked.
+        Route route = Context.getRoute();
+        if (route != null) {
+            params.put("controller", route.getControllerPath());
+            params.put("action", route.getActionName());
+            params.put("restful", route.getController().restful());
+        }
+        return params;
+    }
+
+    private Map<String, String> getRequestParams() {
+        Enumeration names = request.getParameterNames();
+        Map<String, String> requestParameterMap = new HashMap<String, String>();
+        while (names.hasMoreElements()) {
+            Object name = names.nextElement();
+            String[] values = request.getParameterValues(name.toString());
+            Object value = values != null && values.length == 1 ? values[0] : values;
+            if (value != null)
+                requestParameterMap.put(name.toString(), value.toString());
+        }
+        return requestParameterMap;
+    }
+}
@@ -0,0 +1,63 @@
+/*
+Copyright 2009-2014 Igor Polevoy
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package org.javalite.activeweb.annotations;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Inherited;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Caches complete responses of an action, or of all actions of a controller: status, headers and content.
+ * A cached response is sent instead of executing an action. If an action has filters, including global filters,
+ * it is sent after their <code>before()</code> methods, so that filters can still reject a request. Otherwise,
+ * it is sent before a route is recognized. Use it only for actions that render the same content for all users
+ * that are allowed to see it.
+ *
+ * <pre>
+ * public class BooksController extends AppController {
+ *     &#064;CacheResponse(value = 300, params = "page")
+ *     public void index(){...}
+ * }
+ * </pre>
+ *
+ * Only responses to GET requests with status 200 that do not set cookies are cached. Same can be configured
+ * in <code>AppControllerConfig</code> with
+ * {@link org.javalite.activeweb.AbstractControllerConfig#cacheResponses(int)}.
+ *
+ * @author Igor Polevoy
+ */
+@Inherited
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.TYPE, ElementType.METHOD})
+public @interface CacheResponse {
+
+    /**
+     * @return number of seconds to keep a response in cache.
+     */
+    int value();
+
+    /**
+     * @return names of request parameters that are part of a key of a cached response. By default, all parameters are.
+     */
+    String[] params() default "*";
+
+    /**
+     * @return names of request headers that are part of a key of a cached response, such as "Accept-Language".
+     */
+    String[] vary() default {};
+}
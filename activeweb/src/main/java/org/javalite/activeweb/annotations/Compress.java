@@ -0,0 +1,50 @@
+/*
+Copyright 2009-2014 Igor Polevoy
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package org.javalite.activeweb.annotations;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Inherited;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Turns compression of responses on or off for a controller or an action. An annotation on an action
+ * takes precedence over an annotation on a controller, which takes precedence over property
+ * <code>compression</code> in <code>activeweb.properties</code>.
+ *
+ * <pre>
+ * &#064;Compress
+ * public class ReportsController extends AppController {
+ *     public void index(){...}
+ *
+ *     &#064;Compress(false)
+ *     public void download(){...}
+ * }
+ * </pre>
+ *
+ * Responses are compressed with gzip or deflate only if a client accepts either of them, and only if they are
+ * larger than <code>compressionThreshold</code> bytes and not of a content type that is already compressed,
+ * such as images.
+ *
+ * @author Igor Polevoy
+ */
+@Inherited
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.TYPE, ElementType.METHOD})
+public @interface Compress {
+    boolean value() default true;
+}
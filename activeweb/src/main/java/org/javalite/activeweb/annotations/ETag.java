@@ -0,0 +1,48 @@
+/*
+Copyright 2009-2014 Igor Polevoy
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package org.javalite.activeweb.annotations;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Inherited;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Turns generation of <code>ETag</code> headers of rendered pages on or off for a controller or an action.
+ * An annotation on an action takes precedence over an annotation on a controller, which takes precedence over
+ * property <code>etag</code> in <code>activeweb.properties</code>.
+ *
+ * <pre>
+ * &#064;ETag
+ * public class NewsController extends AppController {
+ *     public void index(){...}
+ * }
+ * </pre>
+ *
+ * A tag is computed from content of a page. If a client sends the same tag in <code>If-None-Match</code>,
+ * it gets a 304 response without content. Pages are still rendered to compute a tag, an action that knows
+ * a version of its content can avoid that with {@link org.javalite.activeweb.HttpSupport#notModified(Object)}.
+ * Tags are only generated for pages sent with <code>Content-Length</code>, see <code>responseBufferSize</code>.
+ *
+ * @author Igor Polevoy
+ */
+@Inherited
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.TYPE, ElementType.METHOD})
+public @interface ETag {
+    boolean value() default true;
+}
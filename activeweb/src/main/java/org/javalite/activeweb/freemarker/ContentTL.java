@@ -29,11 +29,22 @@ public class ContentTL {
     static void reset(){
         contentTL.set(new HashMap<String, List<String>>());
     }
+
+    /**
+     * Makes content unavailable until {@link #reset()}, so that reading it fails instead of finding nothing.
+     */
+    static void clear(){
+        contentTL.remove();
+    }
+
     public static Map<String, List<String>> getAllContent() {
         return contentTL.get();
     }
 
     static void addContent(String name, String content) {
+        if(contentTL.get() == null){
+            reset();
+        }
         if(contentTL.get().get(name) == null){
             contentTL.get().put(name, new ArrayList<String>());
         }
@@ -38,9 +38,9 @@ import java.util.Map;
  *
  * @author Igor Polevoy
  */
-public class DebugTag extends FreeMarkerTag{
+public class DebugTag extends StreamingFreeMarkerTag {
     @Override
-    protected void render(Map params, String body, Writer writer) throws Exception {
+    protected void render(Map params, TagBody body, Writer writer) throws Exception {
         validateParamsPresence(params, "print");
         writer.write(DeepUnwrap.unwrap((TemplateModel) params.get("print")).toString());
     }
@@ -16,7 +16,6 @@ limitations under the License.
 
 package org.javalite.activeweb.freemarker;
 
-import org.javalite.activeweb.AppController;
 import org.javalite.activeweb.ControllerFactory;
 import org.javalite.activeweb.Router;
 import org.javalite.activeweb.ViewException;
@@ -27,7 +26,6 @@ import java.io.Writer;
 import java.util.HashMap;
 import java.util.Map;
 
-import static org.javalite.common.Util.blank;
 
 /**
  * This is a FreeMarker directive which is registered as  <code>&lt;@form... /&gt;</code> tag.
@@ -111,9 +109,9 @@ import static org.javalite.common.Util.blank;
  </pre>
  * @author Igor Polevoy
  */
-public class FormTag  extends FreeMarkerTag{
+public class FormTag  extends StreamingFreeMarkerTag {
     @Override
-    protected void render(Map params, String body, Writer writer) throws Exception {
+    protected void render(Map params, TagBody body, Writer writer) throws Exception {
 
         SimpleHash activeweb = (SimpleHash) get("activeweb");
         if(activeweb == null || !(params.containsKey("controller") || activeweb.toMap().containsKey("controller")))
@@ -131,11 +129,7 @@ public class FormTag  extends FreeMarkerTag{
             bodyPrefix = "\n\t<input type='hidden' name='_method' value='" + method + "' />";
         }
 
-        if(blank(body)){
-            body = "&nbsp;";
-        }
-
-        TagFactory tf = new TagFactory("form", bodyPrefix + body);
+        TagFactory tf = new TagFactory("form", bodyPrefix);
         Object contextPath = getContextPath();
         String action = params.get("action") == null? null: params.get("action").toString();
         String controllerPath = params.get("controller") == null? activeweb.get("controller").toString(): params.get("controller").toString();
@@ -144,8 +138,7 @@ public class FormTag  extends FreeMarkerTag{
         if(params.get("controller") == null){// using current controller
             restful = ((TemplateBooleanModel)activeweb.get("restful")).getAsBoolean();
         }else{//using provided controller
-            AppController controllerInstance = (AppController) Class.forName(ControllerFactory.getControllerClassName(controllerPath)).newInstance();
-            restful = controllerInstance.restful();
+            restful = ControllerFactory.isRestful(controllerPath);
         }
 
         String id = params.get("id") == null? null: params.get("id").toString();
@@ -164,6 +157,6 @@ public class FormTag  extends FreeMarkerTag{
         }
 
         tf.addAttributesExcept(params, "controller", "action", "method", "id", "html_id");
-        tf.write(writer);
+        tf.write(writer, body, "&nbsp;", null);
     }
 }
@@ -25,12 +25,13 @@ import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
 import java.io.StringReader;
-import java.io.StringWriter;
 import java.io.Writer;
 import java.util.*;
 
 /**
- * Convenience class for implementing application - specific tags. 
+ * Convenience class for implementing application - specific tags. A tag implements
+ * {@link #render(Map, String, Writer)}, which gets a body already rendered to a string. Tags that write a body
+ * straight to output, or skip it, extend {@link StreamingFreeMarkerTag} instead.
  *
  * @author Igor Polevoy
  */
@@ -49,12 +50,8 @@ public abstract class FreeMarkerTag implements TemplateDirectiveModel {
 
     public void execute(Environment env, Map params, TemplateModel[] loopVars, TemplateDirectiveBody body) throws TemplateException, IOException {
         FreeMarkerTL.setEnvironment(env);
-        StringWriter sw = new StringWriter();
-        if (body != null) {
-            body.render(sw);
-        }
         try{
-            render(params, sw.toString(), env.getOut());
+            render(params, new TagBody(body), env.getOut());
         }catch (ViewException e){
             throw e;
         }catch(Exception e){
@@ -95,7 +92,7 @@ public abstract class FreeMarkerTag implements TemplateDirectiveModel {
     }
 
     /**
-     * Implement this method ina  concrete subclass.
+     * Implement this method in a concrete subclass.
      *
      * @param params this is a list of parameters as provided to tag in HTML.
      * @param body body of tag
@@ -104,6 +101,18 @@ public abstract class FreeMarkerTag implements TemplateDirectiveModel {
      */
     protected abstract void render(Map params, String body, Writer writer) throws Exception;
 
+    /**
+     * Renders body to a string and calls {@link #render(Map, String, Writer)}. Overridden by
+     * {@link StreamingFreeMarkerTag}.
+     *
+     * @param params this is a list of parameters as provided to tag in HTML.
+     * @param body body of tag, rendered on demand
+     * @param writer writer to write output to.
+     * @throws Exception if any
+     */
+    protected void render(Map params, TagBody body, Writer writer) throws Exception {
+        render(params, body.toString(), writer);
+    }
 
     /**
      * Will throw {@link IllegalArgumentException} if a parameter on the list is missing
@@ -15,10 +15,12 @@ limitations under the License.
 */
 package org.javalite.activeweb.freemarker;
 
-import freemarker.template.Configuration;
-import freemarker.template.DefaultObjectWrapper;
-import freemarker.template.Template;
-import freemarker.template.TemplateExceptionHandler;
+import freemarker.core.Environment;
+import freemarker.core.TemplateElement;
+import freemarker.ext.beans.BeansWrapper;
+import freemarker.ext.beans.SimpleMapModel;
+import freemarker.cache.MruCacheStorage;
+import freemarker.template.*;
 import org.javalite.activeweb.InitException;
 import org.javalite.activeweb.TemplateManager;
 import org.javalite.activeweb.ViewException;
@@ -29,9 +31,9 @@ import org.slf4j.LoggerFactory;
 
 import javax.servlet.ServletContext;
 import java.io.*;
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.javalite.common.Util.blank;
 
@@ -40,10 +42,14 @@ import static org.javalite.common.Util.blank;
  */
 public class FreeMarkerTemplateManager implements TemplateManager {
 
+    // custom attribute of a parsed layout, true if it calls <@page_content/>
+    private static final String STREAMING = FreeMarkerTemplateManager.class.getName() + ".streaming";
+
     private Configuration config;
     private String defaultLayout;
 
     private String location;
+    private ServletContext servletContext;
 
     private Logger logger = LoggerFactory.getLogger(getClass());
 
@@ -51,6 +57,14 @@ public class FreeMarkerTemplateManager implements TemplateManager {
         config = new Configuration();
         config.setObjectWrapper(new DefaultObjectWrapper());
         config.setTemplateExceptionHandler(TemplateExceptionHandler.RETHROW_HANDLER);
+        //rendered pages are buffered, only explicit flushes should send content early
+        config.setAutoFlush(false);
+        int cacheSize = org.javalite.activeweb.Configuration.getTemplateCacheSize();
+        if (cacheSize > 0) {
+            //templates up to this number are never dropped from cache, others are kept while memory permits
+            config.setCacheStorage(new MruCacheStorage(cacheSize, Integer.MAX_VALUE));
+        }
+        config.setTemplateUpdateDelay(org.javalite.activeweb.Configuration.getTemplateUpdateDelay());
         config.setSharedVariable("link_to", new LinkToTag());
         config.setSharedVariable("form", new FormTag());
         config.setSharedVariable("content", new ContentForTag());
@@ -92,23 +106,35 @@ public class FreeMarkerTemplateManager implements TemplateManager {
                 throw e;
             }
 
+            TemplateHashModel values = dataModel(input);
             if(layout == null){//no layout
-                pageTemplate.process(input, writer);
+                pageTemplate.process(values, writer);
             }else{ // with layout
-                 //Generate the template itself
-                StringWriter pageWriter = new StringWriter();
-                pageTemplate.process(input, pageWriter);
-
-                Map values = new HashMap(input);
-                values.put("page_content", pageWriter.toString());
-                Map<String, List<String>>  assignedValues = ContentTL.getAllContent();
-
-                for(String name: assignedValues.keySet()){
-                    values.put(name, Util.join(assignedValues.get(name), " "));
-                }
-
                 Template layoutTemplate = config.getTemplate(layout + ".ftl");
-                layoutTemplate.process(values, writer);
+                if (streaming(layoutTemplate)) {
+                    Environment env = layoutTemplate.createProcessingEnvironment(values, writer);
+                    env.setGlobalVariable("page_content", new PageContentDirective(pageTemplate, values));
+                    ContentTL.clear(); // content of a page is not known until the page is rendered
+                    env.process();
+                } else {
+                    //Generate the template itself
+                    PageBuffer pageBuffer = new PageBuffer();
+                    String pageContent;
+                    try {
+                        pageTemplate.process(values, pageBuffer);
+                    } finally {
+                        pageContent = pageBuffer.release();
+                    }
+
+                    Environment env = layoutTemplate.createProcessingEnvironment(values, writer);
+                    env.setGlobalVariable("page_content", new RenderedPageContent(pageContent));
+                    Map<String, List<String>>  assignedValues = ContentTL.getAllContent();
+
+                    for(String name: assignedValues.keySet()){
+                        env.setGlobalVariable(name, new SimpleScalar(Util.join(assignedValues.get(name), " ")));
+                    }
+                    env.process();
+                }
 
                 FreeMarkerTL.setEnvironment(null);
                 logger.info("Rendered template: '" + template + "' with layout: '" + layout + "'");
@@ -125,6 +151,68 @@ public class FreeMarkerTemplateManager implements TemplateManager {
             throw new ViewException(errorMessage(layout, template), e);
         }
     }
+    /**
+     * Exposes values to templates without copying them, so that values which templates do not use are never read.
+     */
+    private TemplateHashModel dataModel(Map values) throws TemplateModelException {
+        if (values == null) {
+            values = Collections.emptyMap();
+        }
+        ObjectWrapper wrapper = config.getObjectWrapper();
+        return wrapper instanceof BeansWrapper
+                ? new SimpleMapModel(values, (BeansWrapper) wrapper) : (TemplateHashModel) wrapper.wrap(values);
+    }
+
+    /**
+     * Layouts that call <code>&lt;@page_content/&gt;</code> are streaming, see {@link PageContentDirective}.
+     * Others, which use <code>${page_content}</code>, get a page rendered before them. This is decided once for each
+     * parsed layout, from its own source: the tag in a template included by a layout does not make it streaming.
+     *
+     * @param layout parsed layout
+     * @return true if layout is streaming.
+     */
+    private static boolean streaming(Template layout) {
+        Boolean streaming = (Boolean) layout.getCustomAttribute(STREAMING);
+        if (streaming == null) {
+            streaming = callsPageContent(layout.getRootTreeNode());
+            layout.setCustomAttribute(STREAMING, streaming);
+        }
+        return streaming;
+    }
+
+    private static boolean callsPageContent(TemplateElement element) {
+        String description = element.getDescription();
+        if (description.equals("@page_content") || description.startsWith("@page_content ")) {
+            return true;
+        }
+        for (int i = 0; i < element.getChildCount(); i++) {
+            if (callsPageContent((TemplateElement) element.getChildAt(i))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Page rendered before its layout. A layout uses it as <code>${page_content}</code>, or as a tag from a
+     * template the layout includes.
+     */
+    private static class RenderedPageContent implements TemplateScalarModel, TemplateDirectiveModel {
+        private final String content;
+
+        private RenderedPageContent(String content) {
+            this.content = content;
+        }
+
+        public String getAsString() {
+            return content;
+        }
+
+        public void execute(Environment env, Map params, TemplateModel[] loopVars, TemplateDirectiveBody body) throws IOException {
+            env.getOut().write(content);
+        }
+    }
+
     private String errorMessage(String layout, String template){
         return "Failed to render template: '" +(location != null? location:"") +  template + ".ftl" +
                 (layout == null? "', without layout" : "', with layout: '" +(location != null? location:"") + layout + "'");
@@ -132,8 +220,108 @@ public class FreeMarkerTemplateManager implements TemplateManager {
     }
     
     public void setServletContext(ServletContext ctx) {
-        if(location == null)
+        if(location == null) {
             config.setServletContextForTemplateLoading(ctx, "WEB-INF/views/");
+            servletContext = ctx;
+        }
+    }
+
+    /**
+     * Parses all templates: pages, partials and layouts, so that first requests after start do not pay for it.
+     * Templates are parsed in parallel, one thread per processor, and stay in the template cache, see
+     * <code>templateCacheSize</code>. Time to parse each template is logged, as well as templates that failed to parse.
+     *
+     * @param failOnError true to throw an exception if any template failed to parse
+     * @return time in milliseconds it took to parse each template that was parsed, keyed by template name.
+     * @throws InitException if <code>failOnError</code> is true and some templates failed to parse.
+     */
+    public Map<String, Long> warmUp(boolean failOnError) {
+        List<String> names = new ArrayList<String>();
+        if (location != null) {
+            findTemplates(new File(location), "", names);
+        } else if (servletContext != null) {
+            findTemplates("/WEB-INF/views/", names);
+        } else {
+            logger.warn("Cannot warm up templates, location of templates is not known");
+            return Collections.emptyMap();
+        }
+
+        final Map<String, Long> times = new ConcurrentHashMap<String, Long>();
+        final Map<String, Exception> errors = new ConcurrentHashMap<String, Exception>();
+        int threads = Math.max(1, Math.min(names.size(), Runtime.getRuntime().availableProcessors()));
+        ExecutorService executor = Executors.newFixedThreadPool(threads, new ThreadFactory() {
+            private final AtomicInteger count = new AtomicInteger();
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, "activeweb-warm-up-" + count.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        long start = System.currentTimeMillis();
+        try {
+            List<Future<?>> futures = new ArrayList<Future<?>>();
+            for (final String name : names) {
+                futures.add(executor.submit(new Runnable() {
+                    public void run() {
+                        long parseStart = System.currentTimeMillis();
+                        try {
+                            config.getTemplate(name);
+                            long time = System.currentTimeMillis() - parseStart;
+                            times.put(name, time);
+                            logger.debug("Parsed template: '" + name + "' in " + time + " milliseconds");
+                        } catch (Exception e) {
+                            errors.put(name, e);
+                            logger.error("Failed to parse template: '" + name + "'", e);
+                        }
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InitException(e);
+        } catch (ExecutionException e) {
+            throw new InitException(e.getCause());
+        } finally {
+            executor.shutdown();
+        }
+        logger.info("Parsed " + times.size() + " templates in " + (System.currentTimeMillis() - start)
+                + " milliseconds, " + errors.size() + " failed");
+        if (failOnError && !errors.isEmpty()) {
+            throw new InitException("Failed to parse templates: " + new TreeSet<String>(errors.keySet()),
+                    errors.values().iterator().next());
+        }
+        return new TreeMap<String, Long>(times);
+    }
+
+    private static void findTemplates(File dir, String prefix, List<String> names) {
+        File[] files = dir.listFiles();
+        if (files == null) {
+            return;
+        }
+        for (File file : files) {
+            if (file.isDirectory()) {
+                findTemplates(file, prefix + file.getName() + "/", names);
+            } else if (file.getName().endsWith(".ftl")) {
+                names.add(prefix + file.getName());
+            }
+        }
+    }
+
+    private void findTemplates(String path, List<String> names) {
+        Set<String> paths = servletContext.getResourcePaths(path);
+        if (paths == null) {
+            return;
+        }
+        for (String resource : paths) {
+            if (resource.endsWith("/")) {
+                findTemplates(resource, names);
+            } else if (resource.endsWith(".ftl")) {
+                names.add(resource.substring("/WEB-INF/views/".length()));
+            }
+        }
     }
 
     /**
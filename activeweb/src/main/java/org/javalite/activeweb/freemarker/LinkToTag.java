@@ -16,7 +16,6 @@ limitations under the License.
 package org.javalite.activeweb.freemarker;
 
 
-import org.javalite.activeweb.AppController;
 import org.javalite.activeweb.ControllerFactory;
 import org.javalite.activeweb.Router;
 import freemarker.template.*;
@@ -167,16 +166,15 @@ import static org.javalite.common.Util.blank;
  *
  * @author Igor Polevoy
  */
-public class LinkToTag extends FreeMarkerTag {
+public class LinkToTag extends StreamingFreeMarkerTag {
     @Override
-    protected void render(Map params, String body, Writer writer) throws Exception {
+    protected void render(Map params, TagBody body, Writer writer) throws Exception {
 
         String controller;
         Boolean restful;
         if (params.get("controller") != null) {
             controller = params.get("controller").toString();
-            AppController controllerInstance = (AppController) Class.forName(ControllerFactory.getControllerClassName(controller)).newInstance();
-            restful = controllerInstance.restful();
+            restful = ControllerFactory.isRestful(controller);
         } else if (get("activeweb") != null) {
             Map activeweb = (Map) getUnwrapped("activeweb");
             controller = activeweb.get("controller").toString();
@@ -193,7 +191,7 @@ public class LinkToTag extends FreeMarkerTag {
             throw new IllegalArgumentException("'controller' attribute cannot have dots in value, use slashes: '/'");
         }
 
-        if (blank(body))
+        if (blank(body.toString()))
             throw new IllegalArgumentException("must provide body text");
 
         if (params.get("query_params") != null && params.get("query_string") != null) {
@@ -209,7 +207,7 @@ public class LinkToTag extends FreeMarkerTag {
         href += params.containsKey("query_string") ? "?" + params.get("query_string") : "";
 
 
-        TagFactory tf = new TagFactory("a", body);
+        TagFactory tf = new TagFactory("a", null);
         tf.attribute("href", href);
         if (params.containsKey("destination") && params.get("destination") != null) {
             tf.attribute("data-destination", params.get("destination").toString());
@@ -254,7 +252,7 @@ public class LinkToTag extends FreeMarkerTag {
         tf.addAttributesExcept(params, "controller", "action", "form", "id", "method",
                 "query_string", "query_params", "context_path", "destination",
                 "before", "before_arg", "after", "after_arg", "confirm", "error", "html_id");
-        writer.write(tf.toString());
+        tf.write(writer, body, null, null);
     }
 
     private Map getQueryParams(Map params) throws TemplateModelException {
@@ -8,6 +8,8 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import static org.javalite.common.Util.split;
 
@@ -96,24 +98,18 @@ Bonjour!
  *
  * @author Igor Polevoy: 8/15/12 3:50 PM
  */
-public class MessageTag extends FreeMarkerTag {
+public class MessageTag extends StreamingFreeMarkerTag {
+
+    private static final String[] NO_PARAMS = new String[0];
+    private static final int MAX_CACHED_LOCALES = 1000;
+    private static final ConcurrentMap<String, Locale> locales = new ConcurrentHashMap<String, Locale>();
 
     @Override
-    protected void render(Map params, String body, Writer writer) throws Exception {
+    protected void render(Map params, TagBody body, Writer writer) throws Exception {
         if (params.containsKey("key")) {
             String key = params.get("key").toString();
             if(params.containsKey("locale")){
-                String localeString = params.get("locale").toString();
-                String language, country;
-                Locale locale;
-                if(localeString.contains("_")){
-                    language = split(localeString, '_')[0];
-                    country = split(localeString, '_')[1];
-                    locale = new Locale(language, country);
-                }else{
-                    language = localeString;
-                    locale = new Locale(language);
-                }
+                Locale locale = getLocale(params.get("locale").toString());
                 writer.write(Messages.message(key, locale, getParamsArray(params)));
             }else{
                 writer.write(Messages.message(key, getParamsArray(params)));
@@ -124,7 +120,26 @@ public class MessageTag extends FreeMarkerTag {
     }
 
 
+    private static Locale getLocale(String localeString) {
+        Locale locale = locales.get(localeString);
+        if (locale == null) {
+            if (localeString.contains("_")) {
+                String[] parts = split(localeString, '_');
+                locale = new Locale(parts[0], parts[1]);
+            } else {
+                locale = new Locale(localeString);
+            }
+            if (locales.size() < MAX_CACHED_LOCALES) {
+                locales.put(localeString, locale);
+            }
+        }
+        return locale;
+    }
+
     private String[] getParamsArray(Map params) {
+        if (!params.containsKey("param0")) {
+            return NO_PARAMS;
+        }
 
         int index = 0;
         List<String> paramList = new ArrayList<String>();
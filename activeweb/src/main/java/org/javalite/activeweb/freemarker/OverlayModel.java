@@ -0,0 +1,98 @@
+/*
+Copyright 2009-2014 Igor Polevoy
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package org.javalite.activeweb.freemarker;
+
+import freemarker.core.Environment;
+import freemarker.template.*;
+
+import java.util.*;
+
+/**
+ * Data model of a partial: a few values of its own on top of variables of a template that renders it.
+ * Variables of a parent are read through when a partial asks for them, not copied. Layers can be stacked,
+ * for instance values of each element of a collection on top of attributes of a <code>render</code> tag.
+ *
+ * @author Igor Polevoy
+ */
+final class OverlayModel implements TemplateHashModelEx {
+
+    private final Environment env;
+    private final OverlayModel parent;
+    private final Map<String, TemplateModel> values;
+
+    /**
+     * @param env environment of a template that renders a partial
+     * @param values values that hide variables of the template with the same names
+     */
+    OverlayModel(Environment env, Map<String, TemplateModel> values) {
+        this.env = env;
+        this.parent = null;
+        this.values = values;
+    }
+
+    /**
+     * @param parent layer to read through to
+     * @param values values that hide values of parent with the same names
+     */
+    OverlayModel(OverlayModel parent, Map<String, TemplateModel> values) {
+        this.env = parent.env;
+        this.parent = parent;
+        this.values = values;
+    }
+
+    public TemplateModel get(String key) throws TemplateModelException {
+        TemplateModel value = values.get(key);
+        if (value != null) {
+            return value;
+        }
+        return parent != null ? parent.get(key) : env.getVariable(key);
+    }
+
+    public boolean isEmpty() throws TemplateModelException {
+        return size() == 0;
+    }
+
+    // listing all variables is rare, so it is done the slow way
+
+    public int size() throws TemplateModelException {
+        return names().size();
+    }
+
+    public TemplateCollectionModel keys() throws TemplateModelException {
+        return new SimpleCollection(names());
+    }
+
+    public TemplateCollectionModel values() throws TemplateModelException {
+        List<TemplateModel> all = new ArrayList<TemplateModel>();
+        for (String name : names()) {
+            all.add(get(name));
+        }
+        return new SimpleCollection(all);
+    }
+
+    private Set<String> names() throws TemplateModelException {
+        Set<String> names = new LinkedHashSet<String>();
+        if (parent != null) {
+            names.addAll(parent.names());
+        } else {
+            for (Object name : env.getKnownVariableNames()) {
+                names.add(name.toString());
+            }
+        }
+        names.addAll(values.keySet());
+        return names;
+    }
+}
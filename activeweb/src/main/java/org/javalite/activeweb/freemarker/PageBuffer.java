@@ -0,0 +1,102 @@
+/*
+Copyright 2009-2014 Igor Polevoy
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package org.javalite.activeweb.freemarker;
+
+import java.io.Writer;
+
+/**
+ * Collects a page rendered before its layout. Unlike <code>StringWriter</code>, it is not synchronized, and its
+ * buffer is reused by pages rendered later on the same thread, so that it does not grow for each page.
+ *
+ * @author Igor Polevoy
+ */
+final class PageBuffer extends Writer {
+
+    private static final int INITIAL_SIZE = 8192;
+    // larger buffers are not kept, so that one large page does not hold memory of a thread
+    private static final int MAX_POOLED_SIZE = 1024 * 1024;
+    private static final ThreadLocal<char[]> buffers = new ThreadLocal<char[]>();
+
+    private char[] chars;
+    private int count;
+
+    PageBuffer() {
+        chars = buffers.get();
+        buffers.remove();
+        if (chars == null) {
+            chars = new char[INITIAL_SIZE];
+        }
+    }
+
+    @Override
+    public void write(char[] buffer, int offset, int length) {
+        ensureCapacity(length);
+        System.arraycopy(buffer, offset, chars, count, length);
+        count += length;
+    }
+
+    @Override
+    public void write(String string, int offset, int length) {
+        ensureCapacity(length);
+        string.getChars(offset, offset + length, chars, count);
+        count += length;
+    }
+
+    @Override
+    public void write(int c) {
+        ensureCapacity(1);
+        chars[count++] = (char) c;
+    }
+
+    private void ensureCapacity(int length) {
+        if (count + length > chars.length) {
+            char[] grown = new char[Math.max(chars.length * 2, count + length)];
+            System.arraycopy(chars, 0, grown, 0, count);
+            chars = grown;
+        }
+    }
+
+    @Override
+    public void flush() {}
+
+    @Override
+    public void close() {
+        release();
+    }
+
+    /**
+     * Returns the buffer to the current thread. Content is not available after this.
+     *
+     * @return content of the buffer.
+     */
+    String release() {
+        if (chars == null) {
+            return "";
+        }
+        String content = new String(chars, 0, count);
+        if (chars.length <= MAX_POOLED_SIZE) {
+            buffers.set(chars);
+        }
+        chars = null;
+        count = 0;
+        return content;
+    }
+
+    @Override
+    public String toString() {
+        return chars == null ? "" : new String(chars, 0, count);
+    }
+}
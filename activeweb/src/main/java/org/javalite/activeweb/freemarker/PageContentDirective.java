@@ -0,0 +1,84 @@
+/*
+Copyright 2009-2014 Igor Polevoy
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package org.javalite.activeweb.freemarker;
+
+import freemarker.core.Environment;
+import freemarker.template.*;
+import org.javalite.common.Util;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Renders a page directly into output of a streaming layout, at the place of <code>&lt;@page_content/&gt;</code>.
+ * Everything a layout renders before this tag is flushed to the client before the page is rendered.
+ * Content provided by <code>&lt;@content for=""&gt;</code> tags of the page is available to the layout only after
+ * this tag, with <code>&lt;@yield&gt;</code> or as variables. Before it, <code>&lt;@yield&gt;</code> fails, and so does
+ * a variable, unless a layout gives it a default. A layout that also uses <code>${page_content}</code> gets the page
+ * rendered into a string.
+ *
+ * @author Igor Polevoy
+ */
+class PageContentDirective implements TemplateDirectiveModel, TemplateScalarModel {
+
+    private final Template pageTemplate;
+    private final TemplateHashModel values;
+    private String rendered;
+
+    PageContentDirective(Template pageTemplate, TemplateHashModel values) {
+        this.pageTemplate = pageTemplate;
+        this.values = values;
+    }
+
+    public void execute(Environment env, Map params, TemplateModel[] loopVars, TemplateDirectiveBody body) throws TemplateException, IOException {
+        Writer out = env.getOut();
+        out.flush();
+        openContent();
+        pageTemplate.process(values, out);
+        exposeContent(env);
+    }
+
+    public String getAsString() throws TemplateModelException {
+        if (rendered == null) {
+            StringWriter writer = new StringWriter();
+            try {
+                openContent();
+                pageTemplate.process(values, writer);
+                exposeContent(Environment.getCurrentEnvironment());
+            } catch (Exception e) {
+                throw new TemplateModelException(e);
+            }
+            rendered = writer.toString();
+        }
+        return rendered;
+    }
+
+    private static void openContent() {
+        if (ContentTL.getAllContent() == null) {
+            ContentTL.reset();
+        }
+    }
+
+    private static void exposeContent(Environment env) {
+        Map<String, List<String>> assignedValues = ContentTL.getAllContent();
+        for (String name : assignedValues.keySet()) {
+            env.setGlobalVariable(name, new SimpleScalar(Util.join(assignedValues.get(name), " ")));
+        }
+    }
+}
@@ -21,17 +21,24 @@ import freemarker.template.*;
 import org.javalite.common.Util;
 
 import java.io.IOException;
-import java.util.List;
+import java.util.HashMap;
 import java.util.Map;
-import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 /**
  * Required attribute: partial
  *
+ * Partials see variables of a containing template through an {@link OverlayModel}, so that they are not copied
+ * for each partial, or each element of a collection. Paths and templates of partials are kept per containing template,
+ * and looked up again after <code>templateUpdateDelay</code> seconds.
  *
  * @author Igor Polevoy
  */
 public class RenderTag implements TemplateDirectiveModel {
+
+    private static final String PARTIALS = "activeweb.partials";
+
     public void execute(Environment env, Map params, TemplateModel[] loopVars, TemplateDirectiveBody body) throws TemplateException, IOException {
 
         String partialArgument;
@@ -41,46 +48,71 @@ public class RenderTag implements TemplateDirectiveModel {
             partialArgument = params.get("partial").toString();
         }
 
-        String partialPath = getTemplatePath(env.getTemplate().getName(), partialArgument);
-
         Template spacerTemplate = null;
         if(params.get("spacer") != null){
-            String spacerPath = getTemplatePath(env.getTemplate().getName(), params.get("spacer").toString());
-            spacerTemplate = env.getConfiguration().getTemplate(spacerPath + ".ftl" );
+            spacerTemplate = getPartial(env, params.get("spacer").toString());
         }
 
-
-        String[] partialParts = Util.split(params.get("partial").toString(), '/');
+        String[] partialParts = Util.split(partialArgument, '/');
         String partialName = partialParts[partialParts.length - 1];
-        Template partialTemplate = env.getConfiguration().getTemplate(partialPath + ".ftl" );
-
+        Template partialTemplate = getPartial(env, partialArgument);
 
+        @SuppressWarnings("unchecked")
+        OverlayModel tagValues = new OverlayModel(env, (Map<String, TemplateModel>) params);
         if(!params.containsKey("collection")){
-            SimpleHash envValues = getHash(env);
-            envValues.putAll(params);
-            partialTemplate.process(envValues, env.getOut());
+            partialTemplate.process(tagValues, env.getOut());
         }else{
-            //TODO: check the type
             if(params.get("collection") == null){
                 throw new IllegalArgumentException("collection must be provided!");
             }
-            List collection = ((SimpleSequence)params.get("collection")).toList();
-            for(int i = 0; i < collection.size(); i++){
-                SimpleHash hash = getHash(env);
-                hash.putAll(params);
-                hash.put( partialName, collection.get(i));
-                hash.put( partialName + "_counter", i);
-                hash.put( "first", i == 0);
-                hash.put( "last", i == collection.size()  - 1);
-                partialTemplate.process(hash, env.getOut());
-
-                if(i < collection.size() - 1 && spacerTemplate != null){
-                    spacerTemplate.process(hash, env.getOut());
+            if(!(params.get("collection") instanceof TemplateSequenceModel)){
+                throw new IllegalArgumentException("collection must be a list");
+            }
+            TemplateSequenceModel collection = (TemplateSequenceModel) params.get("collection");
+            int size = collection.size();
+            String counterName = partialName + "_counter";
+            for(int i = 0; i < size; i++){
+                Map<String, TemplateModel> values = new HashMap<String, TemplateModel>(8);
+                values.put(partialName, collection.get(i));
+                values.put(counterName, new SimpleNumber(i));
+                values.put("first", i == 0 ? TemplateBooleanModel.TRUE : TemplateBooleanModel.FALSE);
+                values.put("last", i == size - 1 ? TemplateBooleanModel.TRUE : TemplateBooleanModel.FALSE);
+                OverlayModel elementValues = new OverlayModel(tagValues, values);
+                partialTemplate.process(elementValues, env.getOut());
+
+                if(i < size - 1 && spacerTemplate != null){
+                    spacerTemplate.process(elementValues, env.getOut());
                 }
             }
         }
     }
 
+    /**
+     * Returns a partial of a template that is being rendered. Partials are kept in a custom attribute of a template,
+     * so they are dropped when a template is reloaded.
+     *
+     * @param env environment of a template
+     * @param partialArgument name of a partial as provided to the "render" tag
+     * @return template of a partial.
+     */
+    @SuppressWarnings("unchecked")
+    private Template getPartial(Environment env, String partialArgument) throws IOException {
+        Template container = env.getTemplate();
+        ConcurrentMap<String, Partial> partials = (ConcurrentMap<String, Partial>) container.getCustomAttribute(PARTIALS);
+        if (partials == null) {
+            partials = new ConcurrentHashMap<String, Partial>();
+            container.setCustomAttribute(PARTIALS, partials);
+        }
+        Partial partial = partials.get(partialArgument);
+        long now = System.currentTimeMillis();
+        if (partial == null || now - partial.loaded > org.javalite.activeweb.Configuration.getTemplateUpdateDelay() * 1000L) {
+            String path = partial != null ? partial.path : getTemplatePath(container.getName(), partialArgument) + ".ftl";
+            partial = new Partial(path, env.getConfiguration().getTemplate(path), now);
+            partials.put(partialArgument, partial);
+        }
+        return partial.template;
+    }
+
     /**
      *
      * @param containerName - name of the container template.
@@ -106,12 +138,15 @@ public class RenderTag implements TemplateDirectiveModel {
         return templatePath;
     }
 
-    private SimpleHash getHash(Environment env) throws TemplateModelException {
-        Set names = env.getKnownVariableNames();
-        SimpleHash simpleHash = new SimpleHash();
-        for(Object name: names){
-            simpleHash.put(name.toString(),env.getVariable(name.toString()));
+    private static final class Partial {
+        private final String path;
+        private final Template template;
+        private final long loaded;
+
+        private Partial(String path, Template template, long loaded) {
+            this.path = path;
+            this.template = template;
+            this.loaded = loaded;
         }
-        return simpleHash;
     }
 }
\ No newline at end of file
@@ -44,10 +44,10 @@ import java.util.Map;
  *
  * @author Igor Polevoy: 4/12/12 1:13 PM
  */
-public class SelectTag extends FreeMarkerTag {
+public class SelectTag extends StreamingFreeMarkerTag {
 
     @Override
-    protected void render(Map params, String body, Writer writer) throws Exception {
+    protected void render(Map params, TagBody body, Writer writer) throws Exception {
 
         validateParamsPresence(params, "list");
 
@@ -85,8 +85,8 @@ public class SelectTag extends FreeMarkerTag {
             optionsBuffer.append(tf.toString());
         }
 
-        TagFactory selectTf = new TagFactory("select", body + optionsBuffer);
+        TagFactory selectTf = new TagFactory("select", null);
         selectTf.addAttributesExcept(params, "list");
-        writer.write(selectTf.toString());
+        selectTf.write(writer, body, null, optionsBuffer.toString());
     }
 }
@@ -0,0 +1,87 @@
+/*
+Copyright 2009-2014 Igor Polevoy
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package org.javalite.activeweb.freemarker;
+
+import freemarker.template.TemplateDirectiveBody;
+import freemarker.template.TemplateException;
+import org.javalite.activeweb.ViewException;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.Writer;
+
+/**
+ * Body of a tag that is rendered only when a tag asks for it. A tag can write a body directly to output
+ * with {@link #writeTo(Writer)}, get it as a string with {@link #toString()}, or ignore it, in which case it is
+ * never rendered. A body rendered as a string is kept, so that it is rendered only once; a body written
+ * to output is rendered each time it is written.
+ *
+ * @author Igor Polevoy
+ */
+public final class TagBody {
+
+    private final TemplateDirectiveBody body;
+    private String rendered;
+
+    TagBody(TemplateDirectiveBody body) {
+        this.body = body;
+    }
+
+    /**
+     * @param rendered body that is already rendered, null if a tag has no body
+     */
+    TagBody(String rendered) {
+        this.body = null;
+        this.rendered = rendered;
+    }
+
+    /**
+     * @return true if a tag has no body, as in <code>&lt;@tag/&gt;</code>.
+     */
+    public boolean isEmpty() {
+        return body == null && rendered == null;
+    }
+
+    /**
+     * Renders body to a writer, usually output of a tag.
+     *
+     * @param writer writer to render body to
+     */
+    public void writeTo(Writer writer) throws IOException, TemplateException {
+        if (rendered != null) {
+            writer.write(rendered);
+        } else if (body != null) {
+            body.render(writer);
+        }
+    }
+
+    /**
+     * @return rendered body, empty string if a tag has no body.
+     */
+    @Override
+    public String toString() {
+        if (rendered == null) {
+            StringWriter writer = new StringWriter();
+            try {
+                writeTo(writer);
+            } catch (Exception e) {
+                throw new ViewException(e);
+            }
+            rendered = writer.toString();
+        }
+        return rendered;
+    }
+}
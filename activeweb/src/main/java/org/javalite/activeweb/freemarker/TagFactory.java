@@ -18,8 +18,10 @@ package org.javalite.activeweb.freemarker;
 
 import org.javalite.common.Util;
 
+import java.io.IOException;
 import java.io.StringWriter;
 import java.io.Writer;
+import java.nio.CharBuffer;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
@@ -52,16 +54,7 @@ public class TagFactory {
     public void write(Writer w) {
 
         try {
-            w.write("<");
-            w.write(name);
-            for (Attribute a : attributes) {
-                w.write(" ");
-                w.write(a.name());
-                w.write("=");
-                w.write("\"");
-                w.write(a.value());
-                w.write("\"");
-            }
+            writeStart(w);
 
             if(Util.blank(body)){
                 w.write("/>");
@@ -79,6 +72,130 @@ public class TagFactory {
         }
     }
 
+    /**
+     * Writes a tag with a body of another tag streamed into it, after content passed to constructor. Output is the
+     * same as that of {@link #write(Writer)} with the body appended to content, but the body is not kept in memory.
+     *
+     * @param w writer to write tag to.
+     * @param tagBody body to stream into a tag.
+     * @param blankBody text to write instead of a body that is blank, null to write a blank body as is.
+     * @param suffix content to write after the body, can be null.
+     * @return true if body was not blank.
+     */
+    public boolean write(Writer w, TagBody tagBody, String blankBody, String suffix) {
+        try {
+            writeStart(w);
+            Content content = new Content(w);
+            content.write(body);
+            BodyWriter bodyWriter = new BodyWriter(content);
+            tagBody.writeTo(bodyWriter);
+            boolean notBlank = bodyWriter.finish(blankBody);
+            content.write(suffix);
+            if (content.opened) {
+                w.write("</");
+                w.write(name);
+                w.write(">");
+            } else {
+                w.write("/>");
+            }
+            return notBlank;
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private void writeStart(Writer w) throws IOException {
+        w.write("<");
+        w.write(name);
+        for (Attribute a : attributes) {
+            w.write(" ");
+            w.write(a.name());
+            w.write("=");
+            w.write("\"");
+            w.write(a.value());
+            w.write("\"");
+        }
+    }
+
+    private static boolean blank(CharSequence chars) {
+        for (int i = 0; i < chars.length(); i++) {
+            if (chars.charAt(i) > ' ') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Content of a tag. Start tag is closed when first non-blank content is written; if there is none, tag
+     * is written as empty.
+     */
+    private static class Content {
+        private final Writer w;
+        private final StringBuilder held = new StringBuilder();
+        private boolean opened;
+
+        private Content(Writer w) {
+            this.w = w;
+        }
+
+        private void write(CharSequence chars) throws IOException {
+            if (chars == null || chars.length() == 0) {
+                return;
+            }
+            if (!opened) {
+                if (blank(chars)) {
+                    held.append(chars);
+                    return;
+                }
+                w.write(">");
+                w.write(held.toString());
+                opened = true;
+            }
+            w.append(chars);
+        }
+    }
+
+    /**
+     * Holds leading blank content of a body, so that a blank body can be replaced.
+     */
+    private static class BodyWriter extends Writer {
+        private final Content content;
+        private final StringBuilder leading = new StringBuilder();
+        private boolean notBlank;
+
+        private BodyWriter(Content content) {
+            this.content = content;
+        }
+
+        @Override
+        public void write(char[] chars, int offset, int length) throws IOException {
+            CharBuffer buffer = CharBuffer.wrap(chars, offset, length);
+            if (notBlank) {
+                content.write(buffer);
+            } else if (blank(buffer)) {
+                leading.append(buffer);
+            } else {
+                notBlank = true;
+                content.write(leading);
+                content.write(buffer);
+            }
+        }
+
+        private boolean finish(String blankBody) throws IOException {
+            if (!notBlank) {
+                content.write(blankBody == null ? leading : blankBody);
+            }
+            return notBlank;
+        }
+
+        @Override
+        public void flush() {}
+
+        @Override
+        public void close() {}
+    }
+
     /**
      * Will add values from params map except the exceptions.
      *
@@ -16,22 +16,21 @@ limitations under the License.
 package org.javalite.activeweb.freemarker;
 
 import freemarker.core.Environment;
-import freemarker.template.SimpleHash;
 import freemarker.template.Template;
 import freemarker.template.TemplateDirectiveBody;
 import freemarker.template.TemplateDirectiveModel;
 import freemarker.template.TemplateException;
 import freemarker.template.TemplateModel;
-import freemarker.template.TemplateModelException;
+import freemarker.template.TemplateScalarModel;
 import java.io.IOException;
-import java.io.StringWriter;
+import java.util.HashMap;
 import java.util.Map;
-import java.util.Set;
 import org.javalite.common.Util;
 
 /**
  * This tag wraps provided content into  a given layout.  <br/><br/>
- * Wrapper should contain placeholder ${page_content}<br/><br/>
+ * Wrapper should contain placeholder ${page_content}, or &lt;@page_content/&gt; to write inner content
+ * straight to output without keeping it in memory.<br/><br/>
  * 
  * Example:<br/>
  * &lt@wrap with="/wrap/wrapper"&gt Inner Content &lt/@wrap&gt<br/>
@@ -52,19 +51,17 @@ public class WrapTag implements TemplateDirectiveModel {
 
         String withArgument = params.get("with").toString();
 
-        StringWriter innerContent = new StringWriter();
-        body.render(innerContent);        
-
-        SimpleHash envValues = getHash(env);
-        envValues.putAll(params);
-        envValues.put("page_content", innerContent.toString());
+        @SuppressWarnings("unchecked")
+        Map<String, TemplateModel> values = new HashMap<String, TemplateModel>(params);
+        values.put("page_content", new PageContent(new TagBody(body)));
         for(Object key : params.keySet()) {
             if(key.toString().equals("with")) {
                 continue;
             } else {
-                envValues.put(key.toString(), params.get(key));
+                values.put(key.toString(), (TemplateModel) params.get(key));
             }
         }
+        OverlayModel envValues = new OverlayModel(env, values);
 
         String path = getTemplatePath(env.getTemplate().getName(), withArgument);
         Template template = env.getConfiguration().getTemplate(path + ".ftl");
@@ -90,13 +87,23 @@ public class WrapTag implements TemplateDirectiveModel {
         return templatePath;
     }
 
-    private SimpleHash getHash(Environment env) throws TemplateModelException {
-        Set names = env.getKnownVariableNames();
-        SimpleHash simpleHash = new SimpleHash();
-        for(Object name: names){
-            simpleHash.put(name.toString(),env.getVariable(name.toString()));
+    /**
+     * Body of this tag, rendered only when a wrapper uses it: as a string with <code>${page_content}</code>,
+     * or written straight to output with <code>&lt;@page_content/&gt;</code>.
+     */
+    private static class PageContent implements TemplateScalarModel, TemplateDirectiveModel {
+        private final TagBody body;
+
+        private PageContent(TagBody body) {
+            this.body = body;
         }
-        return simpleHash;
-    }
 
+        public String getAsString() {
+            return body.toString();
+        }
+
+        public void execute(Environment env, Map params, TemplateModel[] loopVars, TemplateDirectiveBody ignored) throws TemplateException, IOException {
+            body.writeTo(env.getOut());
+        }
+    }
 }
@@ -26,10 +26,10 @@ import java.util.Map;
 /**
  * @author Igor Polevoy
  */
-public class YieldTag extends FreeMarkerTag {
+public class YieldTag extends StreamingFreeMarkerTag {
     
     @Override
-    protected void render(Map params, String body, Writer writer) throws IOException {
+    protected void render(Map params, TagBody body, Writer writer) throws IOException {
         validateParamsPresence(params, "to");
         String nameOfContent = params.get("to").toString();
 
@@ -37,7 +37,8 @@ public class YieldTag extends FreeMarkerTag {
         Map<String, List<String>> allContent = ContentTL.getAllContent();
         if(allContent == null){
             throw new ViewException("Content for name: '" + nameOfContent + "' is missing. " +
-                    "Ensure you have this tag <@content for=\"title\">... on page being rendered.");
+                    "Ensure you have this tag <@content for=\"title\">... on page being rendered, " +
+                    "and that a layout with <@page_content/> yields content only after that tag.");
         }
         List<String>  contentList = ContentTL.getAllContent().get(nameOfContent);
 
@@ -0,0 +1,63 @@
+/*
+Copyright 2009-2014 Igor Polevoy
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package app.controllers;
+
+import org.javalite.activeweb.AppController;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * @author Igor Polevoy
+ */
+public class AsyncController extends AppController {
+
+    public static CountDownLatch release = new CountDownLatch(0), started = new CountDownLatch(0), finished = new CountDownLatch(0);
+
+    public void index() {
+        async(new Callable<Object>() {
+            public Object call() {
+                respond("completed on: " + Thread.currentThread().getName() + ", format: " + format());
+                return null;
+            }
+        });
+    }
+
+    public void fail() {
+        async(new Callable<Object>() {
+            public Object call() throws Exception {
+                throw new Exception("failed in task");
+            }
+        });
+    }
+
+    public void slow() {
+        async(new Callable<Object>() {
+            public Object call() {
+                started.countDown();
+                //ignores interrupts, like tasks blocked in I/O do
+                while (release.getCount() > 0) {
+                    try {
+                        release.await();
+                    } catch (InterruptedException ignore) {}
+                }
+                respond("completed after time out");
+                finished.countDown();
+                return null;
+            }
+        });
+    }
+}
@@ -0,0 +1,53 @@
+/*
+Copyright 2009-2014 Igor Polevoy
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package app.controllers;
+
+import org.javalite.activeweb.AppController;
+import org.javalite.activeweb.annotations.Compress;
+import org.javalite.activeweb.annotations.GET;
+
+/**
+ * @author Igor Polevoy
+ */
+@Compress
+public class CompressController extends AppController {
+
+    public static final String TEXT;
+    static {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 1000; i++) {
+            sb.append("line ").append(i).append('\n');
+        }
+        TEXT = sb.toString();
+    }
+
+    public void index() {
+        respond(TEXT);
+    }
+
+    public void small() {
+        respond("hi");
+    }
+
+    @GET @Compress(false)
+    public void off() {
+        respond(TEXT);
+    }
+
+    public void image() {
+        respond(TEXT).contentType("image/png");
+    }
+}
@@ -0,0 +1,55 @@
+/*
+Copyright 2009-2014 Igor Polevoy
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package app.controllers;
+
+import org.javalite.activeweb.AppController;
+import org.javalite.activeweb.annotations.ETag;
+import org.javalite.activeweb.annotations.POST;
+
+/**
+ * @author Igor Polevoy
+ */
+@ETag
+public class EtagController extends AppController {
+
+    public static String version = "1";
+    public static int renders;
+
+    public void index() {
+        renders++;
+        view("version", version);
+    }
+
+    public void show() {
+        if (notModified(version)) return;
+        renders++;
+        view("version", version);
+    }
+
+    @POST
+    public void update() {
+        if (notModified(version)) return;
+        renders++;
+        render("show");
+        view("version", version);
+    }
+
+    @ETag(false)
+    public void plain() {
+        render("index").noLayout();
+        view("version", version);
+    }
+}
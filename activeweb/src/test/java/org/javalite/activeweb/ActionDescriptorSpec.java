@@ -0,0 +1,57 @@
+/*
+Copyright 2009-2014 Igor Polevoy
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package org.javalite.activeweb;
+
+import app.controllers.RestfulController;
+import app.controllers.SimpleController;
+import org.junit.Test;
+
+import static org.javalite.test.jspec.JSpec.a;
+
+/**
+ * @author Igor Polevoy
+ */
+public class ActionDescriptorSpec {
+
+    SimpleController simpleController = new SimpleController();
+    RestfulController restfulController = new RestfulController();
+
+    @Test
+    public void shouldDescribeStandardAction() throws NoSuchMethodException {
+        ActionDescriptor action = ActionDescriptor.get(SimpleController.class, "new1");
+        a(action.getMethod().getName()).shouldBeEqual("new1");
+        a(action.getTemplatePath()).shouldBeEqual("/simple/new1");
+        a(action.isRestful()).shouldBeFalse();
+        a(action.supports(simpleController, HttpMethod.GET)).shouldBeTrue();
+        a(action.supports(simpleController, HttpMethod.POST)).shouldBeFalse();
+        a(ActionDescriptor.get(SimpleController.class, "new1")).shouldBeTheSameAs(action);
+    }
+
+    @Test
+    public void shouldDescribeRestfulAction() {
+        ActionDescriptor action = ActionDescriptor.get(RestfulController.class, "edit_form");
+        a(action.getMethodName()).shouldBeEqual("editForm");
+        a(action.isRestful()).shouldBeTrue();
+        a(action.supports(restfulController, HttpMethod.GET)).shouldBeTrue();
+        a(ActionDescriptor.get(RestfulController.class, "update").supports(restfulController, HttpMethod.PUT)).shouldBeTrue();
+    }
+
+    @Test(expected = ActionNotFoundException.class)
+    public void shouldThrowExceptionForNonExistentAction(){
+        ActionDescriptor.get(SimpleController.class, "blah").supports(simpleController, HttpMethod.GET);
+    }
+}
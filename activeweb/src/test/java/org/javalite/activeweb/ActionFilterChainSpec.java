@@ -0,0 +1,115 @@
+/*
+Copyright 2009-2014 Igor Polevoy
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package org.javalite.activeweb;
+
+import app.controllers.BookController;
+import app.controllers.SimpleController;
+import org.javalite.activeweb.controller_filters.ControllerFilter;
+import org.javalite.activeweb.mock.AbcFilter;
+import org.javalite.activeweb.mock.DefFilter;
+import org.javalite.activeweb.mock.LogFilter;
+import org.javalite.activeweb.mock.XyzFilter;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.mock.web.MockFilterConfig;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.javalite.test.jspec.JSpec.a;
+import static org.javalite.test.jspec.JSpec.the;
+
+/**
+ * @author Igor Polevoy
+ */
+public class ActionFilterChainSpec {
+
+    private ControllerRegistry registry;
+
+    @Before
+    public void before() {
+        registry = new ControllerRegistry(new MockFilterConfig());
+    }
+
+    @Test
+    public void shouldPutGlobalFiltersBeforeControllerFilters() {
+        ControllerFilter global = new AbcFilter(), controller = new XyzFilter(), action = new LogFilter();
+        registry.addGlobalFilters(global);
+        registry.getMetaData(SimpleController.class).addFilters(new ControllerFilter[]{controller});
+        registry.getMetaData(SimpleController.class).addFilters(new ControllerFilter[]{action}, new String[]{"index"});
+
+        ActionFilterChain chain = registry.getFilterChain(SimpleController.class, "index");
+        a(chain.getGlobalFilters().length).shouldBeEqual(1);
+        a(chain.getGlobalFilters()[0]).shouldBeTheSameAs(global);
+        a(chain.getControllerFilters().length).shouldBeEqual(2);
+        a(chain.getControllerFilters()[0]).shouldBeTheSameAs(controller);
+        a(chain.getControllerFilters()[1]).shouldBeTheSameAs(action);
+
+        chain = registry.getFilterChain(SimpleController.class, "show");
+        a(chain.getControllerFilters().length).shouldBeEqual(1);
+        a(chain.getControllerFilters()[0]).shouldBeTheSameAs(controller);
+    }
+
+    @Test
+    public void shouldSkipGlobalFiltersExcludedForController() {
+        List<Class<? extends AppController>> excluded = new ArrayList<Class<? extends AppController>>();
+        excluded.add(BookController.class);
+        ControllerFilter filter = new DefFilter();
+        registry.addGlobalFilters(Arrays.asList(filter), excluded);
+
+        a(registry.getFilterChain(BookController.class, "index").getGlobalFilters().length).shouldBeEqual(0);
+        a(registry.getFilterChain(SimpleController.class, "index").getGlobalFilters()[0]).shouldBeTheSameAs(filter);
+    }
+
+    @Test
+    public void shouldReuseChainUntilFiltersAreAdded() {
+        ActionFilterChain chain = registry.getFilterChain(SimpleController.class, "index");
+        a(registry.getFilterChain(SimpleController.class, "index")).shouldBeTheSameAs(chain);
+        a(registry.getFilterChain(SimpleController.class, "show")).shouldBeTheSameAs(chain);
+
+        registry.addGlobalFilters(new AbcFilter());
+        ActionFilterChain withGlobal = registry.getFilterChain(SimpleController.class, "index");
+        the(withGlobal).shouldNotBeTheSameAs(chain);
+        a(withGlobal.getGlobalFilters().length).shouldBeEqual(1);
+
+        registry.getMetaData(SimpleController.class).addFilter(new XyzFilter());
+        a(registry.getFilterChain(SimpleController.class, "index").getControllerFilters().length).shouldBeEqual(1);
+    }
+
+    @Test
+    public void shouldResolveGlobalFiltersOncePerController() {
+        final int[] resolved = {0};
+        registry = new ControllerRegistry(new MockFilterConfig()) {
+            @Override
+            List<ControllerFilter> getGlobalFilters(Class<? extends AppController> controllerClass) {
+                resolved[0]++;
+                return super.getGlobalFilters(controllerClass);
+            }
+        };
+        registry.addGlobalFilters(new AbcFilter());
+        registry.getMetaData(SimpleController.class).addFilters(new ControllerFilter[]{new LogFilter()}, new String[]{"index"});
+
+        registry.getFilterChain(SimpleController.class, "index");
+        registry.getFilterChain(SimpleController.class, "index");
+        registry.getFilterChain(SimpleController.class, "show");
+        a(resolved[0]).shouldBeEqual(1);
+
+        registry.addGlobalFilters(new XyzFilter());
+        a(registry.getFilterChain(SimpleController.class, "show").getGlobalFilters().length).shouldBeEqual(2);
+        a(resolved[0]).shouldBeEqual(2);
+    }
+}
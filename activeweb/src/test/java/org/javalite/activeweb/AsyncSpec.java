@@ -0,0 +1,125 @@
+/*
+Copyright 2009-2014 Igor Polevoy
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package org.javalite.activeweb;
+
+import app.controllers.AsyncController;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.mock.web.MockAsyncContext;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import javax.servlet.AsyncContext;
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.ServletException;
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
+import java.io.IOException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.javalite.test.SystemStreamUtil.getSystemErr;
+
+/**
+ * @author Igor Polevoy
+ */
+public class AsyncSpec extends RequestSpec {
+
+    private final CountDownLatch completed = new CountDownLatch(1);
+
+    @Before
+    public void beforeAsync() {
+        //MockAsyncContext#complete() needs spring-web, which is not on classpath
+        request = new MockHttpServletRequest() {
+            @Override
+            public AsyncContext startAsync(ServletRequest servletRequest, ServletResponse servletResponse) {
+                setAsyncStarted(true);
+                MockAsyncContext asyncContext = new MockAsyncContext(servletRequest, servletResponse) {
+                    @Override
+                    public void complete() {
+                        setAsyncStarted(false);
+                        completed.countDown();
+                    }
+                };
+                setAsyncContext(asyncContext);
+                return asyncContext;
+            }
+        };
+    }
+
+    @Test
+    public void shouldExecuteTaskInPlaceIfAsyncNotSupported() throws IOException, ServletException {
+        request.setServletPath("/async.xml");
+        request.setMethod("GET");
+        dispatcher.doFilter(request, response, filterChain);
+
+        a(request.isAsyncStarted()).shouldBeFalse();
+        a(response.getContentAsString()).shouldBeEqual("completed on: " + Thread.currentThread().getName() + ", format: xml");
+    }
+
+    @Test
+    public void shouldCompleteRequestOnAnotherThread() throws IOException, ServletException, InterruptedException {
+        request.setServletPath("/async.xml");
+        request.setMethod("GET");
+        request.setAsyncSupported(true);
+        dispatcher.doFilter(request, response, filterChain);
+
+        waitForCompletion();
+        a(response.getContentAsString()).shouldBeEqual("completed on: activeweb-async-1, format: xml");
+    }
+
+    @Test
+    public void shouldRenderErrorOfTask() throws IOException, ServletException, InterruptedException {
+        request.setServletPath("/async/fail");
+        request.setMethod("GET");
+        request.setAsyncSupported(true);
+        dispatcher.doFilter(request, response, filterChain);
+
+        waitForCompletion();
+        a(response.getStatus()).shouldBeEqual(500);
+        a(getSystemErr()).shouldContain("failed in task");
+    }
+
+    @Test
+    public void shouldNotWriteResponseAfterTimeOut() throws IOException, ServletException, InterruptedException {
+        AsyncController.release = new CountDownLatch(1);
+        AsyncController.started = new CountDownLatch(1);
+        AsyncController.finished = new CountDownLatch(1);
+        request.setServletPath("/async/slow");
+        request.setMethod("GET");
+        request.setAsyncSupported(true);
+        dispatcher.doFilter(request, response, filterChain);
+        a(AsyncController.started.await(5, TimeUnit.SECONDS)).shouldBeTrue();
+
+        MockAsyncContext asyncContext = (MockAsyncContext) request.getAsyncContext();
+        for (AsyncListener listener : asyncContext.getListeners()) {
+            listener.onTimeout(new AsyncEvent(asyncContext));
+        }
+        waitForCompletion();
+        a(response.getStatus()).shouldBeEqual(503);
+
+        AsyncController.release.countDown();
+        a(AsyncController.finished.await(5, TimeUnit.SECONDS)).shouldBeTrue();
+        Thread.sleep(200);
+        a(response.getStatus()).shouldBeEqual(503);
+        a(response.getContentAsString()).shouldNotContain("completed after time out");
+    }
+
+    private void waitForCompletion() throws InterruptedException {
+        a(completed.await(5, TimeUnit.SECONDS)).shouldBeTrue();
+        a(request.isAsyncStarted()).shouldBeFalse();
+    }
+}
@@ -0,0 +1,122 @@
+/*
+Copyright 2009-2014 Igor Polevoy
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package org.javalite.activeweb;
+
+import app.controllers.CachedController;
+import org.javalite.activeweb.controller_filters.HttpSupportFilter;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import javax.servlet.ServletException;
+import java.io.IOException;
+
+/**
+ * @author Igor Polevoy
+ */
+public class CacheResponseSpec extends RequestSpec {
+
+    @Before
+    public void clearCache() {
+        ResponseCache.clear();
+        CachedController.count = 0;
+    }
+
+    @Test
+    public void shouldSendCachedResponse() throws IOException, ServletException {
+        MockHttpServletResponse first = get("/cached", null);
+        MockHttpServletResponse second = get("/cached", null);
+
+        a(first.getContentAsString()).shouldBeEqual("count 1");
+        a(second.getContentAsString()).shouldBeEqual("count 1");
+        a(second.getHeader("X-Count")).shouldBeEqual("1");
+        a(second.getContentType()).shouldContain("text/plain");
+        a(second.getHeader("Content-Length")).shouldBeEqual("7");
+        a(CachedController.count).shouldBeEqual(1);
+        a(ResponseCache.getHits()).shouldBeEqual(1);
+        a(ResponseCache.getMisses()).shouldBeEqual(1);
+        a(ResponseCache.getCount()).shouldBeEqual(1);
+    }
+
+    @Test
+    public void shouldUseOnlySelectedParametersInKey() throws IOException, ServletException {
+        a(get("/cached/list", "page=1&sort=name").getContentAsString()).shouldBeEqual("page 1, count 1");
+        a(get("/cached/list", "page=1&sort=date").getContentAsString()).shouldBeEqual("page 1, count 1");
+        a(get("/cached/list", "page=2").getContentAsString()).shouldBeEqual("page 2, count 2");
+        a(ResponseCache.getCount()).shouldBeEqual(2);
+    }
+
+    @Test
+    public void shouldNotCacheResponsesThatSetCookies() throws IOException, ServletException {
+        get("/cached/cookie", null);
+        a(get("/cached/cookie", null).getContentAsString()).shouldBeEqual("count 2");
+        a(ResponseCache.getCount()).shouldBeEqual(0);
+    }
+
+    @Test
+    public void shouldNotCacheOtherMethods() throws IOException, ServletException {
+        request.setServletPath("/cached");
+        request.setMethod("POST");
+        dispatcher.doFilter(request, response, filterChain);
+        a(ResponseCache.getCount()).shouldBeEqual(0);
+    }
+
+    @Test
+    public void shouldSendCachedResponseAfterFilters() throws IOException, ServletException {
+        dispatcher.getControllerRegistry().getMetaData(CachedController.class).addFilter(new HttpSupportFilter() {
+            @Override
+            public void before() {
+                if (param("deny") != null) {
+                    respond("denied").status(403);
+                }
+            }
+        });
+        a(get("/cached", null).getContentAsString()).shouldBeEqual("count 1");
+
+        MockHttpServletResponse denied = get("/cached", "deny=true");
+        a(denied.getStatus()).shouldBeEqual(403);
+        a(denied.getContentAsString()).shouldBeEqual("denied");
+
+        MockHttpServletResponse cached = get("/cached", null);
+        a(cached.getContentAsString()).shouldBeEqual("count 1");
+        a(cached.getHeader("X-Count")).shouldBeEqual("1");
+        a(CachedController.count).shouldBeEqual(1);
+        a(ResponseCache.getHits()).shouldBeEqual(1);
+    }
+
+    @Test
+    public void shouldConfigureCacheInAnyOrder() {
+        AbstractControllerConfig config = new AbstractControllerConfig() {
+            public void init(AppContext context) {
+                cacheResponses(60).to(CachedController.class).forActions("index");
+                cacheResponses(60).to(CachedController.class).params("page").forActions("list");
+            }
+        };
+        config.init(new AppContext());
+        config.completeInit();
+
+        ControllerMetaData metaData = Context.getControllerRegistry().getMetaData(CachedController.class);
+        a(metaData.getCachePolicy("show")).shouldBeNull();
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/cached/list");
+        request.addParameter("page", "1");
+        request.addParameter("sort", "name");
+        a(metaData.getCachePolicy("list").key(request, "/cached/list")).shouldBeEqual(
+                new CachePolicy(60, new String[]{"page"}, null).key(request, "/cached/list"));
+        a(metaData.getCachePolicy("index").key(request, "/cached")).shouldBeEqual(
+                new CachePolicy(60, null, null).key(request, "/cached"));
+    }
+}
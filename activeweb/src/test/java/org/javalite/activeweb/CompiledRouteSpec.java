@@ -0,0 +1,56 @@
+/*
+Copyright 2009-2014 Igor Polevoy
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package org.javalite.activeweb;
+
+import app.controllers.Route3Controller;
+import app.controllers.SegmentRoute3Controller;
+import org.junit.Test;
+
+import static org.javalite.test.jspec.JSpec.a;
+
+/**
+ * @author Igor Polevoy
+ */
+public class CompiledRouteSpec {
+
+    @Test
+    public void shouldReturnSeparateMatchForEachRequest() throws ClassLoadException {
+        CompiledRoute route = new CompiledRoute(new RouteBuilder("/greeting/{user_id}/{action}/{id}").to(SegmentRoute3Controller.class));
+
+        RouteMatch first = route.match("/greeting/1/hi/123", HttpMethod.GET);
+        RouteMatch second = route.match("/greeting/2/bye/456", HttpMethod.GET);
+
+        a(first.getControllerClass()).shouldBeEqual(SegmentRoute3Controller.class);
+        a(first.getActionName()).shouldBeEqual("hi");
+        a(first.getId()).shouldBeEqual("123");
+        a(first.getUserSegments().get("user_id")).shouldBeEqual("1");
+
+        a(second.getActionName()).shouldBeEqual("bye");
+        a(second.getId()).shouldBeEqual("456");
+        a(second.getUserSegments().get("user_id")).shouldBeEqual("2");
+    }
+
+    @Test
+    public void shouldInferControllerPerMatch() throws ClassLoadException {
+        CompiledRoute route = new CompiledRoute(new RouteBuilder("/{action}/{controller}/{id}"));
+
+        a(route.match("/show/route_3/1", HttpMethod.GET).getControllerClass()).shouldBeEqual(Route3Controller.class);
+        a(route.match("/hi/segment_route_3/1", HttpMethod.GET).getControllerClass()).shouldBeEqual(SegmentRoute3Controller.class);
+        a(route.match("/show/route_3/1", HttpMethod.POST)).shouldBeNull();
+        a(route.match("/show/route_3", HttpMethod.GET)).shouldBeNull();
+    }
+}
@@ -0,0 +1,143 @@
+/*
+Copyright 2009-2014 Igor Polevoy
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package org.javalite.activeweb;
+
+import app.controllers.CompressController;
+import org.javalite.test.jspec.ExceptionExpectation;
+import org.junit.Test;
+
+import javax.servlet.ServletException;
+import javax.servlet.ServletOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * @author Igor Polevoy
+ */
+public class CompressionSpec extends RequestSpec {
+
+    @Test
+    public void shouldCompressWithGzip() throws IOException, ServletException {
+        request.setServletPath("/compress");
+        request.setMethod("GET");
+        request.addHeader("Accept-Encoding", "gzip, deflate");
+        dispatcher.doFilter(request, response, filterChain);
+
+        a(response.getHeader("Content-Encoding")).shouldBeEqual("gzip");
+        a(response.getHeader("Vary")).shouldBeEqual("Accept-Encoding");
+        a(response.getContentAsByteArray().length < CompressController.TEXT.length() / 2).shouldBeTrue();
+        a(read(new GZIPInputStream(new ByteArrayInputStream(response.getContentAsByteArray())))).shouldBeEqual(CompressController.TEXT);
+    }
+
+    @Test
+    public void shouldCompressWithDeflate() throws IOException, ServletException {
+        request.setServletPath("/compress");
+        request.setMethod("GET");
+        request.addHeader("Accept-Encoding", "gzip;q=0, deflate");
+        dispatcher.doFilter(request, response, filterChain);
+
+        a(response.getHeader("Content-Encoding")).shouldBeEqual("deflate");
+        a(read(new InflaterInputStream(new ByteArrayInputStream(response.getContentAsByteArray())))).shouldBeEqual(CompressController.TEXT);
+    }
+
+    @Test
+    public void shouldNotCompressIfClientDoesNotAcceptIt() throws IOException, ServletException {
+        request.setServletPath("/compress");
+        request.setMethod("GET");
+        dispatcher.doFilter(request, response, filterChain);
+
+        a(response.getHeader("Content-Encoding")).shouldBeNull();
+        a(response.getContentAsString()).shouldBeEqual(CompressController.TEXT);
+    }
+
+    @Test
+    public void shouldNotCompressSmallResponses() throws IOException, ServletException {
+        request.setServletPath("/compress/small");
+        request.setMethod("GET");
+        request.addHeader("Accept-Encoding", "gzip");
+        dispatcher.doFilter(request, response, filterChain);
+
+        a(response.getHeader("Content-Encoding")).shouldBeNull();
+        a(response.getHeader("Content-Length")).shouldBeEqual("2");
+        a(response.getContentAsString()).shouldBeEqual("hi");
+    }
+
+    @Test
+    public void shouldNotCompressCompressedContentTypes() throws IOException, ServletException {
+        request.setServletPath("/compress/image");
+        request.setMethod("GET");
+        request.addHeader("Accept-Encoding", "gzip");
+        dispatcher.doFilter(request, response, filterChain);
+
+        a(response.getHeader("Content-Encoding")).shouldBeNull();
+        a(response.getContentAsString()).shouldBeEqual(CompressController.TEXT);
+    }
+
+    @Test
+    public void shouldNotCompressActionsWithCompressionOff() throws IOException, ServletException {
+        request.setServletPath("/compress/off");
+        request.setMethod("GET");
+        request.addHeader("Accept-Encoding", "gzip");
+        dispatcher.doFilter(request, response, filterChain);
+
+        a(response.getHeader("Content-Encoding")).shouldBeNull();
+        a(response.getContentAsString()).shouldBeEqual(CompressController.TEXT);
+    }
+
+    @Test
+    public void shouldDiscardUnfinishedResponse() throws IOException {
+        request.addHeader("Accept-Encoding", "gzip");
+        CompressingResponse.wrap();
+        final ServletOutputStream out = Context.getHttpResponse().getOutputStream();
+        out.write(CompressController.TEXT.getBytes("ISO-8859-1"));
+        a(response.getHeader("Content-Encoding")).shouldBeEqual("gzip");
+        int written = response.getContentAsByteArray().length;
+
+        CompressingResponse.discard();
+        CompressingResponse.finish();
+        a(response.getContentAsByteArray().length).shouldBeEqual(written);
+        expect(new ExceptionExpectation<IOException>(IOException.class) {
+            @Override
+            public void exec() throws Exception {
+                out.write(1);
+            }
+        });
+    }
+
+    @Test
+    public void shouldNegotiateEncoding() {
+        a(CompressingResponse.negotiate(null)).shouldBeNull();
+        a(CompressingResponse.negotiate("identity")).shouldBeNull();
+        a(CompressingResponse.negotiate("deflate, gzip")).shouldBeEqual("gzip");
+        a(CompressingResponse.negotiate("gzip;q=0")).shouldBeNull();
+        a(CompressingResponse.negotiate("gzip;q=0.0, deflate;q=0.5")).shouldBeEqual("deflate");
+        a(CompressingResponse.negotiate("*")).shouldBeEqual("gzip");
+    }
+
+    private String read(InputStream in) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[1024];
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            out.write(buffer, 0, read);
+        }
+        return out.toString("ISO-8859-1");
+    }
+}
@@ -46,4 +46,23 @@ public class ControllerFactorySpec {
 
 
     }
+
+    @Test
+    public void shouldTellIfControllerIsRestful() throws ClassLoadException {
+        a(ControllerFactory.isRestful("/restful")).shouldBeTrue();
+        a(ControllerFactory.isRestful("restful")).shouldBeTrue();
+        a(ControllerFactory.isRestful("/legacy_restful")).shouldBeTrue();
+        a(ControllerFactory.isRestful("/book")).shouldBeFalse();
+
+        //cached values
+        a(ControllerFactory.isRestful("/restful")).shouldBeTrue();
+        a(ControllerFactory.isRestful("/book")).shouldBeFalse();
+
+        expect(new ExceptionExpectation<ClassLoadException>(ClassLoadException.class) {
+            @Override
+            public void exec() throws Exception {
+                ControllerFactory.isRestful("/does_not_exist");
+            }
+        });
+    }
 }
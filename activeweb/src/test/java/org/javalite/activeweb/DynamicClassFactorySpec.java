@@ -0,0 +1,66 @@
+/*
+Copyright 2009-2014 Igor Polevoy
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package org.javalite.activeweb;
+
+import app.controllers.HelloController;
+import org.javalite.test.jspec.ExceptionExpectation;
+import org.junit.Test;
+
+import static org.javalite.test.jspec.JSpec.a;
+import static org.javalite.test.jspec.JSpec.expect;
+
+/**
+ * @author Igor Polevoy
+ */
+public class DynamicClassFactorySpec {
+
+    @Test
+    public void shouldCreateNewInstanceOfCachedClass() throws ClassLoadException {
+        HelloController first = DynamicClassFactory.createInstance("app.controllers.HelloController", HelloController.class);
+        HelloController second = DynamicClassFactory.createInstance("app.controllers.HelloController", HelloController.class);
+        a(first == second).shouldBeFalse();
+        a(DynamicClassFactory.getCompiledClass("app.controllers.HelloController")).shouldBeTheSameAs(HelloController.class);
+    }
+
+    @Test
+    public void shouldFailEveryTimeForMissingClass() {
+        for (int i = 0; i < 2; i++) {
+            expect(new ExceptionExpectation<ClassLoadException>(ClassLoadException.class) {
+                @Override
+                public void exec() throws Exception {
+                    DynamicClassFactory.createInstance("app.controllers.DoesNotExistController", AppController.class);
+                }
+            });
+        }
+    }
+
+    @Test
+    public void shouldThrowNewExceptionForMissingClass() {
+        Throwable first = null;
+        for (int i = 0; i < 2; i++) {
+            try {
+                DynamicClassFactory.getCompiledClass("app.controllers.AlsoDoesNotExistController");
+            } catch (ClassLoadException e) {
+                a(e.getCause() instanceof ClassNotFoundException).shouldBeTrue();
+                a(e.getCause().getMessage()).shouldBeEqual("app.controllers.AlsoDoesNotExistController");
+                a(e.getCause() != first).shouldBeTrue();
+                first = e.getCause();
+            }
+        }
+        a(first).shouldNotBeNull();
+    }
+}
@@ -0,0 +1,105 @@
+/*
+Copyright 2009-2014 Igor Polevoy
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package org.javalite.activeweb;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+
+import static org.javalite.test.jspec.JSpec.a;
+import static org.javalite.test.jspec.JSpec.the;
+
+/**
+ * @author Igor Polevoy
+ */
+public class DynamicCompilerSpec {
+
+    private static final String CLASS_NAME = "app.controllers.CompiledTestController";
+    private static final String BASE_CLASS_NAME = "app.controllers.CompiledBaseController";
+
+    private File dir, source;
+    private DynamicCompiler compiler;
+
+    @Before
+    public void before() throws Exception {
+        dir = new File("target", "dynamic_compiler_" + System.nanoTime());
+        source = new File(dir, "src/app/controllers/CompiledTestController.java");
+        source.getParentFile().mkdirs();
+        compiler = new DynamicCompiler(System.getProperty("java.class.path") + File.pathSeparator + dir.getPath(),
+                dir.getPath(), dir.getPath());
+    }
+
+    @Test
+    public void shouldCompileOnlyWhenSourceChanges() throws Exception {
+        write("public String hello(){ return \"hello\"; }", 1000000);
+        Class first = compiler.getClass(CLASS_NAME, source);
+        a(first.getName()).shouldBeEqual(CLASS_NAME);
+        a(compiler.getClass(CLASS_NAME, source)).shouldBeTheSameAs(first);
+
+        //touched, but not changed
+        source.setLastModified(2000000);
+        a(compiler.getClass(CLASS_NAME, source)).shouldBeTheSameAs(first);
+
+        write("public String hello(){ return \"bye\"; }", 3000000);
+        Class second = compiler.getClass(CLASS_NAME, source);
+        the(second).shouldNotBeTheSameAs(first);
+        a(second.getMethod("hello").invoke(second.newInstance())).shouldBeEqual("bye");
+    }
+
+    @Test
+    public void shouldLoadClassAgainWhenSuperclassIsCompiledAgain() throws Exception {
+        File baseSource = new File(dir, "src/app/controllers/CompiledBaseController.java");
+        write(baseSource, "public class CompiledBaseController { public String hello(){ return \"hello\"; } }", 1000000);
+        compiler.getClass(BASE_CLASS_NAME, baseSource);
+        write(source, "public class CompiledTestController extends CompiledBaseController {}", 1000000);
+        Class first = compiler.getClass(CLASS_NAME, source);
+        a(first.getMethod("hello").invoke(first.newInstance())).shouldBeEqual("hello");
+
+        //superclass is compiled again, subclass source is not changed
+        write(baseSource, "public class CompiledBaseController { public String hello(){ return \"bye\"; } }", 2000000);
+        compiler.getClass(BASE_CLASS_NAME, baseSource);
+        new File(dir, "app/controllers/CompiledBaseController.class").setLastModified(2000000);
+        Class second = compiler.getClass(CLASS_NAME, source);
+        the(second).shouldNotBeTheSameAs(first);
+        a(second.getMethod("hello").invoke(second.newInstance())).shouldBeEqual("bye");
+        a(compiler.getClass(CLASS_NAME, source)).shouldBeTheSameAs(second);
+    }
+
+    @Test(expected = CompilationException.class)
+    public void shouldReportCompilationErrors() throws Exception {
+        write("public String hello(){ return 1; }", 1000000);
+        compiler.getClass(CLASS_NAME, source);
+    }
+
+    @Test(expected = ClassLoadException.class)
+    public void shouldFailIfSourceIsMissing() throws Exception {
+        compiler.getClass(CLASS_NAME, source);
+    }
+
+    private void write(String body, long timestamp) throws IOException {
+        write(source, "public class CompiledTestController { " + body + " }", timestamp);
+    }
+
+    private static void write(File file, String type, long timestamp) throws IOException {
+        FileWriter writer = new FileWriter(file);
+        writer.write("package app.controllers; " + type);
+        writer.close();
+        file.setLastModified(timestamp);
+    }
+}
@@ -0,0 +1,98 @@
+/*
+Copyright 2009-2014 Igor Polevoy
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package org.javalite.activeweb;
+
+import app.controllers.EtagController;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import javax.servlet.ServletException;
+import java.io.IOException;
+
+/**
+ * @author Igor Polevoy
+ */
+public class ETagSpec extends RequestSpec {
+
+    @Before
+    public void reset() {
+        EtagController.version = "1";
+        EtagController.renders = 0;
+    }
+
+    @Test
+    public void shouldRespondNotModifiedIfContentIsSame() throws IOException, ServletException {
+        MockHttpServletResponse first = get("/etag", null);
+        String etag = (String) first.getHeaderValue("ETag");
+        a(first.getStatus()).shouldBeEqual(200);
+        a(etag.startsWith("\"")).shouldBeTrue();
+
+        MockHttpServletResponse second = get("/etag", null, "If-None-Match", etag);
+        a(second.getStatus()).shouldBeEqual(304);
+        a(second.getContentAsByteArray().length).shouldBeEqual(0);
+        a(second.getHeaderValue("ETag")).shouldBeEqual(etag);
+
+        EtagController.version = "2";
+        MockHttpServletResponse third = get("/etag", null, "If-None-Match", etag);
+        a(third.getStatus()).shouldBeEqual(200);
+        a(third.getContentAsString()).shouldContain("version 2");
+        a(third.getHeaderValue("ETag")).shouldNotBeEqual(etag);
+    }
+
+    @Test
+    public void shouldSkipRenderingIfVersionIsSame() throws IOException, ServletException {
+        MockHttpServletResponse first = get("/etag/show", null);
+        String etag = (String) first.getHeaderValue("ETag");
+        a(etag.startsWith("W/\"")).shouldBeTrue();
+
+        MockHttpServletResponse second = get("/etag/show", null, "If-None-Match", etag);
+        a(second.getStatus()).shouldBeEqual(304);
+        a(second.getContentAsByteArray().length).shouldBeEqual(0);
+        a(EtagController.renders).shouldBeEqual(1);
+    }
+
+    @Test
+    public void shouldRenderOtherMethodsIfVersionIsSame() throws IOException, ServletException {
+        String etag = (String) get("/etag/show", null).getHeaderValue("ETag");
+
+        request.setServletPath("/etag/update");
+        request.setMethod("POST");
+        request.addHeader("If-None-Match", etag);
+        dispatcher.doFilter(request, response, filterChain);
+        a(response.getStatus()).shouldBeEqual(200);
+        a(response.getContentAsString()).shouldContain("version 1");
+        a(EtagController.renders).shouldBeEqual(2);
+    }
+
+    @Test
+    public void shouldNotGenerateETagIfTurnedOff() throws IOException, ServletException {
+        a(get("/etag/plain", null).getHeaderValue("ETag")).shouldBeNull();
+    }
+
+    @Test
+    public void shouldMatchTags() {
+        String etag = ETags.strong(new byte[]{1, 2, 3}, 3);
+        a(ETags.matches(etag, etag)).shouldBeTrue();
+        a(ETags.matches("\"other\", " + etag, etag)).shouldBeTrue();
+        a(ETags.matches("W/" + etag, etag)).shouldBeTrue();
+        a(ETags.matches(ETags.encoded(etag, "gzip"), etag)).shouldBeTrue();
+        a(ETags.matches("*", etag)).shouldBeTrue();
+        a(ETags.matches("\"other\"", etag)).shouldBeFalse();
+        a(ETags.matches(null, etag)).shouldBeFalse();
+        a(ETags.encoded("W/\"a\"", "gzip")).shouldBeEqual("W/\"a\"");
+    }
+}
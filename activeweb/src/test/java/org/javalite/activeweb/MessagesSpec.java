@@ -0,0 +1,68 @@
+/*
+Copyright 2009-2014 Igor Polevoy
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package org.javalite.activeweb;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.Locale;
+
+import static org.javalite.test.jspec.JSpec.a;
+
+/**
+ * @author Igor Polevoy
+ */
+public class MessagesSpec {
+
+    @After
+    public void after() {
+        Messages.clearCache();
+    }
+
+    @Test
+    public void shouldReturnSameMessagesWhenCached() {
+        for (int i = 0; i < 3; i++) {
+            a(Messages.message("greeting", Locale.ENGLISH)).shouldBeEqual("Hello!");
+            a(Messages.message("greeting", Locale.FRANCE)).shouldBeEqual("Bonjour!");
+            a(Messages.message("meeting", Locale.ENGLISH, "Monday", "noon"))
+                    .shouldBeEqual("Meeting will take place on Monday at noon");
+            a(Messages.message("meeting", Locale.ENGLISH, "Friday", "5:00 PM"))
+                    .shouldBeEqual("Meeting will take place on Friday at 5:00 PM");
+            a(Messages.message("quoted", Locale.ENGLISH, "this")).shouldBeEqual("Don't miss this");
+        }
+    }
+
+    @Test
+    public void shouldUseKeyIfMessageIsMissing() {
+        for (int i = 0; i < 3; i++) {
+            a(Messages.message("does_not_exist", Locale.ENGLISH)).shouldBeEqual("does_not_exist");
+            a(Messages.message("missing {0}", Locale.ENGLISH, "value")).shouldBeEqual("missing value");
+        }
+    }
+
+    @Test
+    public void shouldUseDefaultLocaleIfLocaleIsNotProvided() {
+        a(Messages.message("greeting", (Locale) null)).shouldBeEqual(Messages.message("greeting", Locale.getDefault()));
+    }
+
+    @Test
+    public void shouldFormatMessagesOfLocalesOverCacheLimit() {
+        for (int i = 0; i < 150; i++) {
+            a(Messages.message("meeting", new Locale("x" + i), "Monday", "noon"))
+                    .shouldBeEqual("Meeting will take place on Monday at noon");
+        }
+    }
+}
@@ -0,0 +1,103 @@
+/*
+Copyright 2009-2014 Igor Polevoy
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package org.javalite.activeweb;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.javalite.test.jspec.JSpec.a;
+import static org.javalite.test.jspec.JSpec.the;
+
+/**
+ * @author Igor Polevoy
+ */
+public class RequestParamsSpec {
+
+    private MockHttpServletRequest request;
+
+    @Before
+    public void before() {
+        request = new MockHttpServletRequest("GET", "/accounts");
+        request.addParameter("name", "John");
+        request.addParameter("tags", new String[]{"a", "b"});
+        request.addParameter("account[number]", "123");
+        request.addParameter("account[type]", "checking");
+        request.addParameter("accounts[number]", "456");
+        Context.setTLs(request, null, null, null, null, new RequestContext(), null);
+    }
+
+    @After
+    public void after() {
+        Context.clear();
+    }
+
+    @Test
+    public void shouldIndexParametersOncePerRequest() {
+        RequestParams params = RequestParams.current();
+        a(params.get("name")).shouldBeEqual("John");
+        a(params.get("tags")).shouldBeEqual("a");
+        a(params.getValues("tags").length).shouldBeEqual(2);
+        a(params.get("missing")).shouldBeNull();
+        the(RequestParams.current()).shouldBeTheSameAs(params);
+
+        Context.setHttpRequest(new MockHttpServletRequest());
+        the(RequestParams.current()).shouldNotBeTheSameAs(params);
+        a(RequestParams.current().get("name")).shouldBeNull();
+    }
+
+    @Test
+    public void shouldGroupHashParameters() {
+        Map<String, String> account = RequestParams.current().getHash("account");
+        a(account.size()).shouldBeEqual(2);
+        a(account.get("number")).shouldBeEqual("123");
+        a(account.get("type")).shouldBeEqual("checking");
+        a(RequestParams.current().getHash("accounts").get("number")).shouldBeEqual("456");
+        a(RequestParams.current().getHash("missing").isEmpty()).shouldBeTrue();
+    }
+
+    @Test
+    public void shouldServeRequestUtilsFromIndex() {
+        Context.getRequestContext().getUserSegments().put("user", "jane");
+        a(RequestUtils.param("name")).shouldBeEqual("John");
+        a(RequestUtils.params("tags").size()).shouldBeEqual(2);
+        a(RequestUtils.params1st().get("user")).shouldBeEqual("jane");
+        a(RequestUtils.params1st().get("tags")).shouldBeEqual("a");
+        a(RequestUtils.params().get("tags").length).shouldBeEqual(2);
+        a(RequestUtils.params().get("user")[0]).shouldBeEqual("jane");
+    }
+
+    @Test
+    public void shouldIndexFormFields() {
+        List<FormItem> items = new ArrayList<FormItem>();
+        items.add(new FormItem(null, "name", false, "text/plain", "John".getBytes()));
+        items.add(new FormItem(null, "name", false, "text/plain", "Jack".getBytes()));
+        items.add(new FormItem(null, "person[age]", false, "text/plain", "30".getBytes()));
+        items.add(new FormItem("photo.png", "photo", true, "image/png", new byte[]{1, 2}));
+
+        a(RequestUtils.param("name", items)).shouldBeEqual("John");
+        a(RequestUtils.params("name", items).size()).shouldBeEqual(2);
+        a(RequestUtils.param("photo", items)).shouldBeNull();
+        a(RequestUtils.params1st(items).size()).shouldBeEqual(2);
+        a(RequestParams.current(items).getHash("person").get("age")).shouldBeEqual("30");
+        the(RequestParams.current(items)).shouldBeTheSameAs(RequestParams.current(items));
+    }
+}
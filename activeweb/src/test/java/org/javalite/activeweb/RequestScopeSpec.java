@@ -0,0 +1,73 @@
+/*
+Copyright 2009-2014 Igor Polevoy
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package org.javalite.activeweb;
+
+import org.junit.After;
+import org.junit.Test;
+
+import static org.javalite.test.jspec.JSpec.a;
+
+/**
+ * @author Igor Polevoy
+ */
+public class RequestScopeSpec {
+
+    @After
+    public void after() {
+        Context.clear();
+    }
+
+    @Test
+    public void shouldReturnNullsWhenNothingIsBound() {
+        Context.clear();
+        a(Context.capture()).shouldBeNull();
+        a(Context.getFormat()).shouldBeNull();
+        a(Context.getControllerResponse()).shouldBeNull();
+    }
+
+    @Test
+    public void shouldClearAllValues() {
+        Context.setFormat("xml");
+        Context.setEncoding("UTF-8");
+        Context.clear();
+        a(Context.capture()).shouldBeNull();
+        a(Context.getFormat()).shouldBeNull();
+        a(Context.getEncoding()).shouldBeNull();
+    }
+
+    @Test
+    public void shouldBindCapturedScopeOnAnotherThread() throws InterruptedException {
+        Context.setFormat("json");
+        final RequestScope scope = Context.capture();
+        final String[] format = new String[2];
+
+        Thread thread = new Thread(new Runnable() {
+            public void run() {
+                format[0] = Context.getFormat();
+                Context.bind(scope);
+                format[1] = Context.getFormat();
+                Context.setEncoding("UTF-8");
+                Context.bind(null);
+            }
+        });
+        thread.start();
+        thread.join();
+
+        a(format[0]).shouldBeNull();
+        a(format[1]).shouldBeEqual("json");
+        a(Context.getEncoding()).shouldBeEqual("UTF-8");
+    }
+}
@@ -69,4 +69,29 @@ public abstract class RequestSpec extends JSpecSupport {
         restoreSystemErr();
     }
 
+    /**
+     * Sends a GET request through the dispatcher.
+     *
+     * @param path servlet path of request
+     * @param query query string, such as <code>"page=1&amp;sort=name"</code>, can be null
+     * @param headers names and values of request headers, in pairs
+     * @return response to request
+     */
+    protected MockHttpServletResponse get(String path, String query, String... headers) throws IOException, ServletException {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", path);
+        request.setServletPath(path);
+        if (query != null) {
+            for (String pair : query.split("&")) {
+                String[] nameValue = pair.split("=");
+                request.addParameter(nameValue[0], nameValue[1]);
+            }
+        }
+        for (int i = 0; i < headers.length; i += 2) {
+            request.addHeader(headers[i], headers[i + 1]);
+        }
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        dispatcher.doFilter(request, response, filterChain);
+        return response;
+    }
+
 }
@@ -0,0 +1,104 @@
+/*
+Copyright 2009-2014 Igor Polevoy
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package org.javalite.activeweb;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.IOException;
+
+import static org.javalite.test.jspec.JSpec.a;
+
+/**
+ * @author Igor Polevoy
+ */
+public class ResponseBufferSpec {
+
+    private MockHttpServletResponse response;
+
+    @Before
+    public void before() {
+        response = new MockHttpServletResponse();
+        response.setCharacterEncoding("UTF-8");
+    }
+
+    @Test
+    public void shouldSendBufferedContentWithContentLength() throws IOException {
+        ResponseBuffer buffer = new ResponseBuffer(response);
+        buffer.write("Привет, ");
+        buffer.write('w');
+        buffer.write("world".toCharArray(), 1, 4);
+        buffer.close();
+
+        a(response.getContentAsString()).shouldBeEqual("Привет, world");
+        a(response.getHeader("Content-Length")).shouldBeEqual(Integer.toString("Привет, world".getBytes("UTF-8").length));
+    }
+
+    @Test
+    public void shouldSendMultibyteContentWithLengthIfItFitsBuffer() throws IOException {
+        StringBuilder content = new StringBuilder();
+        for (int i = 0; i < Configuration.getResponseBufferSize() / 10; i++) {
+            content.append("Привет, мир");
+        }
+        String page = content.substring(0, Configuration.getResponseBufferSize());
+        ResponseBuffer buffer = new ResponseBuffer(response);
+        buffer.write(page, 0, page.length());
+        buffer.close();
+
+        a(response.getContentAsString()).shouldBeEqual(page);
+        a(response.getHeader("Content-Length")).shouldBeEqual(Integer.toString(page.getBytes("UTF-8").length));
+    }
+
+    @Test
+    public void shouldStreamContentLargerThanBuffer() throws IOException {
+        StringBuilder content = new StringBuilder();
+        ResponseBuffer buffer = new ResponseBuffer(response);
+        for (int i = 0; i < Configuration.getResponseBufferSize() / 10 + 1; i++) {
+            buffer.write("0123456789");
+            content.append("0123456789");
+        }
+        buffer.close();
+
+        a(response.getContentAsString()).shouldBeEqual(content.toString());
+        a(response.getHeader("Content-Length")).shouldBeNull();
+    }
+
+    @Test
+    public void shouldStreamContentWrittenAfterFlush() throws IOException {
+        ResponseBuffer buffer = new ResponseBuffer(response);
+        buffer.write("<head/>");
+        buffer.flush();
+        a(response.getContentAsString()).shouldBeEqual("");
+        buffer.write("<body/>");
+        a(response.getContentAsString()).shouldBeEqual("<head/><body/>");
+        buffer.flush();
+        buffer.close();
+
+        a(response.getHeader("Content-Length")).shouldBeNull();
+    }
+
+    @Test
+    public void shouldSendContentWithLengthIfNothingIsWrittenAfterFlush() throws IOException {
+        ResponseBuffer buffer = new ResponseBuffer(response);
+        buffer.write("hello");
+        buffer.flush();
+        buffer.close();
+
+        a(response.getContentAsString()).shouldBeEqual("hello");
+        a(response.getHeader("Content-Length")).shouldBeEqual("5");
+    }
+}
@@ -119,6 +119,28 @@ public class RouteGenerationSpec extends JSpecSupport {
     }
 
 
+    @Test
+    public void shouldGenerateSameRoutesRepeatedly(){
+        for (int i = 0; i < 3; i++) {
+            a(Router.generate("/books", "edit_form", "123", true, map("b", "x/y", "a", "\u00fc", "c", "plain")))
+                    .shouldBeEqual("/books/123/edit_form?a=%C3%BC&b=x%2Fy&c=plain");
+            a(Router.generate("/books", "edit_form", "456", true, new HashMap()))
+                    .shouldBeEqual("/books/456/edit_form");
+            a(Router.generate("/books", "edit_form", "123", false, map("q", "a b")))
+                    .shouldBeEqual("/books/edit_form/123?q=a+b");
+            a(Router.generate("books", null, null, true, map("page", 2)))
+                    .shouldBeEqual("/books?page=2");
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldFailIfIllegalActionNameProvidedForRestfulControllerRepeatedly(){
+        try {
+            Router.generate("books", "illegal_action_name", null, true, new HashMap());
+        } catch (IllegalArgumentException ignore) {}
+        Router.generate("books", "illegal_action_name", null, true, new HashMap());
+    }
+
     @Test(expected = ControllerException.class)
     public void shouldThrowExceptionIfControllerNameDoesNotEndWithController(){
 
@@ -0,0 +1,70 @@
+/*
+Copyright 2009-2014 Igor Polevoy
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package org.javalite.activeweb;
+
+import app.controllers.*;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.javalite.test.jspec.JSpec.a;
+
+/**
+ * @author Igor Polevoy
+ */
+public class RouteTrieSpec {
+
+    private RouteTrie trie(RouteBuilder... builders) {
+        List<CompiledRoute> routes = new ArrayList<CompiledRoute>();
+        for (RouteBuilder builder : builders) {
+            routes.add(new CompiledRoute(builder));
+        }
+        return new RouteTrie(routes);
+    }
+
+    @Test
+    public void shouldKeepDeclarationOrder() throws ClassLoadException {
+        RouteTrie trie = trie(new RouteBuilder("/greeting/{user_id}").to(SegmentRoute1Controller.class).action("hi"),
+                new RouteBuilder("/greeting/special").to(Route2Controller.class).action("hi"));
+
+        a(trie.match("/greeting/special", HttpMethod.GET).routeMatch.getControllerClass()).shouldBeEqual(SegmentRoute1Controller.class);
+
+        trie = trie(new RouteBuilder("/greeting/special").to(Route2Controller.class).action("hi"),
+                new RouteBuilder("/greeting/{user_id}").to(SegmentRoute1Controller.class).action("hi"));
+
+        a(trie.match("/greeting/special", HttpMethod.GET).routeMatch.getControllerClass()).shouldBeEqual(Route2Controller.class);
+        a(trie.match("/greeting/alex", HttpMethod.GET).routeMatch.getControllerClass()).shouldBeEqual(SegmentRoute1Controller.class);
+    }
+
+    @Test
+    public void shouldMatchRootStaticAndWildcardRoutes() throws ClassLoadException {
+        RouteTrie trie = trie(new RouteBuilder("/").to(Route1Controller.class),
+                new RouteBuilder("/greeting/*tail").to(WildcardRouteController.class).action("hello"),
+                new RouteBuilder("/greeting").post().to(Route2Controller.class).action("save"));
+
+        a(trie.match("/", HttpMethod.GET).routeMatch.getControllerClass()).shouldBeEqual(Route1Controller.class);
+
+        RouteMatch wildcard = trie.match("/greeting/1/2/3", HttpMethod.GET).routeMatch;
+        a(wildcard.getControllerClass()).shouldBeEqual(WildcardRouteController.class);
+        a(wildcard.getWildCardValue()).shouldBeEqual("1/2/3");
+
+        a(trie.match("/greeting", HttpMethod.POST).routeMatch.getActionName()).shouldBeEqual("save");
+        a(trie.match("/greeting", HttpMethod.GET)).shouldBeNull();
+        a(trie.match("/hello", HttpMethod.GET)).shouldBeNull();
+    }
+}
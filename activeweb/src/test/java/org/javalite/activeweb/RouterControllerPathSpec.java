@@ -94,4 +94,11 @@ public class RouterControllerPathSpec {
         router.getControllerPath("/admin");//this should fail because "admin" package exists, and
         //no controller is specified after.
     }
+
+    @Test
+    public void shouldMatchPackageOnSegmentBoundary() {
+        Map path = router.getControllerPath("/administrators/list");
+        a(path.get(Router.PACKAGE_SUFFIX)).shouldBeNull();
+        a(path.get(Router.CONTROLLER_NAME)).shouldBeEqual("administrators");
+    }
 }
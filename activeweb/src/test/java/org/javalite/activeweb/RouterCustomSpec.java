@@ -23,6 +23,8 @@ import org.junit.Test;
 import org.springframework.mock.web.MockHttpServletRequest;
 import org.springframework.mock.web.MockHttpServletResponse;
 
+import javax.servlet.ServletException;
+import java.io.IOException;
 import java.io.UnsupportedEncodingException;
 
 /**
@@ -288,4 +290,23 @@ public class RouterCustomSpec extends RequestSpec {
         execDispatcher();
         a(responseContent()).shouldBeEqual("");
     }
+
+    @Test
+    public void shouldBuildRoutesOnceForManyRequests() throws IOException, ServletException {
+        final int[] inits = {0};
+        routeConfig = new AbstractRouteConfig() {
+            public void init(AppContext appContext) {
+                inits[0]++;
+                route("/greeting").to(Route2Controller.class).action("hi");
+            }
+        };
+        request.setServletPath("/greeting");
+        execDispatcher();
+        a(responseContent()).shouldContain("route 2");
+
+        response = new MockHttpServletResponse();
+        dispatcher.doFilter(request, response, filterChain);
+        a(responseContent()).shouldContain("route 2");
+        a(inits[0]).shouldBeEqual(1);
+    }
 }
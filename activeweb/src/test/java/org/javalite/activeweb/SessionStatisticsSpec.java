@@ -0,0 +1,75 @@
+/*
+Copyright 2009-2014 Igor Polevoy
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package org.javalite.activeweb;
+
+import app.controllers.HelloController;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import static org.javalite.test.jspec.JSpec.a;
+import static org.javalite.test.jspec.JSpec.the;
+
+/**
+ * @author Igor Polevoy
+ */
+public class SessionStatisticsSpec {
+
+    private MockHttpServletRequest request;
+    private SessionFacade session;
+
+    @Before
+    public void before() throws Exception {
+        SessionStatistics.reset();
+        request = new MockHttpServletRequest("GET", "/hello");
+        Context.setHttpRequest(request);
+        Context.setRoute(new Route(new HelloController(), "index"));
+        session = new SessionFacade();
+    }
+
+    @After
+    public void after() {
+        Context.clear();
+        SessionStatistics.reset();
+    }
+
+    @Test
+    public void shouldNotCreateSessionWhenReading() {
+        a(session.get("user")).shouldBeNull();
+        a(session.containsKey("user")).shouldBeFalse();
+        a(session.isEmpty()).shouldBeTrue();
+        a(session.names().length).shouldBeEqual(0);
+        a(session.keySet().size()).shouldBeEqual(0);
+        session.remove("user");
+        session.invalidate();
+
+        a(request.getSession(false)).shouldBeNull();
+        the(SessionStatistics.getCreatedSessions().isEmpty()).shouldBeTrue();
+    }
+
+    @Test
+    public void shouldCountSessionsCreatedPerRoute() {
+        session.put("user", "John");
+        session.put("role", "admin");
+        a(session.get("user")).shouldBeEqual("John");
+        a(SessionStatistics.getCreatedSessions().get("/hello#index")).shouldBeEqual(1L);
+
+        Context.setHttpRequest(new MockHttpServletRequest("GET", "/hello"));
+        session.put("user", "Jane");
+        a(SessionStatistics.getCreatedSessions().get("/hello#index")).shouldBeEqual(2L);
+    }
+}
@@ -27,6 +27,7 @@ import javax.servlet.FilterChain;
 import javax.servlet.ServletException;
 import javax.servlet.ServletRequest;
 import javax.servlet.ServletResponse;
+import java.io.File;
 import java.io.IOException;
 
 /**
@@ -55,6 +56,101 @@ public class StreamSpec extends RequestSpec {
         a(response.getContentType()).shouldBeEqual("application/pdf");
     }
 
+    @Test
+    public void shouldSendFileLengthAndValidators() throws ServletException, IOException {
+        request.setServletPath("/stream/file");
+        request.setMethod("GET");
+        dispatcher.doFilter(request, response, filterChain);
+        a(response.getHeader("Content-Length")).shouldBeEqual("12181");
+        a(response.getHeader("Accept-Ranges")).shouldBeEqual("bytes");
+        a(response.getHeader("ETag")).shouldNotBeNull();
+        a(response.getHeader("Last-Modified")).shouldNotBeNull();
+    }
+
+    @Test
+    public void shouldAnswerConditionalRequestsWithNotModified() throws ServletException, IOException {
+        request.setServletPath("/stream/file");
+        request.setMethod("GET");
+        dispatcher.doFilter(request, response, filterChain);
+        String etag = response.getHeader("ETag");
+
+        request = new MockHttpServletRequest();
+        response = new MockHttpServletResponse();
+        request.setServletPath("/stream/file");
+        request.setMethod("GET");
+        request.addHeader("If-None-Match", etag);
+        dispatcher.doFilter(request, response, filterChain);
+        a(response.getStatus()).shouldBeEqual(304);
+        a(response.getContentAsByteArray().length).shouldBeEqual(0);
+
+        request = new MockHttpServletRequest();
+        response = new MockHttpServletResponse();
+        request.setServletPath("/stream/file");
+        request.setMethod("GET");
+        request.addHeader("If-Modified-Since", new File("src/test/resources/hello.pdf").lastModified());
+        dispatcher.doFilter(request, response, filterChain);
+        a(response.getStatus()).shouldBeEqual(304);
+    }
+
+    @Test
+    public void shouldSendSingleRange() throws ServletException, IOException {
+        request.setServletPath("/stream/file");
+        request.setMethod("GET");
+        request.addHeader("Range", "bytes=100-199");
+        dispatcher.doFilter(request, response, filterChain);
+        a(response.getStatus()).shouldBeEqual(206);
+        a(response.getHeader("Content-Range")).shouldBeEqual("bytes 100-199/12181");
+        a(response.getHeader("Content-Length")).shouldBeEqual("100");
+        a(response.getContentAsByteArray().length).shouldBeEqual(100);
+    }
+
+    @Test
+    public void shouldSendSuffixRange() throws ServletException, IOException {
+        request.setServletPath("/stream/file");
+        request.setMethod("GET");
+        request.addHeader("Range", "bytes=-81");
+        dispatcher.doFilter(request, response, filterChain);
+        a(response.getStatus()).shouldBeEqual(206);
+        a(response.getHeader("Content-Range")).shouldBeEqual("bytes 12100-12180/12181");
+        a(response.getContentAsByteArray().length).shouldBeEqual(81);
+    }
+
+    @Test
+    public void shouldSendMultipleRanges() throws ServletException, IOException {
+        request.setServletPath("/stream/file");
+        request.setMethod("GET");
+        request.addHeader("Range", "bytes=0-9, 20-29");
+        dispatcher.doFilter(request, response, filterChain);
+        a(response.getStatus()).shouldBeEqual(206);
+        a(response.getContentType().startsWith("multipart/byteranges; boundary=")).shouldBeTrue();
+        String content = new String(response.getContentAsByteArray(), "ISO-8859-1");
+        a(content).shouldContain("Content-Range: bytes 0-9/12181");
+        a(content).shouldContain("Content-Range: bytes 20-29/12181");
+        a(content).shouldContain("Content-Type: application/pdf");
+        a(response.getHeader("Content-Length")).shouldBeEqual(Integer.toString(response.getContentAsByteArray().length));
+    }
+
+    @Test
+    public void shouldRejectUnsatisfiableRange() throws ServletException, IOException {
+        request.setServletPath("/stream/file");
+        request.setMethod("GET");
+        request.addHeader("Range", "bytes=20000-");
+        dispatcher.doFilter(request, response, filterChain);
+        a(response.getStatus()).shouldBeEqual(416);
+        a(response.getHeader("Content-Range")).shouldBeEqual("bytes */12181");
+    }
+
+    @Test
+    public void shouldSendWholeFileIfRangeDoesNotMatch() throws ServletException, IOException {
+        request.setServletPath("/stream/file");
+        request.setMethod("GET");
+        request.addHeader("Range", "bytes=0-9");
+        request.addHeader("If-Range", "\"old\"");
+        dispatcher.doFilter(request, response, filterChain);
+        a(response.getStatus()).shouldBeEqual(200);
+        a(response.getContentAsByteArray().length).shouldBeEqual(12181);
+    }
+
     @Test
     public void shouldWriteContentToWriter() throws ServletException, IOException {
 
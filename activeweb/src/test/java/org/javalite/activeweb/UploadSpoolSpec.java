@@ -0,0 +1,129 @@
+/*
+Copyright 2009-2014 Igor Polevoy
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package org.javalite.activeweb;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.javalite.test.jspec.JSpec.a;
+import static org.javalite.test.jspec.JSpec.the;
+
+/**
+ * @author Igor Polevoy
+ */
+public class UploadSpoolSpec {
+
+    private int memory;
+
+    @Before
+    public void before() {
+        Context.setHttpRequest(new MockHttpServletRequest());
+        memory = UploadSpool.availableMemory();
+    }
+
+    @After
+    public void after() {
+        Context.releaseUploads();
+        Context.clear();
+    }
+
+    @Test
+    public void shouldKeepSmallItemsInMemoryUntilRequestEnds() throws Exception {
+        SpooledItem item = UploadSpool.spool(new ApacheFileItemFacade("a.txt", "file", "text/plain", true, bytes(100)), 1024);
+
+        the(item.inMemory()).shouldBeTrue();
+        a(item.getSize()).shouldBeEqual(100L);
+        a(UploadSpool.availableMemory()).shouldBeEqual(memory - 100);
+
+        Context.releaseUploads();
+        a(UploadSpool.availableMemory()).shouldBeEqual(memory);
+    }
+
+    @Test
+    public void shouldWriteLargeItemsToTemporaryFiles() throws Exception {
+        byte[] content = bytes(5000);
+        FileItem fileItem = new FileItem(UploadSpool.spool(new ApacheFileItemFacade("a.txt", "file", "text/plain", true, content), 1024));
+
+        Path temp = fileItem.getPath();
+        the(Files.exists(temp)).shouldBeTrue();
+        a(fileItem.getSize()).shouldBeEqual(5000L);
+        a(UploadSpool.availableMemory()).shouldBeEqual(memory);
+        the(Arrays.equals(fileItem.getBytes(), content)).shouldBeTrue();
+
+        Path target = Files.createTempFile("upload_spec", ".txt");
+        fileItem.moveTo(target);
+        Context.releaseUploads();
+
+        the(Files.exists(temp)).shouldBeFalse();
+        the(Arrays.equals(Files.readAllBytes(target), content)).shouldBeTrue();
+        Files.delete(target);
+    }
+
+    @Test
+    public void shouldDeleteTemporaryFilesWhenRequestEnds() throws Exception {
+        SpooledItem item = UploadSpool.spool(new ApacheFileItemFacade("a.txt", "file", "text/plain", true, bytes(100)), 10);
+        Path temp = item.getPath();
+        the(Files.exists(temp)).shouldBeTrue();
+        Context.releaseUploads();
+        the(Files.exists(temp)).shouldBeFalse();
+    }
+
+    @Test(expected = UploadLimitException.class)
+    public void shouldRejectUploadWhenMemoryIsUsedUp() throws Exception {
+        UploadSpool.spool(new ApacheFileItemFacade("a.txt", "file", "text/plain", true, bytes(100)), 1024);
+        UploadSpool.spool(new ApacheFileItemFacade("b.txt", "file", "text/plain", true, bytes(100)), memory);
+    }
+
+    @Test
+    public void shouldParseMultipartRequest() throws Exception {
+        byte[] content = bytes(Configuration.getUploadThreshold() + 1);
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        body.write(("--XyZ\r\nContent-Disposition: form-data; name=\"first_name\"\r\n\r\nJohn\r\n"
+                + "--XyZ\r\nContent-Disposition: form-data; name=\"file\"; filename=\"a.txt\"\r\n"
+                + "Content-Type: text/plain\r\n\r\n").getBytes("ISO-8859-1"));
+        body.write(content);
+        body.write("\r\n--XyZ--\r\n".getBytes("ISO-8859-1"));
+
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/upload");
+        request.setContentType("multipart/form-data; boundary=XyZ");
+        request.setContent(body.toByteArray());
+        Context.setHttpRequest(request);
+
+        List<FormItem> items = UploadSpool.parse(request, null);
+        a(items.size()).shouldBeEqual(2);
+        a(items.get(0).getStreamAsString()).shouldBeEqual("John");
+        the(items.get(1) instanceof FileItem).shouldBeTrue();
+        a(items.get(1).getFileName()).shouldBeEqual("a.txt");
+        a(items.get(1).getSize()).shouldBeEqual((long) content.length);
+        the(Arrays.equals(items.get(1).getBytes(), content)).shouldBeTrue();
+    }
+
+    private static byte[] bytes(int size) {
+        byte[] bytes = new byte[size];
+        for (int i = 0; i < size; i++) {
+            bytes[i] = (byte) ('a' + i % 26);
+        }
+        return bytes;
+    }
+}
@@ -0,0 +1,96 @@
+/*
+Copyright 2009-2014 Igor Polevoy
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package org.javalite.activeweb;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.javalite.common.Collections.map;
+import static org.javalite.test.jspec.JSpec.a;
+import static org.javalite.test.jspec.JSpec.the;
+
+/**
+ * @author Igor Polevoy
+ */
+public class ViewModelSpec {
+
+    private MockHttpServletRequest request;
+
+    @Before
+    public void before() {
+        request = new MockHttpServletRequest("GET", "/test/index");
+        request.setContextPath("/test");
+        Context.setHttpRequest(request);
+    }
+
+    @After
+    public void after() {
+        Context.clear();
+    }
+
+    @Test
+    public void shouldNotCreateSession() {
+        request.addParameter("name", "John");
+        ViewModel model = new ViewModel(map("title", "Hello"));
+
+        a(model.get("title")).shouldBeEqual("Hello");
+        a(model.get("context_path")).shouldBeEqual("/test");
+        a(((Map) model.get("request")).get("name")).shouldBeEqual("John");
+        a(((Map) model.get("request_props")).get("url")).shouldBeEqual("http://localhost/test/index");
+        a(model.get("flasher")).shouldBeNull();
+        a(request.getSession(false)).shouldBeNull();
+
+        a(((Map) model.get("session")).size()).shouldBeEqual(0);
+        a(request.getSession(false)).shouldBeNull();
+    }
+
+    @Test
+    public void shouldGiveControllerValuesPrecedenceOverRequestAttributes() {
+        request.setAttribute("title", "from attribute");
+        request.setAttribute("footer", "from attribute");
+        ViewModel model = new ViewModel(map("title", "from controller"));
+
+        a(model.get("title")).shouldBeEqual("from controller");
+        a(model.get("footer")).shouldBeEqual("from attribute");
+        a(model.containsKey("footer")).shouldBeTrue();
+        a(model.containsKey("header")).shouldBeFalse();
+    }
+
+    @Test
+    public void shouldProvideFlasherFromSession() {
+        request.getSession().setAttribute("flasher", map("message", "saved"));
+        ViewModel model = new ViewModel(new HashMap());
+        a(((Map) model.get("flasher")).get("message")).shouldBeEqual("saved");
+    }
+
+    @Test
+    public void shouldListAllValuesWithoutChangingControllerValues() {
+        request.setAttribute("footer", "from attribute");
+        Map values = map("title", "Hello");
+        ViewModel model = new ViewModel(values);
+        model.put("page_content", "content");
+
+        the(model.keySet().containsAll(Arrays.asList("title", "footer", "page_content",
+                "context_path", "activeweb", "request", "session", "request_props"))).shouldBeTrue();
+        a(values.size()).shouldBeEqual(1);
+    }
+}
@@ -44,4 +44,10 @@ public class DebugTagSpec  {
                 "/debug/debug", sw);
         a(sw.toString()).shouldContain("{controller=simple}");
     }
+
+    @Test
+    public void shouldNotRenderIgnoredBody() {
+        manager.merge(map("name", "value"), "/debug/debug_with_body", sw);
+        a(sw.toString()).shouldBeEqual("value");
+    }
 }
@@ -18,13 +18,18 @@ package org.javalite.activeweb.freemarker;
 
 import freemarker.template.TemplateException;
 import org.javalite.test.XPathHelper;
+import org.javalite.test.jspec.ExceptionExpectation;
 import org.javalite.test.jspec.JSpecSupport;
 import org.dom4j.DocumentException;
+import org.javalite.activeweb.InitException;
+import org.javalite.activeweb.ViewException;
 import org.javalite.activeweb.freemarker.FreeMarkerTemplateManager;
 import org.junit.Before;
 import org.junit.Test;
 
 import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileWriter;
 import java.io.IOException;
 import java.io.PrintStream;
 import java.io.StringWriter;
@@ -84,6 +89,77 @@ public class FreeMarkerTemplateManagerSpec extends JSpecSupport {
         a(XPathHelper.selectText("//title", generated)).shouldEqual("sample content");
     }
 
+    @Test
+    public void shouldStreamPageIntoLayoutWithPageContentTag() throws IOException, DocumentException {
+
+        manager.setDefaultLayout("/layouts/streaming_layout");
+        Map values = new HashMap();
+        values.put("name", "Jim");
+
+        for (int i = 0; i < 2; i++) {
+            StringWriter sw = new StringWriter();
+            manager.merge(values, "/abc_controller/contains_content_for", sw);
+            String generated = sw.toString();
+
+            a(XPathHelper.selectText("//title", generated)).shouldEqual("streaming");
+            a(XPathHelper.selectText("//div[@id='content']", generated)).shouldContain("name is: Jim");
+            a(XPathHelper.selectText("//div[@id='yield']", generated)).shouldEqual("sample content");
+            a(XPathHelper.selectText("//div[@id='variable']", generated)).shouldEqual("sample content");
+        }
+    }
+
+    @Test
+    public void shouldStreamLayoutWithPageContentTag() throws IOException, DocumentException {
+        for (String layout : new String[]{"/layouts/streaming_layout", "/layouts/streaming_square_layout"}) {
+            manager.setDefaultLayout(layout);
+            for (int i = 0; i < 2; i++) {
+                String flushed = firstFlush(manager);
+                a(flushed).shouldContain("<title>streaming</title>");
+                a(flushed).shouldNotContain("name is: Jim");
+            }
+        }
+    }
+
+    @Test
+    public void shouldNotStreamLayoutWithPageContentVariable() throws IOException {
+        manager.setDefaultLayout("/layouts/default_layout");
+        for (int i = 0; i < 2; i++) {
+            a(firstFlush(manager)).shouldBeNull();
+        }
+    }
+
+    @Test
+    public void shouldFailIfStreamingLayoutUsesContentBeforePageContentTag() {
+        for (String layout : new String[]{"/layouts/streaming_layout_yield_before", "/layouts/streaming_layout_variable_before"}) {
+            manager.setDefaultLayout(layout);
+            for (int i = 0; i < 2; i++) {
+                expect(new ExceptionExpectation<ViewException>(ViewException.class) {
+                    @Override
+                    public void exec() {
+                        manager.merge(map("name", "Jim"), "/abc_controller/contains_content_for", new StringWriter());
+                    }
+                });
+            }
+        }
+    }
+
+    /**
+     * @return content written before the first flush, null if there was no flush.
+     */
+    private static String firstFlush(FreeMarkerTemplateManager manager) {
+        final String[] flushed = {null};
+        StringWriter sw = new StringWriter() {
+            @Override
+            public void flush() {
+                if (flushed[0] == null) {
+                    flushed[0] = toString();
+                }
+            }
+        };
+        manager.merge(map("name", "Jim"), "/abc_controller/contains_content_for", sw);
+        return flushed[0];
+    }
+
     @Test
     public void yieldShouldFailGracefullyIfNoContentProvided() throws IOException, DocumentException {
 
@@ -139,4 +215,33 @@ public class FreeMarkerTemplateManagerSpec extends JSpecSupport {
         manager.merge(new HashMap(), "/formatting/index", "/layouts/default_layout", "xml", sw);
         a(sw.toString()).shouldContain("XML");
     }
+
+    @Test
+    public void shouldWarmUpAllTemplates() {
+        Map<String, Long> times = manager.warmUp(false);
+        a(times.containsKey("layouts/default_layout.ftl")).shouldBeTrue();
+        a(times.containsKey("formatting/index.xml.ftl")).shouldBeTrue();
+        a(times.containsKey("partial/number_format.ftl")).shouldBeTrue();
+    }
+
+    @Test
+    public void shouldFailWarmUpOnBrokenTemplates() throws IOException {
+        File dir = new File("target/broken_views");
+        dir.mkdirs();
+        FileWriter writer = new FileWriter(new File(dir, "broken.ftl"));
+        writer.write("${unclosed");
+        writer.close();
+        writer = new FileWriter(new File(dir, "fine.ftl"));
+        writer.write("fine");
+        writer.close();
+
+        manager.setTemplateLocation("target/broken_views");
+        a(manager.warmUp(false).keySet().toString()).shouldBeEqual("[fine.ftl]");
+        expect(new ExceptionExpectation<InitException>(InitException.class) {
+            @Override
+            public void exec() throws Exception {
+                manager.warmUp(true);
+            }
+        });
+    }
 }
@@ -17,6 +17,7 @@ package org.javalite.activeweb.freemarker;
 
 import org.javalite.activeweb.RequestSpec;
 import org.javalite.activeweb.ViewException;
+import org.javalite.test.jspec.ExceptionExpectation;
 import org.junit.Before;
 import org.junit.Test;
 
@@ -52,6 +53,17 @@ public class LinkToTagSpec extends RequestSpec {
         manager.merge(new HashMap(), "/link_to/body_missing", sw);
     }
 
+    @Test
+    public void shouldFailIfBodyBlankWithoutWritingLink() {
+        expect(new ExceptionExpectation<ViewException>(ViewException.class) {
+            @Override
+            public void exec() {
+                manager.merge(map("context_path", "/bookstore"), "/link_to/body_blank", sw);
+            }
+        });
+        a(sw.toString()).shouldNotContain("<a");
+    }
+
      @Test(expected = ViewException.class)
     public void shouldFailIfQueryStringAndQueryParamsDefined() {
         manager.merge(new HashMap(), "/link_to/query_params_and_query_string", sw);
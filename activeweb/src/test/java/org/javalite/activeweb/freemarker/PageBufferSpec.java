@@ -0,0 +1,54 @@
+/*
+Copyright 2009-2014 Igor Polevoy
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package org.javalite.activeweb.freemarker;
+
+import org.junit.Test;
+
+import java.io.IOException;
+
+import static org.javalite.test.jspec.JSpec.a;
+
+/**
+ * @author Igor Polevoy
+ */
+public class PageBufferSpec {
+
+    @Test
+    public void shouldCollectContent() throws IOException {
+        PageBuffer buffer = new PageBuffer();
+        buffer.write("hello, ");
+        buffer.write(new char[]{'w', 'o', 'r', 'l', 'd'}, 0, 5);
+        buffer.write('!');
+        a(buffer.toString()).shouldBeEqual("hello, world!");
+        a(buffer.release()).shouldBeEqual("hello, world!");
+        a(buffer.release()).shouldBeEqual("");
+    }
+
+    @Test
+    public void shouldGrowAndStartEmptyWhenReused() throws IOException {
+        StringBuilder expected = new StringBuilder();
+        PageBuffer buffer = new PageBuffer();
+        for (int i = 0; i < 10000; i++) {
+            buffer.write("line " + i + "\n");
+            expected.append("line ").append(i).append("\n");
+        }
+        a(buffer.release()).shouldBeEqual(expected.toString());
+
+        buffer = new PageBuffer();
+        buffer.write("short");
+        a(buffer.release()).shouldBeEqual("short");
+    }
+}
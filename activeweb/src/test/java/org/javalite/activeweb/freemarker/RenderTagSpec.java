@@ -134,7 +134,10 @@ public class RenderTagSpec extends JSpecSupport {
                                         "and the fruit is: pear, first: false, last: true");
     }
 
-
-
-
+    @Test
+    public void shouldReadVariablesOfContainerFromPartialWithCollection() throws IOException, TemplateException {
+        StringWriter sw = new StringWriter();
+        manager.merge(map("fruits", li("apple", "prune"), "store", "market"), "/partial/main_with_collection_partial_and_outer_values", sw);
+        a(sw.toString()).shouldBeEqual("apple is red from market;prune is red from market;");
+    }
 }
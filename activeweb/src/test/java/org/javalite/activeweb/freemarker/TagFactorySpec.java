@@ -18,9 +18,12 @@ package org.javalite.activeweb.freemarker;
 
 import org.javalite.test.jspec.JSpecSupport;
 import org.javalite.activeweb.freemarker.TagFactory;
+import freemarker.template.TemplateDirectiveBody;
 import org.junit.Test;
 
+import java.io.IOException;
 import java.io.StringWriter;
+import java.io.Writer;
 
 import static org.javalite.common.Collections.*;
 
@@ -39,4 +42,30 @@ public class TagFactorySpec extends JSpecSupport{
         System.out.println(sw);
         a(sw.toString()).shouldBeEqual("<img src=\"images/button.png\" alt=\"click this image\"/>");
     }
+
+    @Test
+    public void shouldStreamBodyIntoTag(){
+        a(write(new TagFactory("a", null), body(" ", "click", " me"), null, null)).shouldBeEqual("<a href=\"#\"> click me</a>");
+        a(write(new TagFactory("a", null), body(" ", "\n"), null, null)).shouldBeEqual("<a href=\"#\"/>");
+        a(write(new TagFactory("a", null), new TagBody((String) null), null, null)).shouldBeEqual("<a href=\"#\"/>");
+        a(write(new TagFactory("form", "<input/>"), body(" "), "&nbsp;", null)).shouldBeEqual("<form href=\"#\"><input/>&nbsp;</form>");
+        a(write(new TagFactory("select", null), body(" "), null, "<option/>")).shouldBeEqual("<select href=\"#\"> <option/></select>");
+    }
+
+    private String write(TagFactory tf, TagBody body, String blankBody, String suffix){
+        tf.attribute("href", "#");
+        StringWriter sw = new StringWriter();
+        tf.write(sw, body, blankBody, suffix);
+        return sw.toString();
+    }
+
+    private TagBody body(final String... chunks){
+        return new TagBody(new TemplateDirectiveBody() {
+            public void render(Writer out) throws IOException {
+                for (String chunk : chunks) {
+                    out.write(chunk);
+                }
+            }
+        });
+    }
 }
@@ -66,4 +66,10 @@ public class WrapTagSpec {
         it(sw.toString()).shouldBeEqual("[HEADER] [FOOTER]");
     }
 
+    @Test
+    public void shouldStreamInnerContentIntoWrapper() {
+        StringWriter sw = new StringWriter();
+        manager.merge(map("name", "value"), "/wrap/template_streaming", sw);
+        it(sw.toString()).shouldBeEqual("[HEADER]inner value[FOOTER]");
+    }
 }
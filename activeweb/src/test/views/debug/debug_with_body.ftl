@@ -0,0 +1 @@
+<@debug print=name>${missing}</@debug>
\ No newline at end of file
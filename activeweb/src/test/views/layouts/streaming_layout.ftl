@@ -0,0 +1,8 @@
+<html>
+<head><title>streaming</title></head>
+<body>
+<div id="content"><@page_content/></div>
+<div id="yield"><@yield to="title"/></div>
+<div id="variable">${title}</div>
+</body>
+</html>
@@ -0,0 +1,4 @@
+<html>
+<head><title>${title}</title></head>
+<body><@page_content/></body>
+</html>
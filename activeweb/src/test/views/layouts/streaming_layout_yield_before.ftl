@@ -0,0 +1,4 @@
+<html>
+<head><title><@yield to="title"/></title></head>
+<body><@page_content/></body>
+</html>
@@ -0,0 +1 @@
+<@link_to controller="book" action="read">   </@link_to>
\ No newline at end of file
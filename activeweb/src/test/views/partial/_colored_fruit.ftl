@@ -0,0 +1 @@
+${colored_fruit} is ${color} from ${store};
\ No newline at end of file
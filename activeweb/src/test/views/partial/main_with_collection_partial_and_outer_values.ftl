@@ -0,0 +1 @@
+<#assign color="red"><@render partial="colored_fruit" collection=fruits/>
\ No newline at end of file
@@ -0,0 +1 @@
+[HEADER]<@page_content/>[FOOTER]
\ No newline at end of file
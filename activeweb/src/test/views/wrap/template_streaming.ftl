@@ -0,0 +1 @@
+<@wrap with="/wrap/streaming_wrapper">inner ${name}</@wrap>
\ No newline at end of file